@@ -0,0 +1,168 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.api.batch.sensor.cache.WriteCache;
+
+/**
+ * Cache of the audits kept by the SonarQube server between analyses, see
+ * {@code SensorContext.previousCache()} and {@code SensorContext.nextCache()}.
+ * Unlike {@link CheckstyleWorkDirCache}, it survives the loss of the working
+ * directory. Every file is stored under a key derived from its content hash
+ * and from the cache key of the configuration, so any change of either
+ * simply misses the cache.
+ */
+final class CheckstyleAnalysisCache implements CheckstyleResultCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleAnalysisCache.class);
+
+    private static final String KEY_PREFIX = "checkstyle:audits:";
+
+    private final ReadCache previousCache;
+    private final WriteCache nextCache;
+    private final String cacheKey;
+    private final ClassLoader classLoader;
+    private final Map<String, String> fileKeys = new ConcurrentHashMap<>();
+    /** Guards the caches of the scanner, which are not meant for concurrent use. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param previousCache The cache of the previous analysis.
+     * @param nextCache The cache for the next analysis.
+     * @param configurationHash The hash of the Checkstyle configuration.
+     * @param classLoader The class loader of the Checkstyle modules.
+     */
+    CheckstyleAnalysisCache(ReadCache previousCache, WriteCache nextCache,
+            String configurationHash, ClassLoader classLoader) {
+        this.previousCache = previousCache;
+        this.nextCache = nextCache;
+        cacheKey = CheckstyleResultCache.getCacheKey(configurationHash);
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    @Nullable
+    public List<CheckstyleFileAudit> get(InputFile inputFile) {
+        final String key = getKey(inputFile);
+        List<CheckstyleFileAudit> result = null;
+        if (key != null) {
+            final byte[] data = read(key);
+            if (data != null) {
+                final String fileName = new File(inputFile.uri()).getAbsolutePath();
+                try {
+                    result = CheckstyleAuditSerializer.deserialize(data, fileName, this,
+                            classLoader);
+                    copyFromPrevious(key);
+                }
+                catch (IOException | ClassNotFoundException exception) {
+                    LOG.debug("Ignoring Checkstyle cache entry of {}", fileName, exception);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void put(InputFile inputFile, List<CheckstyleFileAudit> audits) {
+        final String key = getKey(inputFile);
+        if (key != null && audits.stream().noneMatch(CheckstyleFileAudit::hasExceptions)) {
+            write(key, CheckstyleAuditSerializer.serialize(audits));
+        }
+    }
+
+    @Override
+    public void save() {
+        // persisted by the scanner
+    }
+
+    @Nullable
+    private String getKey(InputFile inputFile) {
+        final File file = new File(inputFile.uri());
+        final String path = file.getAbsolutePath();
+        String result = fileKeys.get(path);
+        if (result == null) {
+            try {
+                result = KEY_PREFIX + CheckstyleDigestUtils.sha256Hex(cacheKey + "\n"
+                        + inputFile.key() + "\n" + CheckstyleDigestUtils.sha256Hex(file));
+                fileKeys.put(path, result);
+            }
+            catch (IOException exception) {
+                LOG.debug("Fail to hash {}", path, exception);
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private byte[] read(String key) {
+        byte[] result = null;
+        lock.lock();
+        try {
+            if (previousCache.contains(key)) {
+                try (InputStream input = previousCache.read(key)) {
+                    result = input.readAllBytes();
+                }
+                catch (IOException exception) {
+                    LOG.debug("Fail to read the Checkstyle cache entry {}", key, exception);
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    private void copyFromPrevious(String key) {
+        lock.lock();
+        try {
+            nextCache.copyFromPrevious(key);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(String key, byte[] data) {
+        lock.lock();
+        try {
+            nextCache.write(key, data);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
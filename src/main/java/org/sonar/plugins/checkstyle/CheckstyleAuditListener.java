@@ -19,7 +19,24 @@
 
 package org.sonar.plugins.checkstyle;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -51,11 +68,35 @@ public class CheckstyleAuditListener implements AuditListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(CheckstyleAuditListener.class);
 
+    /** Maximum number of files whose issues wait to be saved. */
+    private static final int SINK_CAPACITY = 64;
+
+    /** Maximum number of distinct messages formatted once for all their issues. */
+    private static final int MAX_MESSAGES = 4096;
+
     private final ActiveRules ruleFinder;
     private final FileSystem fileSystem;
 
-    private InputFile currentResource;
+    private final ThreadLocal<PendingFile> currentFile =
+            ThreadLocal.withInitial(PendingFile::new);
     private SensorContext context;
+    private CheckstyleInputFileIndex inputFileIndex =
+            new CheckstyleInputFileIndex(Collections.emptyList());
+    private final AtomicReference<Map<String, ActiveRule>> activeRulesByKey =
+            new AtomicReference<>();
+    private final AtomicReference<CheckstyleIssueSink> sink = new AtomicReference<>();
+    private final AtomicReference<CheckstyleSpillStore> spillStore = new AtomicReference<>();
+    private File spillDirectory;
+    /** Guards the start and the end of the audits. */
+    private final ReentrantLock auditLock = new ReentrantLock();
+    private int runningAudits;
+    private int maxIssuesPerRule;
+    private int maxIssuesPerFile;
+    private int maxIssues;
+    private final Map<RuleKey, AtomicInteger> issuesByRule = new ConcurrentHashMap<>();
+    private final AtomicInteger issues = new AtomicInteger();
+    private final Map<RuleKey, LongAdder> droppedIssuesByRule = new ConcurrentHashMap<>();
+    private final CheckstyleMessageCache messages = new CheckstyleMessageCache(MAX_MESSAGES);
 
     public CheckstyleAuditListener(ActiveRules ruleFinder, FileSystem fileSystem) {
         this.ruleFinder = ruleFinder;
@@ -72,14 +113,114 @@ public class CheckstyleAuditListener implements AuditListener {
         this.context = context;
     }
 
+    /**
+     * Sets the files about to be audited, so that the file of an event is
+     * found without querying the file system.
+     *
+     * @param inputFiles The audited files.
+     */
+    public void setInputFiles(Collection<InputFile> inputFiles) {
+        inputFileIndex = new CheckstyleInputFileIndex(inputFiles);
+    }
+
+    /**
+     * Sets the maximum numbers of issues reported. The issues beyond are only
+     * counted and summarized in the log at the end of the audit.
+     *
+     * @param maxPerRule The maximum for a rule in the audit, {@code 0} or
+     *     less for no limit.
+     * @param maxPerFile The maximum for a file, {@code 0} or less for no limit.
+     * @param maxPerAudit The maximum for the audit, {@code 0} or less for no
+     *     limit.
+     */
+    public void setIssueLimits(int maxPerRule, int maxPerFile, int maxPerAudit) {
+        maxIssuesPerRule = maxPerRule;
+        maxIssuesPerFile = maxPerFile;
+        maxIssues = maxPerAudit;
+    }
+
+    /**
+     * Sets the directory where the issues waiting to be saved during an audit
+     * are spilled, instead of being kept on the heap.
+     *
+     * @param directory The directory, or {@code null} to keep the issues on
+     *     the heap.
+     */
+    public void setSpillDirectory(@Nullable File directory) {
+        spillDirectory = directory;
+    }
+
+    /**
+     * Routes the rule keys of the events, module ids or check class names,
+     * to the active rules of the repository and starts saving the issues in
+     * the background for the whole audit. Several checkers may share the
+     * listener, only the first audit to start does so.
+     *
+     * @param event The event.
+     */
     @Override
     public void auditStarted(AuditEvent event) {
-        // nop
+        auditLock.lock();
+        try {
+            if (runningAudits == 0) {
+                final Collection<ActiveRule> activeRules =
+                        ruleFinder.findByRepository(CheckstyleConstants.REPOSITORY_KEY);
+                final Map<String, ActiveRule> routes =
+                        new HashMap<>(activeRules.size() * 4 / 3 + 1);
+                for (ActiveRule activeRule : activeRules) {
+                    routes.put(activeRule.ruleKey().rule(), activeRule);
+                }
+                activeRulesByKey.set(routes);
+                issuesByRule.clear();
+                issues.set(0);
+                droppedIssuesByRule.clear();
+                if (spillDirectory != null) {
+                    spillStore.set(createSpillStore(spillDirectory));
+                }
+                final CheckstyleIssueSink newSink = new CheckstyleIssueSink(SINK_CAPACITY);
+                newSink.start();
+                sink.set(newSink);
+            }
+            runningAudits++;
+        }
+        finally {
+            auditLock.unlock();
+        }
     }
 
+    /**
+     * Waits for the issues of the audit to be saved, once the last running
+     * audit finishes.
+     *
+     * @param event The event.
+     */
     @Override
     public void auditFinished(AuditEvent event) {
-        // nop
+        auditLock.lock();
+        try {
+            if (runningAudits > 0) {
+                runningAudits--;
+                if (runningAudits == 0) {
+                    final CheckstyleIssueSink finishedSink = sink.getAndSet(null);
+                    try {
+                        submitPendingIssues(finishedSink);
+                    }
+                    finally {
+                        currentFile.remove();
+                        try {
+                            finishedSink.stop();
+                        }
+                        finally {
+                            closeSpillStore(spillStore.getAndSet(null));
+                        }
+                    }
+                    logDroppedIssues();
+                }
+            }
+        }
+        finally {
+            auditLock.unlock();
+        }
     }
 
     @Override
@@ -89,7 +230,11 @@ public class CheckstyleAuditListener implements AuditListener {
 
     @Override
     public void fileFinished(AuditEvent event) {
-        currentResource = null;
+        final CheckstyleIssueSink currentSink = sink.get();
+        if (currentSink != null) {
+            submitPendingIssues(currentSink);
+        }
+        currentFile.remove();
     }
 
     @Override
@@ -97,35 +242,168 @@ public class CheckstyleAuditListener implements AuditListener {
         final String ruleKey = getRuleKey(event);
 
         if (Objects.nonNull(ruleKey)) {
-            final String message = getMessage(event);
+            final String message = messages.getMessage(event);
             // In Checkstyle 5.5 exceptions are reported as an events from
             // TreeWalker
             if ("com.puppycrawl.tools.checkstyle.TreeWalker".equals(ruleKey)) {
                 LOG.warn("{} : {}", event.getFileName(), message);
             }
 
-            initResource(event);
-
-            final NewIssue issue = context.newIssue();
-            final ActiveRule rule = ruleFinder.find(
-                    RuleKey.of(CheckstyleConstants.REPOSITORY_KEY, ruleKey));
-            if (Objects.nonNull(issue) && Objects.nonNull(rule)) {
-                final NewIssueLocation location = issue.newLocation()
-                        .on(currentResource)
-                        .at(currentResource.selectLine(getLineId(event)))
-                        .message(message);
-                issue.forRule(rule.ruleKey())
-                        .at(location)
-                        .save();
+            final PendingFile pendingFile = currentFile.get();
+            initResource(pendingFile, event);
+
+            final ActiveRule rule = findRule(ruleKey);
+            final boolean reported = Objects.isNull(rule) || isWithinLimits(pendingFile, rule);
+            if (reported && sink.get() == null) {
+                saveIssue(pendingFile.inputFile, rule, getLineId(event), message);
+            }
+            else if (reported && Objects.nonNull(rule)) {
+                pendingFile.add(spillStore.get(), rule, getLineId(event), message);
             }
         }
     }
 
-    private void initResource(AuditEvent event) {
-        if (currentResource == null) {
+    /**
+     * Counts an issue against the limits.
+     *
+     * @param pendingFile The file of the issue.
+     * @param rule The rule of the issue.
+     * @return {@code true} if the issue is reported, {@code false} if it is
+     *     only counted.
+     */
+    private boolean isWithinLimits(PendingFile pendingFile, ActiveRule rule) {
+        final RuleKey ruleKey = rule.ruleKey();
+        boolean result = maxIssuesPerFile <= 0 || pendingFile.reportedIssues < maxIssuesPerFile;
+        if (result) {
+            final AtomicInteger ruleIssues =
+                    issuesByRule.computeIfAbsent(ruleKey, key -> new AtomicInteger());
+            result = acquire(ruleIssues, maxIssuesPerRule);
+            if (result && !acquire(issues, maxIssues)) {
+                ruleIssues.decrementAndGet();
+                result = false;
+            }
+        }
+        if (result) {
+            pendingFile.reportedIssues++;
+        }
+        else {
+            droppedIssuesByRule.computeIfAbsent(ruleKey, key -> new LongAdder()).increment();
+        }
+        return result;
+    }
+
+    private static boolean acquire(AtomicInteger counter, int max) {
+        return max <= 0 || counter.getAndUpdate(value -> Math.min(value + 1, max)) < max;
+    }
+
+    private void logDroppedIssues() {
+        if (!droppedIssuesByRule.isEmpty()) {
+            final long droppedIssues = droppedIssuesByRule.values().stream()
+                    .mapToLong(LongAdder::sum)
+                    .sum();
+            final String droppedRules = droppedIssuesByRule.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(Comparator.comparing(RuleKey::toString)))
+                    .map(entry -> entry.getKey().rule() + "=" + entry.getValue().sum())
+                    .collect(Collectors.joining(", "));
+            LOG.warn("Checkstyle issue limits reached, {} issues not reported: {}",
+                    droppedIssues, droppedRules);
+        }
+    }
+
+    private void submitPendingIssues(CheckstyleIssueSink currentSink) {
+        final PendingFile pendingFile = currentFile.get();
+        final InputFile inputFile = pendingFile.inputFile;
+        final int reportedIssues = pendingFile.reportedIssues;
+        final CheckstyleSpillStore store = spillStore.get();
+        if (pendingFile.firstRecord != CheckstyleSpillStore.NO_RECORD) {
+            final long firstRecord = pendingFile.firstRecord;
+            submitIssues(currentSink, inputFile, reportedIssues,
+                    () -> store.forEach(firstRecord, this::saveIssue));
+        }
+        if (!pendingFile.issues.isEmpty()) {
+            final List<PendingIssue> issues = pendingFile.issues;
+            submitIssues(currentSink, inputFile, reportedIssues, () -> {
+                for (PendingIssue issue : issues) {
+                    saveIssue(inputFile, issue.rule(), issue.line(), issue.message());
+                }
+            });
+        }
+    }
+
+    /**
+     * Submits the saving of the issues of a file, recorded as a flight
+     * recorder event.
+     *
+     * @param currentSink The sink saving the issues.
+     * @param inputFile The file of the issues.
+     * @param reportedIssues The number of issues.
+     * @param save The saving of the issues.
+     */
+    private static void submitIssues(CheckstyleIssueSink currentSink, InputFile inputFile,
+            int reportedIssues, Runnable save) {
+        currentSink.submit(() -> {
+            final CheckstyleJfrEvents.IssuesEvent event = new CheckstyleJfrEvents.IssuesEvent();
+            event.begin();
+            save.run();
+            event.commitWith(inputFile, reportedIssues);
+        });
+    }
+
+    private static CheckstyleSpillStore createSpillStore(File directory) {
+        try {
+            return CheckstyleSpillStore.create(directory);
+        }
+        catch (IOException exception) {
+            throw new IllegalStateException("Fail to create the Checkstyle issue store in "
+                    + directory, exception);
+        }
+    }
+
+    private static void closeSpillStore(@Nullable CheckstyleSpillStore store) {
+        if (store != null) {
+            try {
+                store.close();
+            }
+            catch (IOException exception) {
+                LOG.warn("Fail to close the Checkstyle issue store", exception);
+            }
+        }
+    }
+
+    private void saveIssue(InputFile inputFile, @Nullable ActiveRule rule, int line,
+            @Nullable String message) {
+        final NewIssue issue = context.newIssue();
+        if (Objects.nonNull(issue) && Objects.nonNull(rule)) {
+            final NewIssueLocation location = issue.newLocation()
+                    .on(inputFile)
+                    .at(inputFile.selectLine(line))
+                    .message(message);
+            issue.forRule(rule.ruleKey())
+                    .at(location)
+                    .save();
+        }
+    }
+
+    private ActiveRule findRule(String ruleKey) {
+        final ActiveRule result;
+        final Map<String, ActiveRule> routes = activeRulesByKey.get();
+        if (routes == null) {
+            result = ruleFinder.find(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY, ruleKey));
+        }
+        else {
+            result = routes.get(ruleKey);
+        }
+        return result;
+    }
+
+    private void initResource(PendingFile pendingFile, AuditEvent event) {
+        if (pendingFile.inputFile == null) {
             final String absoluteFilename = event.getFileName();
-            currentResource = fileSystem.inputFile(fileSystem.predicates().hasAbsolutePath(
-                    absoluteFilename));
+            pendingFile.inputFile = inputFileIndex.get(absoluteFilename);
+            if (pendingFile.inputFile == null) {
+                pendingFile.inputFile = fileSystem.inputFile(fileSystem.predicates()
+                        .hasAbsolutePath(absoluteFilename));
+            }
         }
     }
 
@@ -190,4 +468,45 @@ public class CheckstyleAuditListener implements AuditListener {
         // nop
     }
 
+    /**
+     * File being audited by a thread and its issues not yet saved.
+     */
+    private static final class PendingFile {
+        private final List<PendingIssue> issues = new ArrayList<>();
+        private InputFile inputFile;
+        private int reportedIssues;
+        private long firstRecord = CheckstyleSpillStore.NO_RECORD;
+        private long lastRecord = CheckstyleSpillStore.NO_RECORD;
+
+        /**
+         * Adds an issue, to the store if any or to the heap.
+         *
+         * @param store The store, or {@code null}.
+         * @param rule The rule of the issue.
+         * @param line The line of the issue.
+         * @param message The message of the issue.
+         */
+        private void add(@Nullable CheckstyleSpillStore store, ActiveRule rule, int line,
+                @Nullable String message) {
+            if (store == null) {
+                issues.add(new PendingIssue(rule, line, message));
+            }
+            else {
+                lastRecord = store.append(lastRecord, inputFile, rule, line, message);
+                if (firstRecord == CheckstyleSpillStore.NO_RECORD) {
+                    firstRecord = lastRecord;
+                }
+            }
+        }
+    }
+
+    /**
+     * Issue waiting to be saved.
+     *
+     * @param rule The rule of the issue.
+     * @param line The line of the issue.
+     * @param message The message of the issue.
+     */
+    private record PendingIssue(ActiveRule rule, int line, @Nullable String message) {
+    }
 }
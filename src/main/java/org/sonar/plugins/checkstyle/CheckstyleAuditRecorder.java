@@ -0,0 +1,96 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.util.function.Consumer;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Listener which collects the events of a {@code Checker} into
+ * {@link CheckstyleFileAudit} instances instead of reporting them.
+ * The audit start and finish notifications are ignored, they are fired once
+ * by the executor for the whole analysis.
+ */
+final class CheckstyleAuditRecorder implements AuditListener {
+
+    private final Consumer<CheckstyleFileAudit> consumer;
+
+    private CheckstyleFileAudit current;
+
+    /**
+     * Creates a new recorder.
+     *
+     * @param consumer Receives each audit as soon as the file is finished.
+     */
+    CheckstyleAuditRecorder(Consumer<CheckstyleFileAudit> consumer) {
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        // nop
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        // nop
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        current = new CheckstyleFileAudit(event.getFileName(), true);
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        final CheckstyleFileAudit audit = current;
+        current = null;
+        consumer.accept(audit);
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        if (current == null) {
+            // errors logged outside of a file, for example on finishProcessing
+            final CheckstyleFileAudit audit =
+                    new CheckstyleFileAudit(event.getFileName(), false);
+            audit.addError(event);
+            consumer.accept(audit);
+        }
+        else {
+            current.addError(event);
+        }
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        if (current == null) {
+            final CheckstyleFileAudit audit =
+                    new CheckstyleFileAudit(event.getFileName(), false);
+            audit.addException(event, throwable);
+            consumer.accept(audit);
+        }
+        else {
+            current.addException(event, throwable);
+        }
+    }
+}
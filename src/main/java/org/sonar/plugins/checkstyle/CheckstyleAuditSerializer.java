@@ -0,0 +1,156 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+/**
+ * Converts the audits of a file to a compact binary form and back, so that
+ * they can be cached between analyses. The messages are stored already
+ * formatted.
+ */
+final class CheckstyleAuditSerializer {
+
+    private CheckstyleAuditSerializer() {
+        // only static methods
+    }
+
+    /**
+     * Serializes the audits of a file. The exceptions, if any, are not kept.
+     *
+     * @param audits The audits to serialize.
+     * @return The serialized form.
+     */
+    static byte[] serialize(List<CheckstyleFileAudit> audits) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(audits.size());
+            for (CheckstyleFileAudit audit : audits) {
+                output.writeBoolean(audit.isProcessed());
+                final List<AuditEvent> errors = audit.getErrors();
+                output.writeInt(errors.size());
+                for (AuditEvent error : errors) {
+                    output.writeInt(error.getLine());
+                    output.writeInt(error.getColumn());
+                    writeString(output, error.getSeverityLevel().getName());
+                    writeString(output, error.getModuleId());
+                    writeString(output, error.getSourceName());
+                    writeString(output, CheckstyleAuditListener.getMessage(error));
+                }
+            }
+        }
+        catch (IOException exception) {
+            throw new IllegalStateException("Fail to serialize Checkstyle audits", exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores the audits of a file.
+     *
+     * @param data The serialized form.
+     * @param fileName The name of the file the audits are restored for.
+     * @param source The source of the restored events.
+     * @param classLoader The class loader of the Checkstyle modules.
+     * @return The audits.
+     * @throws IOException if the data is corrupted.
+     * @throws ClassNotFoundException if a module reporting an error is unknown.
+     */
+    static List<CheckstyleFileAudit> deserialize(byte[] data, String fileName, Object source,
+            ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+        final int auditCount = input.readInt();
+        final List<CheckstyleFileAudit> result = new ArrayList<>(auditCount);
+        for (int auditIndex = 0; auditIndex < auditCount; auditIndex++) {
+            final CheckstyleFileAudit audit =
+                    new CheckstyleFileAudit(fileName, input.readBoolean());
+            final int errorCount = input.readInt();
+            for (int errorIndex = 0; errorIndex < errorCount; errorIndex++) {
+                final int line = input.readInt();
+                final int column = input.readInt();
+                final SeverityLevel severity = SeverityLevel.getInstance(readString(input));
+                final String moduleId = readString(input);
+                final Class<?> sourceClass = Class.forName(readString(input), false,
+                        classLoader);
+                final String message = readString(input);
+                audit.addError(new AuditEvent(source, fileName, new Violation(line, column,
+                        null, null, null, severity, moduleId, sourceClass,
+                        escapeMessage(message))));
+            }
+            result.add(audit);
+        }
+        return result;
+    }
+
+    /**
+     * Escapes a formatted message, so that Checkstyle's own formatting of
+     * custom messages gives it back unchanged.
+     *
+     * @param message The formatted message.
+     * @return The message as a {@code MessageFormat} pattern.
+     */
+    @Nullable
+    private static String escapeMessage(@Nullable String message) {
+        String result = null;
+        if (message != null) {
+            result = message.replace("'", "''").replace("{", "'{'");
+        }
+        return result;
+    }
+
+    private static void writeString(DataOutput output, @Nullable String value)
+            throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+        }
+        else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    @Nullable
+    private static String readString(DataInput input) throws IOException {
+        final int length = input.readInt();
+        String result = null;
+        if (length >= 0) {
+            final byte[] bytes = new byte[length];
+            input.readFully(bytes);
+            result = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+}
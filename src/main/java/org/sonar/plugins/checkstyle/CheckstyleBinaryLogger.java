@@ -0,0 +1,140 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Writes the issues of Checkstyle as a compact binary report, read by
+ * {@link CheckstyleBinaryReader} which describes the format. File names,
+ * rule keys and messages are written once and referenced by index
+ * afterwards. Exceptions are not exported, they are in the XML report.
+ * Events must be received from a single thread.
+ */
+final class CheckstyleBinaryLogger implements AuditListener {
+
+    private final DataOutputStream output;
+    private final Map<String, Integer> files = new HashMap<>();
+    private final Map<String, Integer> rules = new HashMap<>();
+    private final Map<String, Integer> messages = new HashMap<>();
+
+    /**
+     * Creates a new logger.
+     *
+     * @param output The stream of the report, closed when the audit finishes.
+     */
+    CheckstyleBinaryLogger(OutputStream output) {
+        this.output = new DataOutputStream(output);
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        try {
+            output.writeInt(CheckstyleBinaryReader.MAGIC);
+            CheckstyleBinaryReader.writeVarInt(output, CheckstyleBinaryReader.VERSION);
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        try {
+            output.writeByte(CheckstyleBinaryReader.END);
+            output.close();
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        // the issues hold their file
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        // the issues hold their file
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        try {
+            final int file = define(files, CheckstyleBinaryReader.FILE, event.getFileName());
+            final int rule = define(rules, CheckstyleBinaryReader.RULE, getRuleKey(event));
+            final int message = define(messages, CheckstyleBinaryReader.MESSAGE,
+                    event.getMessage());
+            output.writeByte(CheckstyleBinaryReader.ISSUE);
+            CheckstyleBinaryReader.writeVarInt(output, file);
+            CheckstyleBinaryReader.writeVarInt(output, rule);
+            CheckstyleBinaryReader.writeVarInt(output, message);
+            CheckstyleBinaryReader.writeVarInt(output, Math.max(event.getLine(), 0));
+            CheckstyleBinaryReader.writeVarInt(output, Math.max(event.getColumn(), 0));
+            CheckstyleBinaryReader.writeVarInt(output, event.getSeverityLevel().ordinal());
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        // only the issues are exported
+    }
+
+    /**
+     * Obtains the index of a value, writing its definition on first use.
+     *
+     * @param values The indexes of the values of the kind.
+     * @param tag The tag of the definitions of the kind.
+     * @param value The value.
+     * @return The index of the value.
+     * @throws IOException if the definition cannot be written.
+     */
+    private int define(Map<String, Integer> values, int tag, String value) throws IOException {
+        Integer result = values.get(value);
+        if (result == null) {
+            result = values.size();
+            values.put(value, result);
+            output.writeByte(tag);
+            CheckstyleBinaryReader.writeString(output, value);
+        }
+        return result;
+    }
+
+    private static String getRuleKey(AuditEvent event) {
+        String result = event.getModuleId();
+        if (StringUtils.isBlank(result)) {
+            result = event.getSourceName();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,243 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Reader of the binary report of Checkstyle, written when
+ * {@link CheckstyleConfiguration#PROPERTY_GENERATE_BINARY} is turned on.
+ *
+ * <p>The report starts with the magic number {@value #MAGIC} and the format
+ * {@value #VERSION}, followed by tagged entries. File names, rule keys and
+ * messages are dictionary encoded: each distinct value is defined once by a
+ * {@code FILE}, {@code RULE} or {@code MESSAGE} entry holding its text, and
+ * is referenced afterwards by its index among the values of its kind. An
+ * {@code ISSUE} entry holds the indexes of its file, rule and message, its
+ * line, its column and the ordinal of its severity. An {@code END} entry ends the report.
+ * Numbers are unsigned variable-length integers of at most 5 bytes holding
+ * a non-negative {@code int}, texts are UTF-8 bytes prefixed by their length,
+ * at most {@value #MAX_STRING_BYTES} bytes.</p>
+ */
+public final class CheckstyleBinaryReader implements Closeable {
+
+    /** Magic number starting a report. */
+    public static final int MAGIC = 0x43534b42;
+
+    /** Version of the format. */
+    public static final int VERSION = 1;
+
+    /** Maximum length of a text, in UTF-8 bytes. */
+    public static final int MAX_STRING_BYTES = 1 << 20;
+
+    static final int END = 0;
+    static final int FILE = 1;
+    static final int RULE = 2;
+    static final int MESSAGE = 3;
+    static final int ISSUE = 4;
+
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7f;
+    private static final int VARINT_MORE = 0x80;
+    private static final int VARINT_LAST_SHIFT = 4 * VARINT_BITS;
+    private static final int VARINT_LAST_MAX = Integer.MAX_VALUE >>> VARINT_LAST_SHIFT;
+    private static final int UTF8_CONTINUATION_MASK = 0xc0;
+    private static final int UTF8_CONTINUATION = 0x80;
+
+    private static final List<String> SEVERITIES = Arrays.stream(SeverityLevel.values())
+            .map(SeverityLevel::getName)
+            .toList();
+
+    private final DataInputStream input;
+    private final List<String> files = new ArrayList<>();
+    private final List<String> rules = new ArrayList<>();
+    private final List<String> messages = new ArrayList<>();
+    private boolean finished;
+
+    /**
+     * Creates a reader and checks the header of the report.
+     *
+     * @param input The stream of the report, uncompressed.
+     * @throws IOException if the stream cannot be read or is not a report
+     *     of a supported format.
+     */
+    public CheckstyleBinaryReader(InputStream input) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(input));
+        if (this.input.readInt() != MAGIC) {
+            throw new IOException("Not a Checkstyle binary report");
+        }
+        final int version = readVarInt(this.input);
+        if (version != VERSION) {
+            throw new IOException("Unsupported Checkstyle binary report version " + version);
+        }
+    }
+
+    /**
+     * Reads the next issue of the report. The file names, rule keys and
+     * messages of the issues share their instances.
+     *
+     * @return The issue, or {@code null} at the end of the report.
+     * @throws IOException if the report cannot be read or is corrupted.
+     */
+    @Nullable
+    public Issue next() throws IOException {
+        Issue result = null;
+        while (result == null && !finished) {
+            final int tag = input.readUnsignedByte();
+            switch (tag) {
+                case END -> finished = true;
+                case FILE -> files.add(readString(input));
+                case RULE -> rules.add(readString(input));
+                case MESSAGE -> messages.add(readString(input));
+                case ISSUE -> result = readIssue();
+                default -> throw new IOException("Unknown entry " + tag);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private Issue readIssue() throws IOException {
+        final String file = get(files, readVarInt(input));
+        final String rule = get(rules, readVarInt(input));
+        final String message = get(messages, readVarInt(input));
+        final int line = readVarInt(input);
+        final int column = readVarInt(input);
+        final String severity = get(SEVERITIES, readVarInt(input));
+        return new Issue(file, rule, message, line, column, severity);
+    }
+
+    private static String get(List<String> values, int index) throws IOException {
+        if (index >= values.size()) {
+            throw new IOException("Undefined value " + index);
+        }
+        return values.get(index);
+    }
+
+    /**
+     * Writes an unsigned variable-length integer.
+     *
+     * @param output The output.
+     * @param value The value, not negative.
+     * @throws IOException if the value cannot be written.
+     */
+    static void writeVarInt(DataOutput output, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~VARINT_MASK) != 0) {
+            output.writeByte(remaining & VARINT_MASK | VARINT_MORE);
+            remaining >>>= VARINT_BITS;
+        }
+        output.writeByte(remaining);
+    }
+
+    /**
+     * Writes a text as UTF-8 bytes prefixed by their length. A text longer
+     * than {@link #MAX_STRING_BYTES} is cut at the last character fitting.
+     *
+     * @param output The output.
+     * @param value The text.
+     * @throws IOException if the text cannot be written.
+     */
+    static void writeString(DataOutput output, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        while (length < bytes.length && (bytes[length] & UTF8_CONTINUATION_MASK)
+                == UTF8_CONTINUATION) {
+            length--;
+        }
+        writeVarInt(output, length);
+        output.write(bytes, 0, length);
+    }
+
+    /**
+     * Reads an unsigned variable-length integer.
+     *
+     * @param input The input.
+     * @return The value, not negative.
+     * @throws IOException if the value cannot be read, is longer than 5
+     *     bytes or does not fit in a non-negative {@code int}.
+     */
+    private static int readVarInt(DataInput input) throws IOException {
+        int result = 0;
+        int shift = 0;
+        int value = input.readUnsignedByte();
+        while ((value & VARINT_MORE) != 0) {
+            if (shift == VARINT_LAST_SHIFT) {
+                throw new IOException("Too long variable-length integer");
+            }
+            result |= (value & VARINT_MASK) << shift;
+            shift += VARINT_BITS;
+            value = input.readUnsignedByte();
+        }
+        if (shift == VARINT_LAST_SHIFT && value > VARINT_LAST_MAX) {
+            throw new IOException("Too large variable-length integer");
+        }
+        return result | value << shift;
+    }
+
+    /**
+     * Reads a text as UTF-8 bytes prefixed by their length.
+     *
+     * @param input The input.
+     * @return The text.
+     * @throws IOException if the text cannot be read, is truncated or longer
+     *     than {@link #MAX_STRING_BYTES}.
+     */
+    private static String readString(DataInput input) throws IOException {
+        final int length = readVarInt(input);
+        if (length > MAX_STRING_BYTES) {
+            throw new IOException("Too long text of " + length + " bytes");
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Issue of a binary report.
+     *
+     * @param fileName The absolute path of the file.
+     * @param ruleKey The key of the rule, the id of the Checkstyle module.
+     * @param message The message.
+     * @param line The line, {@code 0} for the whole file.
+     * @param column The column, {@code 0} for the whole line.
+     * @param severity The Checkstyle severity.
+     */
+    public record Issue(String fileName, String ruleKey, String message, int line, int column,
+            String severity) {
+    }
+}
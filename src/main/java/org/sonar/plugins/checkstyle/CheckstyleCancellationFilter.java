@@ -0,0 +1,68 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.puppycrawl.tools.checkstyle.api.BeforeExecutionFileFilter;
+
+/**
+ * Stops the analysis between two files once it is cancelled. The checker
+ * receives all its files at once, so the cancellation is polled before each
+ * of them and the remaining files are skipped. Once cancelled, the analysis
+ * stays cancelled.
+ */
+final class CheckstyleCancellationFilter implements BeforeExecutionFileFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleCancellationFilter.class);
+
+    private final BooleanSupplier cancelled;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    /**
+     * Creates a new filter.
+     *
+     * @param cancelled Tells whether the analysis is cancelled.
+     */
+    CheckstyleCancellationFilter(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public boolean accept(String uri) {
+        return !isCancelled();
+    }
+
+    /**
+     * Checks whether the analysis is cancelled.
+     *
+     * @return {@code true} if the remaining files must be skipped.
+     */
+    boolean isCancelled() {
+        if (!stopped.get() && cancelled.getAsBoolean()) {
+            stopped.set(true);
+            LOG.info("Checkstyle analysis cancelled, the remaining files are skipped");
+        }
+        return stopped.get();
+    }
+}
@@ -23,16 +23,22 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
 
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.ExtensionPoint;
+import org.sonar.api.batch.fs.FilePredicate;
 import org.sonar.api.batch.fs.FilePredicates;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
@@ -40,9 +46,7 @@ import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.scanner.ScannerSide;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
 import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
-import com.puppycrawl.tools.checkstyle.PropertiesExpander;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
 
@@ -50,14 +54,64 @@ import com.puppycrawl.tools.checkstyle.api.Configuration;
 @ScannerSide
 public class CheckstyleConfiguration {
     public static final String PROPERTY_GENERATE_XML = "sonar.checkstyle.generateXml";
+    public static final String PROPERTY_COMPRESS_XML = "sonar.checkstyle.compressXml";
+    public static final String PROPERTY_GENERATE_SARIF = "sonar.checkstyle.generateSarif";
+    public static final String PROPERTY_GENERATE_BINARY = "sonar.checkstyle.generateBinary";
+    public static final String PROPERTY_THREADS = "sonar.checkstyle.threads";
+    public static final String PROPERTY_CACHE = "sonar.checkstyle.cache";
+    public static final String PROPERTY_MAX_ISSUES_PER_RULE =
+            "sonar.checkstyle.maxIssuesPerRule";
+    public static final String PROPERTY_MAX_ISSUES_PER_FILE =
+            "sonar.checkstyle.maxIssuesPerFile";
+    public static final String PROPERTY_MAX_ISSUES = "sonar.checkstyle.maxIssues";
+
+    public static final String PROPERTY_SPILL_ISSUES = "sonar.checkstyle.spillIssues";
+
+    public static final String PROPERTY_TIMING_REPORT = "sonar.checkstyle.timingReport";
+
+    public static final String PROPERTY_SLOW_FILE_THRESHOLD =
+            "sonar.checkstyle.slowFileThreshold";
+
+    public static final String PROPERTY_PROFILE_MODULES = "sonar.checkstyle.profileModules";
+
+    public static final String PROPERTY_PROGRESS_INTERVAL = "sonar.checkstyle.progressInterval";
+
+    public static final String PROPERTY_FILE_TIMEOUT = "sonar.checkstyle.fileTimeout";
+
+    public static final String PROPERTY_MAX_FILE_SIZE = "sonar.checkstyle.maxFileSize";
+
+    public static final String PROPERTY_MAX_FILE_LINES = "sonar.checkstyle.maxFileLines";
+
+    public static final String PROPERTY_SKIP_GENERATED = "sonar.checkstyle.skipGenerated";
+
+    public static final String PROPERTY_MINIFIED_LINE_LENGTH =
+            "sonar.checkstyle.minifiedLineLength";
+
+    public static final String PROPERTY_DEDUPLICATE = "sonar.checkstyle.deduplicate";
+
+    /** Default interval between two progress lines, in seconds. */
+    public static final int DEFAULT_PROGRESS_INTERVAL = 10;
 
     private static final Logger LOG = LoggerFactory.getLogger(CheckstyleConfiguration.class);
 
+    /**
+     * Configurations already built in this JVM by configuration hash. Each
+     * entry is a private copy, the analyses only ever get copies of it.
+     */
+    private static final Map<String, Configuration> CONFIGURATIONS =
+            Collections.synchronizedMap(new ConfigurationCache());
+
     private final CheckstyleProfileExporter confExporter;
     private final ActiveRules activeRules;
     private final org.sonar.api.config.Configuration conf;
     private final FileSystem fileSystem;
 
+    /** Configuration exported from the active rules, once per analysis. */
+    private String exportedProfile;
+
+    /** Hash of the configuration, once per analysis. */
+    private String configurationHash;
+
     public CheckstyleConfiguration(
             org.sonar.api.config.Configuration conf,
             ActiveRules activeRules,
@@ -90,7 +144,7 @@ public class CheckstyleConfiguration {
         final File xmlFile = new File(fileSystem.workDir(), "checkstyle.xml");
         try (Writer writer = new OutputStreamWriter(new FileOutputStream(xmlFile, false),
                 StandardCharsets.UTF_8)) {
-            confExporter.exportProfile(activeRules, writer);
+            writer.write(getExportedProfile());
             writer.flush();
             return xmlFile;
         }
@@ -107,49 +161,389 @@ public class CheckstyleConfiguration {
      * @return The list of source files.
      */
     public List<InputFile> getSourceFiles() {
+        return getSourceFiles(false);
+    }
+
+    /**
+     * Obtains the list of input source files for Checkstyle to run against.
+     * Pull request analyses may leave out the files whose status is
+     * {@link InputFile.Status#SAME}, the server then carries over their issues.
+     *
+     * The files skipped by the {@link #getSourceFilter() source filter} are
+     * left out too.
+     *
+     * @param skipUnchanged Whether the unchanged files are left out.
+     * @return The list of source files.
+     */
+    public List<InputFile> getSourceFiles(boolean skipUnchanged) {
         final FilePredicates predicates = fileSystem.predicates();
-        final Iterable<InputFile> files = fileSystem.inputFiles(predicates.and(
+        FilePredicate predicate = predicates.and(
                 predicates.hasLanguage(CheckstyleConstants.JAVA_KEY),
-                predicates.hasType(InputFile.Type.MAIN)));
-        final List<InputFile> fileList = new ArrayList<>();
-        for (InputFile file : files) {
-            fileList.add(file);
+                predicates.hasType(InputFile.Type.MAIN));
+        if (skipUnchanged) {
+            predicate = predicates.and(predicate,
+                    predicates.not(predicates.hasStatus(InputFile.Status.SAME)));
         }
-        return fileList;
+        return getSourceFilter().filter(fileSystem.inputFiles(predicate));
+    }
+
+    /**
+     * Creates the filter of the source files, as defined by
+     * {@link #PROPERTY_MAX_FILE_SIZE} in kilobytes,
+     * {@link #PROPERTY_MAX_FILE_LINES}, {@link #PROPERTY_SKIP_GENERATED} and
+     * {@link #PROPERTY_MINIFIED_LINE_LENGTH}. Nothing is skipped by default.
+     *
+     * @return The filter.
+     */
+    CheckstyleSourceFilter getSourceFilter() {
+        return new CheckstyleSourceFilter(
+                conf.getLong(PROPERTY_MAX_FILE_SIZE).orElse(0L) * FileUtils.ONE_KB,
+                conf.getInt(PROPERTY_MAX_FILE_LINES).orElse(0),
+                conf.getBoolean(PROPERTY_SKIP_GENERATED).orElse(false),
+                conf.getInt(PROPERTY_MINIFIED_LINE_LENGTH).orElse(0));
     }
 
     /**
      * Obtains the file location of the xml report from Checkstyle.
      * This location is only valid if {@link #PROPERTY_GENERATE_XML}
-     * is turned on.
+     * is turned on. The report is named with a {@code .gz} extension when
+     * {@link #isXmlReportCompressed() compressed}.
      *
      * @return The file location or {@code null}.
      */
     public File getTargetXmlReport() {
+        final String name;
+        if (isXmlReportCompressed()) {
+            name = "checkstyle-result.xml.gz";
+        }
+        else {
+            name = "checkstyle-result.xml";
+        }
         return conf.getBoolean(PROPERTY_GENERATE_XML)
-                .map(value -> new File(fileSystem.workDir(), "checkstyle-result.xml"))
+                .map(value -> new File(fileSystem.workDir(), name))
                 .orElse(null);
     }
 
+    /**
+     * Obtains the file location of the SARIF report of Checkstyle, when
+     * enabled by {@link #PROPERTY_GENERATE_SARIF}. The report is compressed
+     * like the {@link #isXmlReportCompressed() xml report}.
+     *
+     * @return The file location or {@code null}.
+     */
+    @Nullable
+    public File getTargetSarifReport() {
+        File result = null;
+        if (conf.getBoolean(PROPERTY_GENERATE_SARIF).orElse(false)) {
+            final String name;
+            if (isXmlReportCompressed()) {
+                name = "checkstyle-result.sarif.gz";
+            }
+            else {
+                name = "checkstyle-result.sarif";
+            }
+            result = new File(fileSystem.workDir(), name);
+        }
+        return result;
+    }
+
+    /**
+     * Obtains the file location of the binary report of Checkstyle, read by
+     * {@link CheckstyleBinaryReader}, when enabled by
+     * {@link #PROPERTY_GENERATE_BINARY}. The report is compressed like the
+     * {@link #isXmlReportCompressed() xml report}.
+     *
+     * @return The file location or {@code null}.
+     */
+    @Nullable
+    public File getTargetBinaryReport() {
+        File result = null;
+        if (conf.getBoolean(PROPERTY_GENERATE_BINARY).orElse(false)) {
+            final String name;
+            if (isXmlReportCompressed()) {
+                name = "checkstyle-result.bin.gz";
+            }
+            else {
+                name = "checkstyle-result.bin";
+            }
+            result = new File(fileSystem.workDir(), name);
+        }
+        return result;
+    }
+
+    /**
+     * Obtains the active rules of the analysis.
+     *
+     * @return The active rules.
+     */
+    public ActiveRules getActiveRules() {
+        return activeRules;
+    }
+
+    /**
+     * Determines whether the xml report is compressed with gzip, as defined
+     * by {@link #PROPERTY_COMPRESS_XML}.
+     *
+     * @return {@code true} if the report is compressed.
+     */
+    public boolean isXmlReportCompressed() {
+        return conf.getBoolean(PROPERTY_COMPRESS_XML).orElse(false);
+    }
+
+    /**
+     * Obtains the number of threads Checkstyle is run with, as defined by
+     * {@link #PROPERTY_THREADS}. A value of {@code 0} or less stands for the
+     * number of available processors.
+     *
+     * @return The number of threads, at least {@code 1}.
+     */
+    public int getThreads() {
+        final int threads = conf.getInt(PROPERTY_THREADS).orElse(1);
+        final int result;
+        if (threads > 0) {
+            result = threads;
+        }
+        else {
+            result = Runtime.getRuntime().availableProcessors();
+        }
+        return result;
+    }
+
+    /**
+     * Obtains the file in the working directory where the processing
+     * durations of the source files are kept between analyses.
+     *
+     * @return The file location.
+     */
+    public File getDurationHistoryFile() {
+        return new File(fileSystem.workDir(), "checkstyle-durations.properties");
+    }
+
+    /**
+     * Checks if the results of unchanged files are reused from previous
+     * analyses, as defined by {@link #PROPERTY_CACHE}.
+     *
+     * @return {@code true} if the cache is enabled.
+     */
+    public boolean isCacheEnabled() {
+        return conf.getBoolean(PROPERTY_CACHE).orElse(false);
+    }
+
+    /**
+     * Obtains the maximum number of issues reported for a rule, as defined by
+     * {@link #PROPERTY_MAX_ISSUES_PER_RULE}.
+     *
+     * @return The maximum, {@code 0} or less for no limit.
+     */
+    public int getMaxIssuesPerRule() {
+        return conf.getInt(PROPERTY_MAX_ISSUES_PER_RULE).orElse(0);
+    }
+
+    /**
+     * Obtains the maximum number of issues reported for a file, as defined by
+     * {@link #PROPERTY_MAX_ISSUES_PER_FILE}.
+     *
+     * @return The maximum, {@code 0} or less for no limit.
+     */
+    public int getMaxIssuesPerFile() {
+        return conf.getInt(PROPERTY_MAX_ISSUES_PER_FILE).orElse(0);
+    }
+
+    /**
+     * Obtains the maximum number of issues reported by an analysis, as
+     * defined by {@link #PROPERTY_MAX_ISSUES}.
+     *
+     * @return The maximum, {@code 0} or less for no limit.
+     */
+    public int getMaxIssues() {
+        return conf.getInt(PROPERTY_MAX_ISSUES).orElse(0);
+    }
+
+    /**
+     * Obtains the directory where the issues waiting to be saved are spilled
+     * during the analysis, when enabled by {@link #PROPERTY_SPILL_ISSUES}.
+     *
+     * @return The working directory, or {@code null} to keep the issues on the
+     *     heap.
+     */
+    @Nullable
+    public File getSpillDirectory() {
+        File result = null;
+        if (conf.getBoolean(PROPERTY_SPILL_ISSUES).orElse(false)) {
+            result = fileSystem.workDir();
+        }
+        return result;
+    }
+
+    /**
+     * Obtains the file location of the report of the slowest source files,
+     * when enabled by {@link #PROPERTY_TIMING_REPORT}.
+     *
+     * @return The file location or {@code null}.
+     */
+    @Nullable
+    public File getTargetTimingReport() {
+        File result = null;
+        if (conf.getBoolean(PROPERTY_TIMING_REPORT).orElse(false)) {
+            result = new File(fileSystem.workDir(), "checkstyle-timing.json");
+        }
+        return result;
+    }
+
+    /**
+     * Obtains the file location of the report of the cost of each module of
+     * the configuration, when enabled by {@link #PROPERTY_PROFILE_MODULES}.
+     *
+     * @return The file location or {@code null}.
+     */
+    @Nullable
+    public File getTargetProfileReport() {
+        File result = null;
+        if (conf.getBoolean(PROPERTY_PROFILE_MODULES).orElse(false)) {
+            result = new File(fileSystem.workDir(), "checkstyle-profile.json");
+        }
+        return result;
+    }
+
+    /**
+     * Obtains the duration from which a source file is logged as slow, as
+     * defined by {@link #PROPERTY_SLOW_FILE_THRESHOLD}.
+     *
+     * @return The duration in milliseconds, {@code 0} or less to log none.
+     */
+    public int getSlowFileThreshold() {
+        return conf.getInt(PROPERTY_SLOW_FILE_THRESHOLD).orElse(0);
+    }
+
+    /**
+     * Obtains the interval between two lines logging the progress of the
+     * analysis, as defined by {@link #PROPERTY_PROGRESS_INTERVAL}.
+     *
+     * @return The interval in seconds, {@code 0} or less to log none.
+     */
+    public int getProgressInterval() {
+        return conf.getInt(PROPERTY_PROGRESS_INTERVAL).orElse(DEFAULT_PROGRESS_INTERVAL);
+    }
+
+    /**
+     * Obtains the time after which the processing of a source file is
+     * abandoned and the file skipped, as defined by
+     * {@link #PROPERTY_FILE_TIMEOUT}.
+     *
+     * @return The time in seconds, {@code 0} or less for no limit.
+     */
+    public int getFileTimeout() {
+        return conf.getInt(PROPERTY_FILE_TIMEOUT).orElse(0);
+    }
+
+    /**
+     * Checks if the source files identical to another one are checked only
+     * once, as defined by {@link #PROPERTY_DEDUPLICATE}.
+     *
+     * @return {@code true} if the identical files are checked once.
+     */
+    public boolean isDeduplicationEnabled() {
+        return conf.getBoolean(PROPERTY_DEDUPLICATE).orElse(false);
+    }
+
+    /**
+     * Obtains the file in the working directory where the results of the
+     * source files are cached between analyses.
+     *
+     * @return The file location.
+     */
+    public File getCacheFile() {
+        return new File(fileSystem.workDir(), "checkstyle-cache.bin");
+    }
+
+    /**
+     * Computes a hash of the Checkstyle configuration generated from the
+     * active rules, of the charset the files are read with and of the
+     * content of the files the configuration refers to, see
+     * {@link CheckstyleReferencedFiles}. It changes whenever the results of
+     * Checkstyle might change for a given file. The hash is computed once
+     * per analysis.
+     *
+     * @return The hash, as lower case hexadecimal.
+     */
+    public String getConfigurationHash() {
+        if (configurationHash == null) {
+            final String xml = getExportedProfile();
+            configurationHash = CheckstyleDigestUtils.sha256Hex(xml + '\n' + getCharset().name()
+                    + '\n' + CheckstyleReferencedFiles.hash(xml, fileSystem.baseDir()));
+        }
+        return configurationHash;
+    }
+
+    /**
+     * Exports the Checkstyle configuration generated from the active rules,
+     * once per analysis.
+     *
+     * @return The XML definition of the configuration.
+     */
+    private String getExportedProfile() {
+        if (exportedProfile == null) {
+            final StringWriter writer = new StringWriter();
+            confExporter.exportProfile(activeRules, writer);
+            exportedProfile = writer.toString();
+        }
+        return exportedProfile;
+    }
+
     /**
      * Generates the checkstyle configuration with the rules from sonar.
+     * The configuration is built in memory, the XML definition file is only
+     * written for the XML report or when debugging. It is built once per
+     * configuration hash in the JVM, each analysis gets its own copy.
      *
      * @return The Checkstyle configuration.
      * @throws CheckstyleException if there is an error  generating the Checkstyle configuration.
      */
     public Configuration getCheckstyleConfiguration() throws CheckstyleException {
-        final File xmlConfig = getXmlDefinitionFile();
-
-        LOG.info("Checkstyle configuration: {}", xmlConfig.getAbsolutePath());
-        final Configuration configuration = toCheckstyleConfiguration(xmlConfig);
-        defineCharset(configuration);
+        final CheckstyleJfrEvents.ConfigurationEvent event =
+                new CheckstyleJfrEvents.ConfigurationEvent();
+        event.begin();
+        if (LOG.isDebugEnabled() || conf.getBoolean(PROPERTY_GENERATE_XML).orElse(false)) {
+            final File xmlConfig = getXmlDefinitionFile();
+            LOG.info("Checkstyle configuration: {}", xmlConfig.getAbsolutePath());
+        }
+        final String hash = getConfigurationHash();
+        final Configuration cachedConfiguration = CONFIGURATIONS.get(hash);
+        final Configuration configuration;
+        if (cachedConfiguration == null) {
+            configuration = confExporter.exportConfiguration(activeRules);
+            defineCharset(configuration);
+            CONFIGURATIONS.put(hash, copy(configuration));
+            event.commitWith(hash, false);
+        }
+        else {
+            LOG.info("Checkstyle configuration: reused {}", hash);
+            LOG.info("Checkstyle charset: {}", getCharset().name());
+            configuration = copy(cachedConfiguration);
+            event.commitWith(hash, true);
+        }
         return configuration;
     }
 
+    /**
+     * Copies a configuration with its properties, messages and children, so
+     * that the modules configured with the copy never share it.
+     *
+     * @param configuration The configuration to copy.
+     * @return The copy.
+     * @throws CheckstyleException if a property cannot be read.
+     */
     @VisibleForTesting
-    static Configuration toCheckstyleConfiguration(File xmlConfig) throws CheckstyleException {
-        return ConfigurationLoader.loadConfiguration(xmlConfig.getAbsolutePath(),
-                new PropertiesExpander(new Properties()));
+    static DefaultConfiguration copy(Configuration configuration) throws CheckstyleException {
+        final DefaultConfiguration result = new DefaultConfiguration(configuration.getName());
+        for (String propertyName : configuration.getPropertyNames()) {
+            result.addProperty(propertyName, configuration.getProperty(propertyName));
+        }
+        configuration.getMessages().forEach(result::addMessage);
+        for (Configuration child : configuration.getChildren()) {
+            result.addChild(copy(child));
+        }
+        return result;
     }
 
     private void defineCharset(Configuration configuration) {
@@ -179,4 +573,21 @@ public class CheckstyleConfiguration {
         return fileSystem.encoding();
     }
 
+    /**
+     * Least recently used configurations, the oldest is evicted beyond
+     * {@link #MAX_SIZE} entries.
+     */
+    private static final class ConfigurationCache extends LinkedHashMap<String, Configuration> {
+        private static final long serialVersionUID = 1L;
+        private static final int MAX_SIZE = 8;
+
+        ConfigurationCache() {
+            super(MAX_SIZE, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Configuration> eldest) {
+            return size() > MAX_SIZE;
+        }
+    }
 }
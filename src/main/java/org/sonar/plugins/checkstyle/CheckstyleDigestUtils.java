@@ -0,0 +1,92 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Hashing helpers used to key the caches of the plugin.
+ */
+final class CheckstyleDigestUtils {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final String ALGORITHM = "SHA-256";
+
+    private CheckstyleDigestUtils() {
+        // only static methods
+    }
+
+    /**
+     * Computes the SHA-256 hash of the text.
+     *
+     * @param text The text to hash.
+     * @return The hash, as lower case hexadecimal.
+     */
+    static String sha256Hex(String text) {
+        return HexFormat.of().formatHex(newDigest(ALGORITHM).digest(
+                text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Computes the SHA-256 hash of the content of the file.
+     *
+     * @param file The file to hash.
+     * @return The hash, as lower case hexadecimal.
+     * @throws IOException if the file can not be read.
+     */
+    static String sha256Hex(File file) throws IOException {
+        final MessageDigest digest = newDigest(ALGORITHM);
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read = input.read(buffer);
+            while (read >= 0) {
+                digest.update(buffer, 0, read);
+                read = input.read(buffer);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Creates a digest, the algorithm being supported by every Java platform.
+     *
+     * @param algorithm The name of the algorithm.
+     * @return The digest.
+     * @throws IllegalStateException if the algorithm is not supported.
+     */
+    @VisibleForTesting
+    static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(algorithm + " is not supported", exception);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Finds the source files with identical contents, such as libraries or
+ * generated stubs copied into several modules, so that only one of them is
+ * checked and its events are reported for every copy. Two files are
+ * identical when they have the same name, the same charset and the same
+ * content hash; only the files of the same name and size are hashed.
+ * Some modules see more than the name and content of a file, the files are
+ * never grouped when one of them is configured, see
+ * {@link CheckstyleModuleScope#findPathDependentModule}.
+ */
+final class CheckstyleDuplicateFinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleDuplicateFinder.class);
+
+    private CheckstyleDuplicateFinder() {
+        // only static methods
+    }
+
+    /**
+     * Maps each copy of a file to the first file with the same contents.
+     * The files which can not be read are not grouped.
+     *
+     * @param inputFiles The files to group, in their processing order.
+     * @return The first file of the group by copy, the first files
+     *     themselves and the unique files are left out.
+     */
+    static Map<InputFile, InputFile> findDuplicates(List<InputFile> inputFiles) {
+        final Map<String, List<InputFile>> candidates = new HashMap<>();
+        for (InputFile inputFile : inputFiles) {
+            final File file = new File(inputFile.uri());
+            candidates.computeIfAbsent(file.getName() + "\n" + file.length(),
+                    key -> new ArrayList<>()).add(inputFile);
+        }
+        final Map<InputFile, InputFile> result = new HashMap<>();
+        for (List<InputFile> group : candidates.values()) {
+            if (group.size() > 1) {
+                final Map<String, InputFile> firsts = new HashMap<>();
+                for (InputFile inputFile : group) {
+                    final String hash = hash(inputFile);
+                    if (hash != null) {
+                        final InputFile first = firsts.putIfAbsent(hash, inputFile);
+                        if (first != null) {
+                            result.put(inputFile, first);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private static String hash(InputFile inputFile) {
+        final File file = new File(inputFile.uri());
+        String result = null;
+        try {
+            result = inputFile.charset() + "\n" + CheckstyleDigestUtils.sha256Hex(file);
+        }
+        catch (IOException exception) {
+            LOG.debug("Fail to hash {}", file.getAbsolutePath(), exception);
+        }
+        return result;
+    }
+}
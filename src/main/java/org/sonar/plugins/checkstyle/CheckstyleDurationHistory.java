@@ -0,0 +1,122 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processing durations of the source files, as measured on previous
+ * analyses. They are stored in the working directory and used to schedule
+ * the most expensive files first. The durations of the files not looked up
+ * during the analysis, such as deleted or renamed files, are dropped when
+ * the history is saved.
+ */
+final class CheckstyleDurationHistory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleDurationHistory.class);
+
+    private final File file;
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+    private final Set<String> usedPaths = ConcurrentHashMap.newKeySet();
+
+    private CheckstyleDurationHistory(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the durations stored in the file. A missing or unreadable file
+     * results in an empty history.
+     *
+     * @param file The file to load the durations from and to save them to.
+     * @return The history.
+     */
+    static CheckstyleDurationHistory load(File file) {
+        final CheckstyleDurationHistory history = new CheckstyleDurationHistory(file);
+        if (file.isFile()) {
+            final Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+                for (String path : properties.stringPropertyNames()) {
+                    history.durations.put(path, Long.valueOf(properties.getProperty(path)));
+                }
+            }
+            catch (IOException | IllegalArgumentException exception) {
+                LOG.warn("Ignoring unreadable Checkstyle duration history {}",
+                        file.getAbsolutePath(), exception);
+                history.durations.clear();
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Retrieves the last known duration of the file.
+     *
+     * @param path The absolute path of the file.
+     * @return The duration in nanoseconds, or {@code null} if unknown.
+     */
+    @Nullable
+    Long getDuration(String path) {
+        usedPaths.add(path);
+        return durations.get(path);
+    }
+
+    /**
+     * Records the duration of the file for the next analyses.
+     *
+     * @param path The absolute path of the file.
+     * @param nanos The duration in nanoseconds.
+     */
+    void record(String path, long nanos) {
+        usedPaths.add(path);
+        durations.put(path, nanos);
+    }
+
+    /**
+     * Saves the durations of the files looked up or recorded during the
+     * analysis to the file of the history.
+     */
+    void save() {
+        durations.keySet().retainAll(usedPaths);
+        final Properties properties = new Properties();
+        durations.forEach((path, nanos) -> properties.setProperty(path, Long.toString(nanos)));
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            properties.store(writer, "Checkstyle processing durations in nanoseconds");
+        }
+        catch (IOException exception) {
+            LOG.warn("Fail to save the Checkstyle duration history to {}",
+                    file.getAbsolutePath(), exception);
+        }
+    }
+}
@@ -26,13 +26,20 @@ import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
 
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.ExtensionPoint;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.scanner.ScannerSide;
 
@@ -41,7 +48,9 @@ import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
 import com.puppycrawl.tools.checkstyle.Checker;
 import com.puppycrawl.tools.checkstyle.PackageNamesLoader;
 import com.puppycrawl.tools.checkstyle.XMLLogger;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
 
 @ExtensionPoint
 @ScannerSide
@@ -53,6 +62,8 @@ public class CheckstyleExecutor {
 
     private final CheckstyleConfiguration configuration;
     private final CheckstyleAuditListener listener;
+    private final CheckstyleJfrEvents.FileListener jfrListener =
+            new CheckstyleJfrEvents.FileListener();
 
     public CheckstyleExecutor(CheckstyleConfiguration configuration,
             CheckstyleAuditListener listener) {
@@ -64,10 +75,11 @@ public class CheckstyleExecutor {
      * Execute Checkstyle and return the generated XML report.
      *
      * @param context The context of the execution.
+     * @return The statistics of the analysis.
      * @noinspection TooBroadScope
      * @noinspectionreason Cache the value of the default locale.
      */
-    public void execute(SensorContext context) {
+    public CheckstyleStatistics execute(SensorContext context) {
         if (Objects.nonNull(listener)) {
             listener.setContext(context);
         }
@@ -77,7 +89,7 @@ public class CheckstyleExecutor {
         final ClassLoader initialClassLoader = Thread.currentThread().getContextClassLoader();
         Thread.currentThread().setContextClassLoader(PackageNamesLoader.class.getClassLoader());
         try {
-            executeWithClassLoader();
+            return executeWithClassLoader(context);
         }
         finally {
             Thread.currentThread().setContextClassLoader(initialClassLoader);
@@ -85,42 +97,350 @@ public class CheckstyleExecutor {
         }
     }
 
-    private void executeWithClassLoader() {
-        final Checker checker = new Checker();
-        try {
-            checker.setModuleClassLoader(Thread.currentThread().getContextClassLoader());
-            checker.addListener(listener);
-
-            final File xmlReport = configuration.getTargetXmlReport();
-            if (xmlReport != null) {
-                LOG.info("Checkstyle output report: {}", xmlReport.getAbsolutePath());
-                try (OutputStream xmlOutput = FileUtils.openOutputStream(xmlReport)) {
-                    checker.addListener(
-                            new XMLLogger(xmlOutput,
-                                          AbstractAutomaticBean.OutputStreamOptions.CLOSE));
-                    runChecker(checker);
-                }
-            }
-            else {
-                runChecker(checker);
+    private CheckstyleStatistics executeWithClassLoader(SensorContext context) {
+        try (CheckstyleProgressReporter progress =
+                new CheckstyleProgressReporter(configuration.getProgressInterval())) {
+            final CheckstyleStatistics statistics;
+            final long reportStart;
+            try (CheckstyleReportWriter xmlWriter = openReport(
+                    configuration.getTargetXmlReport(),
+                    output -> new XMLLogger(output,
+                            AbstractAutomaticBean.OutputStreamOptions.CLOSE));
+                 CheckstyleReportWriter sarifWriter = openReport(
+                         configuration.getTargetSarifReport(),
+                         output -> new CheckstyleSarifLogger(output,
+                                 configuration.getActiveRules()));
+                 CheckstyleReportWriter binaryWriter = openReport(
+                         configuration.getTargetBinaryReport(), CheckstyleBinaryLogger::new)) {
+                statistics = runChecker(context, Stream.of(xmlWriter, sarifWriter, binaryWriter)
+                        .filter(Objects::nonNull)
+                        .toList(), progress);
+                reportStart = System.nanoTime();
             }
+            progress.addPhase(CheckstyleProgressReporter.Phase.REPORT,
+                    System.nanoTime() - reportStart);
+            return statistics;
         }
         catch (CheckstyleException | IOException | RuntimeException exception) {
             throw new IllegalStateException("Can not execute Checkstyle", exception);
         }
+    }
+
+    /**
+     * Opens the writer of a report, if generated.
+     *
+     * @param report The report file, or {@code null} if not generated.
+     * @param loggerFactory The factory of the listener writing the report.
+     * @return The writer, or {@code null} if not generated.
+     * @throws IOException if the report cannot be opened.
+     */
+    @Nullable
+    private CheckstyleReportWriter openReport(@Nullable File report,
+            Function<OutputStream, AuditListener> loggerFactory) throws IOException {
+        CheckstyleReportWriter result = null;
+        if (report != null) {
+            LOG.info("Checkstyle output report: {}", report.getAbsolutePath());
+            result = CheckstyleReportWriter.open(report, configuration.isXmlReportCompressed(),
+                    loggerFactory);
+        }
+        return result;
+    }
+
+    private CheckstyleStatistics runChecker(SensorContext context,
+            List<AuditListener> reportListeners, CheckstyleProgressReporter progress)
+            throws CheckstyleException {
+        final long start = System.nanoTime();
+        final CheckstyleStatistics statistics = new CheckstyleStatistics();
+        final List<AuditListener> listeners = new ArrayList<>();
+        listeners.add(listener);
+        listeners.addAll(reportListeners);
+        listeners.add(statistics);
+        final boolean skipUnchanged = context.canSkipUnchangedFiles();
+        final List<InputFile> inputFiles = configuration.getSourceFiles(skipUnchanged);
+        if (skipUnchanged) {
+            LOG.info("Checkstyle skips unchanged files, {} changed files to analyze",
+                    inputFiles.size());
+        }
+        if (Objects.nonNull(listener)) {
+            listener.setInputFiles(inputFiles);
+            listener.setIssueLimits(configuration.getMaxIssuesPerRule(),
+                    configuration.getMaxIssuesPerFile(), configuration.getMaxIssues());
+            listener.setSpillDirectory(configuration.getSpillDirectory());
+        }
+        final long exportStart = System.nanoTime();
+        final Configuration checkstyleConfiguration = configuration.getCheckstyleConfiguration();
+        progress.addPhase(CheckstyleProgressReporter.Phase.CONFIG_EXPORT,
+                System.nanoTime() - exportStart);
+
+        final File timingReport = configuration.getTargetTimingReport();
+        final CheckstyleFileTimer timer = createTimer(timingReport);
+        final long configureNanos =
+                progress.getPhase(CheckstyleProgressReporter.Phase.CONFIGURE);
+        final long checkStart = System.nanoTime();
+        progress.start(inputFiles.size());
+        processFiles(context, checkstyleConfiguration, inputFiles, listeners, timer, progress,
+                statistics);
+        // the checkers are configured on this thread, before their files are checked, only
+        // the replacements of abandoned workers are configured while checking
+        progress.addPhase(CheckstyleProgressReporter.Phase.CHECK, System.nanoTime() - checkStart
+                - (progress.getPhase(CheckstyleProgressReporter.Phase.CONFIGURE)
+                        - configureNanos));
+        statistics.setDuration(System.nanoTime() - start);
+        if (timingReport != null) {
+            timer.writeReport(timingReport);
+        }
+        final File profileReport = configuration.getTargetProfileReport();
+        if (profileReport != null && !context.isCancelled()) {
+            LOG.info("Checkstyle profile report: {}", profileReport.getAbsolutePath());
+            final CheckstyleModuleProfiler profiler = new CheckstyleModuleProfiler(
+                    (moduleConfiguration, profileListener) -> createChecker(
+                            moduleConfiguration, List.of(profileListener), null));
+            CheckstyleModuleProfiler.writeReport(profiler.profile(checkstyleConfiguration,
+                    toFiles(inputFiles)), profileReport);
+        }
+        return statistics;
+    }
+
+    /**
+     * Processes the files, with several workers, from the cache, with a
+     * time limit per file or checking identical files once when enabled,
+     * otherwise with a single checker. A single checker processes all the
+     * files at once anyway when a configured module depends on the other
+     * files, see {@link CheckstyleModuleScope#findCrossFileModule}, so that
+     * the results are the same as without these options.
+     * The remaining files are skipped once the analysis is cancelled.
+     *
+     * @param context The context of the execution.
+     * @param checkstyleConfiguration The configuration of the checkers.
+     * @param inputFiles The files to process.
+     * @param listeners The listeners of the audit.
+     * @param timer The timer of the files.
+     * @param progress The reporter of the progress.
+     * @param statistics The statistics updated with the cached and skipped
+     *     files.
+     * @throws CheckstyleException if a file could not be processed.
+     */
+    private void processFiles(SensorContext context, Configuration checkstyleConfiguration,
+            List<InputFile> inputFiles, List<AuditListener> listeners, CheckstyleFileTimer timer,
+            CheckstyleProgressReporter progress, CheckstyleStatistics statistics)
+            throws CheckstyleException {
+        final CheckstyleCancellationFilter cancellation =
+                new CheckstyleCancellationFilter(context::isCancelled);
+        final int threads = configuration.getThreads();
+        final int fileTimeout = configuration.getFileTimeout();
+        final String crossFileModule =
+                CheckstyleModuleScope.findCrossFileModule(checkstyleConfiguration);
+        final boolean deduplicate;
+        final CheckstyleResultCache cache;
+        if (crossFileModule == null) {
+            deduplicate = isDeduplicationApplicable(checkstyleConfiguration);
+            cache = createCache(context);
+        }
+        else {
+            LOG.info("Checkstyle processes the files with a single checker, {} depends on"
+                    + " the other files", crossFileModule);
+            deduplicate = false;
+            cache = CheckstyleResultCache.disabled();
+        }
+        if (crossFileModule == null && (cache != CheckstyleResultCache.disabled()
+                || (threads > 1 || deduplicate) && inputFiles.size() > 1 || fileTimeout > 0)) {
+            LOG.info("Checkstyle threads: {}", threads);
+            final CheckstyleDurationHistory history = CheckstyleDurationHistory.load(
+                    configuration.getDurationHistoryFile());
+            final CheckstyleShardRunner runner = new CheckstyleShardRunner(threads,
+                    shardListener -> createChecker(checkstyleConfiguration,
+                            withTimer(List.of(shardListener), timer), progress),
+                    history, cache, cancellation::isCancelled,
+                    TimeUnit.SECONDS.toMillis(fileTimeout), deduplicate);
+            runner.process(inputFiles, listeners, createProgressListeners(progress, timer));
+            statistics.setCachedFiles(runner.getCachedFiles());
+            statistics.setSkippedFiles(runner.getSkippedFiles());
+            statistics.setDuplicateFiles(runner.getDuplicateFiles());
+        }
+        else {
+            processSequentially(checkstyleConfiguration, inputFiles, listeners, timer, progress,
+                    cancellation);
+        }
+    }
+
+    /**
+     * Processes all the files with a single checker, in a single call.
+     *
+     * @param checkstyleConfiguration The configuration of the checker.
+     * @param inputFiles The files to process.
+     * @param listeners The listeners of the audit.
+     * @param timer The timer of the files.
+     * @param progress The reporter of the progress.
+     * @param cancellation The filter skipping the files once cancelled.
+     * @throws CheckstyleException if a file could not be processed.
+     */
+    private void processSequentially(Configuration checkstyleConfiguration,
+            List<InputFile> inputFiles, List<AuditListener> listeners, CheckstyleFileTimer timer,
+            CheckstyleProgressReporter progress, CheckstyleCancellationFilter cancellation)
+            throws CheckstyleException {
+        final List<AuditListener> checkerListeners = new ArrayList<>(listeners);
+        checkerListeners.add(progress);
+        final Checker checker = createChecker(checkstyleConfiguration,
+                withTimer(checkerListeners, timer), progress);
+        checker.addBeforeExecutionFileFilter(cancellation);
+        try {
+            checker.process(toFiles(inputFiles));
+        }
         finally {
             checker.destroy();
         }
     }
 
-    private void runChecker(Checker checker) throws CheckstyleException, IOException {
-        checker.setCharset(configuration.getCharset().name());
-        checker.configure(configuration.getCheckstyleConfiguration());
-        checker.process(configuration
-                .getSourceFiles()
+    /**
+     * Checks if the identical files are checked once, when enabled and
+     * when no configured module depends on the directory of the files.
+     *
+     * @param checkstyleConfiguration The configuration of the checkers.
+     * @return {@code true} if the identical files are checked once.
+     */
+    private boolean isDeduplicationApplicable(Configuration checkstyleConfiguration) {
+        boolean result = configuration.isDeduplicationEnabled();
+        if (result) {
+            final String module =
+                    CheckstyleModuleScope.findPathDependentModule(checkstyleConfiguration);
+            if (module != null) {
+                LOG.info("Checkstyle checks identical files separately, {} depends on their"
+                        + " location", module);
+                result = false;
+            }
+        }
+        return result;
+    }
+
+    private static List<File> toFiles(List<InputFile> inputFiles) {
+        return inputFiles
             .stream()
             .map(inputFile -> new File(inputFile.uri()))
-            .toList());
+            .toList();
+    }
+
+    /**
+     * Creates the timer of the files, if their durations are reported or
+     * logged.
+     *
+     * @param timingReport The report of the durations, or {@code null}.
+     * @return The timer, or {@code null}.
+     */
+    @Nullable
+    private CheckstyleFileTimer createTimer(@Nullable File timingReport) {
+        CheckstyleFileTimer result = null;
+        final int slowFileThreshold = configuration.getSlowFileThreshold();
+        if (timingReport != null || slowFileThreshold > 0) {
+            result = new CheckstyleFileTimer(slowFileThreshold);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the timer of the files, if any, to the listeners of a checker. The
+     * timer listens to the checkers themselves, to measure the real duration
+     * of the files and not the replay of their events.
+     *
+     * @param listeners The listeners of the checker.
+     * @param timer The timer, or {@code null}.
+     * @return The listeners with the timer.
+     */
+    private static List<AuditListener> withTimer(List<AuditListener> listeners,
+            @Nullable CheckstyleFileTimer timer) {
+        List<AuditListener> result = listeners;
+        if (timer != null) {
+            result = new ArrayList<>(listeners);
+            result.add(timer);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the listeners of the files done by the workers: the progress,
+     * counted when the files are done rather than when they are replayed,
+     * and the timer of the files, if any, so that the abandoned files are not
+     * timed.
+     *
+     * @param progress The reporter of the progress.
+     * @param timer The timer, or {@code null}.
+     * @return The listeners of the files done.
+     */
+    private static List<CheckstyleShardRunner.ProgressListener> createProgressListeners(
+            CheckstyleProgressReporter progress, @Nullable CheckstyleFileTimer timer) {
+        final List<CheckstyleShardRunner.ProgressListener> result = new ArrayList<>();
+        result.add(progress);
+        if (timer != null) {
+            result.add(timer);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the cache of the results of the files, if enabled by
+     * {@link CheckstyleConfiguration#PROPERTY_CACHE}. The analysis cache of
+     * the server is preferred, as it also works on ephemeral build agents.
+     *
+     * @param context The context of the execution.
+     * @return The cache to use.
+     */
+    private CheckstyleResultCache createCache(SensorContext context) {
+        final CheckstyleResultCache result;
+        if (!configuration.isCacheEnabled()) {
+            result = CheckstyleResultCache.disabled();
+        }
+        else if (context.isCacheEnabled()) {
+            LOG.info("Checkstyle cache: SonarQube analysis cache");
+            result = new CheckstyleAnalysisCache(context.previousCache(), context.nextCache(),
+                    configuration.getConfigurationHash(),
+                    Thread.currentThread().getContextClassLoader());
+        }
+        else {
+            final File cacheFile = configuration.getCacheFile();
+            LOG.info("Checkstyle cache: {}", cacheFile.getAbsolutePath());
+            result = CheckstyleWorkDirCache.load(cacheFile,
+                    configuration.getConfigurationHash(),
+                    Thread.currentThread().getContextClassLoader());
+        }
+        return result;
+    }
+
+    /**
+     * Creates a configured checker.
+     *
+     * @param checkstyleConfiguration The configuration of the checker.
+     * @param listeners The listeners of the checker.
+     * @param progress The reporter the duration of the configuration is added
+     *     to, or {@code null}.
+     * @return The checker.
+     * @throws CheckstyleException if the checker could not be configured.
+     */
+    private Checker createChecker(Configuration checkstyleConfiguration,
+            List<AuditListener> listeners, @Nullable CheckstyleProgressReporter progress)
+            throws CheckstyleException {
+        final Checker checker = new Checker();
+        try {
+            checker.setModuleClassLoader(Thread.currentThread().getContextClassLoader());
+            for (AuditListener auditListener : listeners) {
+                checker.addListener(auditListener);
+            }
+            checker.addListener(jfrListener);
+            checker.setCharset(configuration.getCharset().name());
+            final CheckstyleJfrEvents.CheckerConfigureEvent configureEvent =
+                    new CheckstyleJfrEvents.CheckerConfigureEvent();
+            configureEvent.begin();
+            final long configureStart = System.nanoTime();
+            checker.configure(checkstyleConfiguration);
+            if (progress != null) {
+                progress.addPhase(CheckstyleProgressReporter.Phase.CONFIGURE,
+                        System.nanoTime() - configureStart);
+            }
+            configureEvent.commit();
+        }
+        catch (CheckstyleException | RuntimeException exception) {
+            checker.destroy();
+            throw exception;
+        }
+        return checker;
     }
 
     @VisibleForTesting
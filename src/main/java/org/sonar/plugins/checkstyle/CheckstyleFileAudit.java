@@ -0,0 +1,140 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Events reported by Checkstyle for a single file, kept so that they can be
+ * replayed later on, in a deterministic order, into the real listeners.
+ */
+final class CheckstyleFileAudit {
+
+    private final String fileName;
+    private final boolean processed;
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Creates a new audit for the file.
+     *
+     * @param fileName The name of the audited file.
+     * @param processed {@code true} if the events are surrounded by
+     *     {@code fileStarted} and {@code fileFinished} notifications.
+     */
+    CheckstyleFileAudit(String fileName, boolean processed) {
+        this.fileName = fileName;
+        this.processed = processed;
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    boolean isProcessed() {
+        return processed;
+    }
+
+    void addError(AuditEvent event) {
+        entries.add(new Entry(event, null));
+    }
+
+    void addException(AuditEvent event, Throwable throwable) {
+        entries.add(new Entry(event, throwable));
+    }
+
+    /**
+     * Retrieves the errors of the file, without the exceptions.
+     *
+     * @return The errors in their original order.
+     */
+    List<AuditEvent> getErrors() {
+        final List<AuditEvent> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (entry.throwable == null) {
+                result.add(entry.event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if an exception was reported while auditing the file.
+     *
+     * @return {@code true} if the audit contains exceptions.
+     */
+    boolean hasExceptions() {
+        boolean result = false;
+        for (Entry entry : entries) {
+            if (entry.throwable != null) {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies the audit for another file with the same content, the events
+     * then refer to that file.
+     *
+     * @param otherFileName The name of the other file.
+     * @return The copy.
+     */
+    CheckstyleFileAudit copyFor(String otherFileName) {
+        final CheckstyleFileAudit result = new CheckstyleFileAudit(otherFileName, processed);
+        for (Entry entry : entries) {
+            result.entries.add(new Entry(new AuditEvent(entry.event.getSource(), otherFileName,
+                    entry.event.getViolation()), entry.throwable));
+        }
+        return result;
+    }
+
+    /**
+     * Fires the recorded events in their original order to the listener.
+     *
+     * @param listener The listener to notify.
+     */
+    void replayTo(AuditListener listener) {
+        final AuditEvent fileEvent = new AuditEvent(this, fileName);
+        if (processed) {
+            listener.fileStarted(fileEvent);
+        }
+        for (Entry entry : entries) {
+            if (entry.throwable == null) {
+                listener.addError(entry.event);
+            }
+            else {
+                listener.addException(entry.event, entry.throwable);
+            }
+        }
+        if (processed) {
+            listener.fileFinished(fileEvent);
+        }
+    }
+
+    private record Entry(AuditEvent event, @Nullable Throwable throwable) {
+    }
+}
@@ -0,0 +1,232 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Measures the time Checkstyle spends on each source file. It listens to the
+ * checkers themselves rather than to the replayed events, so the durations
+ * are the real ones even when the files are processed by several workers,
+ * and the files found in the cache are not measured. Neither are the files
+ * abandoned because they were processed for too long, their checker may
+ * still finish them later. Only the slowest {@value #MAX_FILES} files are
+ * kept, in a bounded heap.
+ */
+final class CheckstyleFileTimer implements AuditListener,
+        CheckstyleShardRunner.ProgressListener {
+
+    /** Maximum number of slowest files kept. */
+    static final int MAX_FILES = 50;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleFileTimer.class);
+
+    private static final String DURATION_MS = "durationMs";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final long slowFileNanos;
+    private final ThreadLocal<RunningFile> currentFile = new ThreadLocal<>();
+    private final PriorityQueue<FileTiming> slowestFiles =
+            new PriorityQueue<>(Comparator.comparingLong(FileTiming::nanos));
+    /** Guards the slowest files. */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder files = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final Set<String> skippedFiles = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new timer.
+     *
+     * @param slowFileMillis The duration from which a file is logged as slow,
+     *     {@code 0} or less to log none.
+     */
+    CheckstyleFileTimer(long slowFileMillis) {
+        slowFileNanos = TimeUnit.MILLISECONDS.toNanos(slowFileMillis);
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        // the files are timed one by one
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        // the files are timed one by one
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        currentFile.set(new RunningFile(System.nanoTime()));
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        final RunningFile runningFile = currentFile.get();
+        currentFile.remove();
+        if (runningFile != null && !skippedFiles.remove(event.getFileName())) {
+            record(new FileTiming(event.getFileName(), System.nanoTime() - runningFile.start,
+                    runningFile.issues));
+        }
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        final RunningFile runningFile = currentFile.get();
+        if (runningFile != null) {
+            runningFile.issues++;
+        }
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        // exceptions are not issues
+    }
+
+    @Override
+    public void fileCompleted(List<CheckstyleFileAudit> audits) {
+        // the files are timed by the events of their checker
+    }
+
+    @Override
+    public void fileSkipped(String fileName) {
+        skippedFiles.add(fileName);
+    }
+
+    /**
+     * Records the duration of a file.
+     *
+     * @param timing The duration of the file.
+     */
+    void record(FileTiming timing) {
+        files.increment();
+        totalNanos.add(timing.nanos());
+        if (slowFileNanos > 0 && timing.nanos() >= slowFileNanos) {
+            LOG.warn("Checkstyle took {} ms to analyze {} ({} issues)",
+                    TimeUnit.NANOSECONDS.toMillis(timing.nanos()), timing.path(),
+                    timing.issues());
+        }
+        lock.lock();
+        try {
+            slowestFiles.add(timing);
+            if (slowestFiles.size() > MAX_FILES) {
+                slowestFiles.poll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtains the slowest files.
+     *
+     * @return The slowest files, slowest first.
+     */
+    List<FileTiming> getSlowestFiles() {
+        final List<FileTiming> result;
+        lock.lock();
+        try {
+            result = new ArrayList<>(slowestFiles);
+        }
+        finally {
+            lock.unlock();
+        }
+        result.sort(Comparator.comparingLong(FileTiming::nanos).reversed());
+        return result;
+    }
+
+    /**
+     * Writes the durations as a JSON report, with the number of files, their
+     * total duration and the slowest files with their size and number of
+     * issues. A failure is only logged.
+     *
+     * @param report The report file.
+     */
+    void writeReport(File report) {
+        try (OutputStream output = Files.newOutputStream(report.toPath());
+             JsonGenerator generator = JSON_FACTORY.createGenerator(output,
+                     JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeNumberField("files", files.sum());
+            generator.writeNumberField(DURATION_MS,
+                    TimeUnit.NANOSECONDS.toMillis(totalNanos.sum()));
+            generator.writeArrayFieldStart("slowestFiles");
+            for (FileTiming timing : getSlowestFiles()) {
+                generator.writeStartObject();
+                generator.writeStringField("path", timing.path());
+                generator.writeNumberField(DURATION_MS,
+                        TimeUnit.NANOSECONDS.toMillis(timing.nanos()));
+                generator.writeNumberField("size", new File(timing.path()).length());
+                generator.writeNumberField("issues", timing.issues());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        catch (IOException exception) {
+            LOG.warn("Fail to write the Checkstyle timing report to {}",
+                    report.getAbsolutePath(), exception);
+        }
+    }
+
+    /**
+     * Duration of a file.
+     *
+     * @param path The absolute path of the file.
+     * @param nanos The duration in nanoseconds.
+     * @param issues The number of issues of the file.
+     */
+    record FileTiming(String path, long nanos, int issues) {
+    }
+
+    /**
+     * File being processed by the current thread.
+     */
+    private static final class RunningFile {
+        private final long start;
+        private int issues;
+
+        private RunningFile(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.util.Collection;
+
+import javax.annotation.Nullable;
+
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Index of the input files by the absolute path Checkstyle reports in its
+ * audit events. It is an open addressing hash table keeping only the hash of
+ * every path, the path of a candidate is computed again to confirm a match.
+ * No path is therefore retained, even for hundreds of thousands of files.
+ */
+final class CheckstyleInputFileIndex {
+
+    private final int[] hashes;
+    private final InputFile[] inputFiles;
+    private final int mask;
+
+    /**
+     * Creates the index of the given files.
+     *
+     * @param inputFiles The files to index.
+     */
+    CheckstyleInputFileIndex(Collection<InputFile> inputFiles) {
+        // a power of two, at least twice the number of files
+        final int capacity = Integer.highestOneBit(Math.max(1, inputFiles.size() * 2 - 1)) << 1;
+        hashes = new int[capacity];
+        this.inputFiles = new InputFile[capacity];
+        mask = capacity - 1;
+        for (InputFile inputFile : inputFiles) {
+            final int hash = getPath(inputFile).hashCode();
+            int slot = spread(hash) & mask;
+            while (this.inputFiles[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = hash;
+            this.inputFiles[slot] = inputFile;
+        }
+    }
+
+    /**
+     * Finds the file with the given absolute path.
+     *
+     * @param absolutePath The absolute path of the file.
+     * @return The file, or {@code null} if it is not indexed.
+     */
+    @Nullable
+    InputFile get(String absolutePath) {
+        final int hash = absolutePath.hashCode();
+        InputFile result = null;
+        int slot = spread(hash) & mask;
+        while (result == null && inputFiles[slot] != null) {
+            if (hashes[slot] == hash && absolutePath.equals(getPath(inputFiles[slot]))) {
+                result = inputFiles[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return result;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static String getPath(InputFile inputFile) {
+        return new File(inputFile.uri()).getAbsolutePath();
+    }
+}
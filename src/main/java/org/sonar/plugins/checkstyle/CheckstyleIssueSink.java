@@ -0,0 +1,40 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+/**
+ * Runs the batches of issues to save on a dedicated thread, so that saving
+ * the issues of a file overlaps with the audit of the next ones. Batches are
+ * run in submission order. The queue is bounded: submitting blocks while it
+ * is full, which keeps the pending issues in check when saving is slower
+ * than auditing. Batches may be submitted from several threads.
+ */
+final class CheckstyleIssueSink extends CheckstyleSerialExecutor {
+
+    /**
+     * Creates a new sink.
+     *
+     * @param capacity The maximum number of pending batches.
+     */
+    CheckstyleIssueSink(int capacity) {
+        super("checkstyle-issue-sink", "Fail to save Checkstyle issues",
+                "Interrupted while saving Checkstyle issues", capacity);
+    }
+}
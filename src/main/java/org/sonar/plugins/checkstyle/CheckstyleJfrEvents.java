@@ -0,0 +1,234 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Java Flight Recorder events of the phases of the Checkstyle analysis. They
+ * carry the thread, the start time and the duration of the phase, which is
+ * enough to correlate them with the GC and allocation events of a recording.
+ * The fields are only computed when the event is committed, so the events
+ * cost next to nothing when no recording is running.
+ */
+final class CheckstyleJfrEvents {
+
+    private static final String SONARQUBE = "SonarQube";
+    private static final String CHECKSTYLE = "Checkstyle";
+
+    private CheckstyleJfrEvents() {
+        // only nested classes
+    }
+
+    /**
+     * Generation of the Checkstyle configuration from the active rules.
+     */
+    @Name("org.sonar.checkstyle.Configuration")
+    @Label("Checkstyle Configuration")
+    @Description("Generation of the Checkstyle configuration from the quality profile")
+    @Category({SONARQUBE, CHECKSTYLE})
+    static final class ConfigurationEvent extends Event {
+        @Label("Configuration Hash")
+        private String hash;
+
+        @Label("Reused")
+        @Description("Whether a configuration built by a previous analysis was reused")
+        private boolean reused;
+
+        /**
+         * Ends the event and commits it with its fields, if recorded.
+         *
+         * @param configurationHash The hash of the configuration.
+         * @param configurationReused Whether the configuration was reused.
+         */
+        void commitWith(String configurationHash, boolean configurationReused) {
+            end();
+            if (shouldCommit()) {
+                hash = configurationHash;
+                reused = configurationReused;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Configuration of a {@code Checker}, which instantiates its modules.
+     */
+    @Name("org.sonar.checkstyle.CheckerConfigure")
+    @Label("Checkstyle Checker Configure")
+    @Description("Instantiation and configuration of the modules of a Checker")
+    @Category({SONARQUBE, CHECKSTYLE})
+    static final class CheckerConfigureEvent extends Event {
+    }
+
+    /**
+     * Processing of a source file by a {@code Checker}.
+     */
+    @Name("org.sonar.checkstyle.File")
+    @Label("Checkstyle File")
+    @Description("Processing of a source file by Checkstyle")
+    @Category({SONARQUBE, CHECKSTYLE})
+    @StackTrace(false)
+    static final class FileEvent extends Event {
+        @Label("Path")
+        private String path;
+
+        @Label("Size")
+        @DataAmount
+        private long size;
+
+        @Label("Issues")
+        private int issues;
+
+        /**
+         * Ends the event and commits it with its fields, if recorded.
+         *
+         * @param filePath The absolute path of the file.
+         */
+        void commitWith(String filePath) {
+            end();
+            if (shouldCommit()) {
+                path = filePath;
+                size = new File(filePath).length();
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Saving of the issues of a source file.
+     */
+    @Name("org.sonar.checkstyle.Issues")
+    @Label("Checkstyle Issues")
+    @Description("Saving of the issues of a source file to the sensor context")
+    @Category({SONARQUBE, CHECKSTYLE})
+    @StackTrace(false)
+    static final class IssuesEvent extends Event {
+        @Label("File")
+        private String file;
+
+        @Label("Issues")
+        private int issues;
+
+        /**
+         * Ends the event and commits it with its fields, if recorded.
+         *
+         * @param inputFile The file of the issues.
+         * @param savedIssues The number of issues saved.
+         */
+        void commitWith(Object inputFile, int savedIssues) {
+            end();
+            if (shouldCommit()) {
+                file = String.valueOf(inputFile);
+                issues = savedIssues;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Completion of a report, once the audit is finished.
+     */
+    @Name("org.sonar.checkstyle.Report")
+    @Label("Checkstyle Report")
+    @Description("Wait for the events of the audit to be written and closing of a report")
+    @Category({SONARQUBE, CHECKSTYLE})
+    static final class ReportEvent extends Event {
+        @Label("Report")
+        @Description("Name of the listener writing the report")
+        private String report;
+
+        /**
+         * Ends the event and commits it with its fields, if recorded.
+         *
+         * @param reportName The name of the listener writing the report.
+         */
+        void commitWith(String reportName) {
+            end();
+            if (shouldCommit()) {
+                report = reportName;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Emits a {@link FileEvent} for each file processed by the checker it
+     * listens to. Only the files processed while recording allocate an
+     * event, the type of the event is checked first.
+     */
+    static final class FileListener implements AuditListener {
+        private static final EventType FILE_EVENT_TYPE = EventType.getEventType(FileEvent.class);
+
+        private final ThreadLocal<FileEvent> currentFile = new ThreadLocal<>();
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+            // only the files are recorded
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+            // only the files are recorded
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+            if (FILE_EVENT_TYPE.isEnabled()) {
+                final FileEvent fileEvent = new FileEvent();
+                fileEvent.begin();
+                currentFile.set(fileEvent);
+            }
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+            final FileEvent fileEvent = currentFile.get();
+            if (fileEvent != null) {
+                currentFile.remove();
+                fileEvent.commitWith(event.getFileName());
+            }
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            final FileEvent fileEvent = currentFile.get();
+            if (fileEvent != null) {
+                fileEvent.issues++;
+            }
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            // exceptions are not issues
+        }
+    }
+}
@@ -0,0 +1,151 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+/**
+ * Messages of the violations, formatted once for all the violations with the
+ * same message. Checkstyle formats a message on every call, looking up its
+ * resource bundle and going through {@code MessageFormat}, so the messages
+ * are keyed by what they are formatted from: the bundle, the key, the
+ * arguments, the custom message and the source class of the violation, but
+ * not its position. Checkstyle does not expose them, they are read from the
+ * fields of {@link Violation}; every message is formatted when they cannot
+ * be. Beyond a maximum number of distinct messages, the new ones are
+ * formatted without being kept.
+ */
+final class CheckstyleMessageCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleMessageCache.class);
+
+    private static final List<String> MESSAGE_FIELDS =
+            List.of("bundle", "key", "args", "customMessage", "sourceClass");
+
+    private static final List<VarHandle> VIOLATION_FIELDS = findFields(Violation.class);
+
+    private final int maxMessages;
+    private final List<VarHandle> fields;
+    private final Map<List<Object>, String> messages = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache of the messages of the violations.
+     *
+     * @param maxMessages The maximum number of messages kept.
+     */
+    CheckstyleMessageCache(int maxMessages) {
+        this(maxMessages, VIOLATION_FIELDS);
+    }
+
+    /**
+     * Creates a cache keyed by the given fields of the violations.
+     *
+     * @param maxMessages The maximum number of messages kept.
+     * @param fields The fields the messages are formatted from, none to
+     *     format every message.
+     */
+    @VisibleForTesting
+    CheckstyleMessageCache(int maxMessages, List<VarHandle> fields) {
+        this.maxMessages = maxMessages;
+        this.fields = fields;
+    }
+
+    /**
+     * Gets the message of an event, formatted only if no violation with the
+     * same message was seen before.
+     *
+     * @param event The event of the violation.
+     * @return The message, shared with the equal messages, or {@code null}
+     *     if it cannot be formatted.
+     */
+    @Nullable
+    String getMessage(AuditEvent event) {
+        final Violation violation = event.getViolation();
+        String result;
+        if (violation == null || fields.isEmpty()) {
+            result = CheckstyleAuditListener.getMessage(event);
+        }
+        else {
+            final List<Object> key = getKey(violation);
+            result = messages.get(key);
+            if (result == null && messages.size() < maxMessages) {
+                result = messages.computeIfAbsent(key,
+                        unused -> CheckstyleAuditListener.getMessage(event));
+            }
+            else if (result == null) {
+                result = CheckstyleAuditListener.getMessage(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the fields a message is formatted from.
+     *
+     * @param violationClass The class of the violations.
+     * @return The fields, or none if they cannot be read.
+     */
+    @VisibleForTesting
+    static List<VarHandle> findFields(Class<?> violationClass) {
+        List<VarHandle> result;
+        try {
+            final MethodHandles.Lookup lookup =
+                    MethodHandles.privateLookupIn(violationClass, MethodHandles.lookup());
+            result = new ArrayList<>(MESSAGE_FIELDS.size());
+            for (String name : MESSAGE_FIELDS) {
+                result.add(lookup.unreflectVarHandle(violationClass.getDeclaredField(name)));
+            }
+        }
+        catch (ReflectiveOperationException exception) {
+            LOG.debug("Fail to read the fields of {}, every message is formatted",
+                    violationClass.getName(), exception);
+            result = List.of();
+        }
+        return result;
+    }
+
+    private List<Object> getKey(Violation violation) {
+        final List<Object> result = new ArrayList<>(fields.size());
+        for (VarHandle field : fields) {
+            final Object value = field.get(violation);
+            if (value instanceof Object[] array) {
+                result.add(Arrays.asList(array));
+            }
+            else {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.util.List;
+
+import org.sonar.api.measures.Metric;
+import org.sonar.api.measures.Metrics;
+
+/**
+ * Measures of the performance of the Checkstyle analysis, saved on the
+ * project so that their evolution shows on its activity.
+ */
+public final class CheckstyleMetrics implements Metrics {
+
+    /** Domain of the metrics. */
+    public static final String DOMAIN = "Checkstyle";
+
+    /** Duration of the Checkstyle analysis. */
+    public static final Metric<Long> ANALYSIS_DURATION = new Metric.Builder(
+            "checkstyle_analysis_duration", "Checkstyle Analysis Duration",
+            Metric.ValueType.MILLISEC)
+            .setDescription("Duration of the Checkstyle analysis")
+            .setDirection(Metric.DIRECTION_WORST)
+            .setQualitative(false)
+            .setDomain(DOMAIN)
+            .create();
+
+    /** Number of files processed by Checkstyle. */
+    public static final Metric<Integer> FILES_ANALYZED = new Metric.Builder(
+            "checkstyle_files_analyzed", "Checkstyle Files Analyzed", Metric.ValueType.INT)
+            .setDescription("Number of files processed by Checkstyle")
+            .setDirection(Metric.DIRECTION_NONE)
+            .setQualitative(false)
+            .setDomain(DOMAIN)
+            .create();
+
+    /** Number of files whose results were served from the cache. */
+    public static final Metric<Integer> FILES_CACHED = new Metric.Builder(
+            "checkstyle_files_cached", "Checkstyle Files Cached", Metric.ValueType.INT)
+            .setDescription("Number of files whose Checkstyle results came from the cache")
+            .setDirection(Metric.DIRECTION_BETTER)
+            .setQualitative(false)
+            .setDomain(DOMAIN)
+            .create();
+
+    /** Number of files which got the results of an identical file. */
+    public static final Metric<Integer> FILES_DUPLICATE = new Metric.Builder(
+            "checkstyle_files_duplicate", "Checkstyle Files Duplicate", Metric.ValueType.INT)
+            .setDescription("Number of files which got the Checkstyle results of an identical"
+                    + " file")
+            .setDirection(Metric.DIRECTION_BETTER)
+            .setQualitative(false)
+            .setDomain(DOMAIN)
+            .create();
+
+    /** Number of files skipped because they were processed for too long. */
+    public static final Metric<Integer> FILES_SKIPPED = new Metric.Builder(
+            "checkstyle_files_skipped", "Checkstyle Files Skipped", Metric.ValueType.INT)
+            .setDescription("Number of files skipped for exceeding the Checkstyle time limit")
+            .setDirection(Metric.DIRECTION_WORST)
+            .setQualitative(false)
+            .setDomain(DOMAIN)
+            .create();
+
+    /** Number of violations found per second of analysis. */
+    public static final Metric<Double> VIOLATIONS_PER_SECOND = new Metric.Builder(
+            "checkstyle_violations_per_second", "Checkstyle Violations per Second",
+            Metric.ValueType.FLOAT)
+            .setDescription("Number of violations found per second of Checkstyle analysis")
+            .setDirection(Metric.DIRECTION_BETTER)
+            .setQualitative(false)
+            .setDomain(DOMAIN)
+            .create();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List<Metric> getMetrics() {
+        return List.of(ANALYSIS_DURATION, FILES_ANALYZED, FILES_CACHED,
+                FILES_DUPLICATE, FILES_SKIPPED, VIOLATIONS_PER_SECOND);
+    }
+}
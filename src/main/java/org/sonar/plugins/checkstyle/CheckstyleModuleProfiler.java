@@ -0,0 +1,417 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.annotations.VisibleForTesting;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.JavaParser;
+import com.puppycrawl.tools.checkstyle.ModuleFactory;
+import com.puppycrawl.tools.checkstyle.PackageNamesLoader;
+import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.utils.TokenUtil;
+
+/**
+ * Measures the cost of each module of the configuration. Checkstyle has no
+ * hook around the checks, so every module is run alone, in a configuration
+ * keeping only its parents. The modules are identified by their {@code id},
+ * set for the instances of rule templates, or else by their name.
+ * The duration of a module of the {@code TreeWalker} includes the parsing of
+ * the files, which is the same for all of them, so the ranking still holds.
+ * <p>
+ * This runs Checkstyle once more per module, so with N modules the files are
+ * read and parsed N times again. To bound that cost, the modules only process
+ * a sample of at most {@link #SAMPLED_FILES} files spread over the project,
+ * which ranks the modules as well as all the files unless a few files are
+ * much more expensive than the others. Since every module runs alone, the
+ * filters do not apply to the other modules: a module whose issues are mostly
+ * suppressed still pays for them.
+ * </p>
+ * <p>
+ * Next to the duration, each module gets its number of invocations on the
+ * sample: the tokens visited by a check of the {@code TreeWalker}, counted on
+ * a separate parse of the files, otherwise the files processed.
+ * </p>
+ */
+final class CheckstyleModuleProfiler {
+
+    /** Number of modules logged after profiling. */
+    static final int LOGGED_MODULES = 10;
+
+    /** Maximum number of files processed by each module. */
+    static final int SAMPLED_FILES = 200;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleModuleProfiler.class);
+
+    private static final String TREE_WALKER = "TreeWalker";
+    private static final String ID = "id";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final CheckerFactory checkerFactory;
+    private final int sampledFiles;
+
+    /**
+     * Creates a new profiler processing at most {@link #SAMPLED_FILES} files.
+     *
+     * @param checkerFactory Creates the checker of each module.
+     */
+    CheckstyleModuleProfiler(CheckerFactory checkerFactory) {
+        this(checkerFactory, SAMPLED_FILES);
+    }
+
+    /**
+     * Creates a new profiler.
+     *
+     * @param checkerFactory Creates the checker of each module.
+     * @param sampledFiles The maximum number of files processed by each
+     *     module.
+     */
+    @VisibleForTesting
+    CheckstyleModuleProfiler(CheckerFactory checkerFactory, int sampledFiles) {
+        this.checkerFactory = checkerFactory;
+        this.sampledFiles = sampledFiles;
+    }
+
+    /**
+     * Runs each module alone, without the filters, on a sample of the files.
+     *
+     * @param root The configuration of the {@code Checker}.
+     * @param allFiles The files of the analysis.
+     * @return The profile, with the modules most expensive first.
+     * @throws CheckstyleException if a module failed.
+     */
+    Profile profile(Configuration root, List<File> allFiles) throws CheckstyleException {
+        final List<File> files = sample(allFiles, sampledFiles);
+        final List<ModuleProfile> modules = new ArrayList<>();
+        for (Configuration child : root.getChildren()) {
+            if (TREE_WALKER.equals(child.getName())) {
+                final Map<Integer, Long> tokens = countTokens(files);
+                final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+                final ModuleFactory moduleFactory = new PackageObjectFactory(
+                        PackageNamesLoader.getPackageNames(classLoader), classLoader);
+                for (Configuration check : child.getChildren()) {
+                    modules.add(run(check, isolate(root, isolate(child, check)), files,
+                            getVisitedTokens(moduleFactory, check, tokens)));
+                }
+            }
+            else {
+                modules.add(run(child, isolate(root, child), files, null));
+            }
+        }
+        modules.sort(Comparator.comparingLong(ModuleProfile::nanos).reversed());
+        LOG.info("Checkstyle profiled {} modules, each alone without the filters, on {} of"
+                + " {} files", modules.size(), files.size(), allFiles.size());
+        return new Profile(modules, files.size(), allFiles.size());
+    }
+
+    /**
+     * Logs the most expensive modules and writes all of them as a JSON
+     * report. A failure to write the report is only logged.
+     *
+     * @param profile The profile, with the modules most expensive first.
+     * @param report The report file.
+     */
+    static void writeReport(Profile profile, File report) {
+        final List<ModuleProfile> modules = profile.modules();
+        for (ModuleProfile module : modules.subList(0,
+                Math.min(LOGGED_MODULES, modules.size()))) {
+            LOG.info("Checkstyle module {} took {} ms for {} invocations on {} files"
+                    + " ({} issues)", module.id(), TimeUnit.NANOSECONDS.toMillis(module.nanos()),
+                    module.invocations(), module.files(), module.issues());
+        }
+        try (OutputStream output = Files.newOutputStream(report.toPath());
+             JsonGenerator generator = JSON_FACTORY.createGenerator(output,
+                     JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeNumberField("sampledFiles", profile.sampledFiles());
+            generator.writeNumberField("analyzedFiles", profile.analyzedFiles());
+            generator.writeStringField("note", "Every module ran alone, without the filters,"
+                    + " on a sample of at most " + SAMPLED_FILES + " files of the analysis.");
+            generator.writeArrayFieldStart("modules");
+            for (ModuleProfile module : modules) {
+                generator.writeStartObject();
+                generator.writeStringField(ID, module.id());
+                generator.writeStringField("name", module.name());
+                generator.writeNumberField("durationMs",
+                        TimeUnit.NANOSECONDS.toMillis(module.nanos()));
+                generator.writeNumberField("invocations", module.invocations());
+                generator.writeNumberField("files", module.files());
+                generator.writeNumberField("issues", module.issues());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        catch (IOException exception) {
+            LOG.warn("Fail to write the Checkstyle profile report to {}",
+                    report.getAbsolutePath(), exception);
+        }
+    }
+
+    /**
+     * Picks files evenly spread over the list, so that the sample is not
+     * made of a single directory and is the same from one analysis to the
+     * next.
+     *
+     * @param files The files to pick from.
+     * @param size The maximum number of files to pick.
+     * @return The files picked, in their order, or all the files if there
+     *     are no more than {@code size}.
+     */
+    @VisibleForTesting
+    static List<File> sample(List<File> files, int size) {
+        List<File> result = files;
+        if (files.size() > size) {
+            result = new ArrayList<>(size);
+            for (int index = 0; index < size; index++) {
+                result.add(files.get((int) ((long) index * files.size() / size)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the tokens of each type in the files, comments included, as
+     * a {@code TreeWalker} would visit them. The files which can not be
+     * parsed are left out.
+     *
+     * @param files The files to parse.
+     * @return The number of tokens by type.
+     */
+    @VisibleForTesting
+    static Map<Integer, Long> countTokens(List<File> files) {
+        final Map<Integer, Long> result = new HashMap<>();
+        for (File file : files) {
+            try {
+                DetailAST node = JavaParser.parseFile(file, JavaParser.Options.WITH_COMMENTS);
+                while (node != null) {
+                    result.merge(node.getType(), 1L, Long::sum);
+                    DetailAST next = node.getFirstChild();
+                    while (node != null && next == null) {
+                        next = node.getNextSibling();
+                        node = node.getParent();
+                    }
+                    node = next;
+                }
+            }
+            catch (IOException | CheckstyleException exception) {
+                LOG.debug("Checkstyle profiler can not parse {}", file, exception);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the tokens a check of the {@code TreeWalker} visits: the
+     * configured tokens and the required ones, or else its default tokens.
+     *
+     * @param moduleFactory Creates the check.
+     * @param module The configuration of the check.
+     * @param tokens The number of tokens by type in the files.
+     * @return The number of tokens visited, or {@code null} if the module is
+     *     not a check.
+     * @throws CheckstyleException if the check can not be configured.
+     */
+    @Nullable
+    private static Long getVisitedTokens(ModuleFactory moduleFactory, Configuration module,
+            Map<Integer, Long> tokens) throws CheckstyleException {
+        Long result = null;
+        if (moduleFactory.createModule(module.getName()) instanceof AbstractCheck check) {
+            check.configure(module);
+            final Set<Integer> visited = new HashSet<>();
+            if (check.getTokenNames().isEmpty()) {
+                Arrays.stream(check.getDefaultTokens()).forEach(visited::add);
+            }
+            else {
+                Arrays.stream(check.getRequiredTokens()).forEach(visited::add);
+                check.getTokenNames().forEach(name -> visited.add(TokenUtil.getTokenId(name)));
+            }
+            long count = 0;
+            for (Integer token : visited) {
+                count += tokens.getOrDefault(token, 0L);
+            }
+            result = count;
+        }
+        return result;
+    }
+
+    private ModuleProfile run(Configuration module, Configuration configuration,
+            List<File> files, @Nullable Long visitedTokens) throws CheckstyleException {
+        final Counter counter = new Counter();
+        final Checker checker = checkerFactory.create(configuration, counter);
+        final long nanos;
+        try {
+            final long start = System.nanoTime();
+            checker.process(files);
+            nanos = System.nanoTime() - start;
+        }
+        finally {
+            checker.destroy();
+        }
+        final long invocations;
+        if (visitedTokens == null) {
+            invocations = counter.files;
+        }
+        else {
+            invocations = visitedTokens;
+        }
+        return new ModuleProfile(getId(module), module.getName(), nanos, invocations,
+                counter.files, counter.issues);
+    }
+
+    private static String getId(Configuration module) throws CheckstyleException {
+        final String result;
+        if (Arrays.asList(module.getPropertyNames()).contains(ID)) {
+            result = module.getProperty(ID);
+        }
+        else {
+            result = module.getName();
+        }
+        return result;
+    }
+
+    /**
+     * Copies a module of the configuration with a single child.
+     *
+     * @param parent The module to copy, without its children.
+     * @param child The only child of the copy.
+     * @return The copy.
+     * @throws CheckstyleException if a property cannot be read.
+     */
+    private static Configuration isolate(Configuration parent, Configuration child)
+            throws CheckstyleException {
+        final DefaultConfiguration result = new DefaultConfiguration(parent.getName());
+        for (String propertyName : parent.getPropertyNames()) {
+            result.addProperty(propertyName, parent.getProperty(propertyName));
+        }
+        parent.getMessages().forEach(result::addMessage);
+        result.addChild(child);
+        return result;
+    }
+
+    /**
+     * Costs of the modules.
+     *
+     * @param modules The costs of the modules, most expensive first.
+     * @param sampledFiles The number of files of the sample.
+     * @param analyzedFiles The number of files of the analysis.
+     */
+    record Profile(List<ModuleProfile> modules, int sampledFiles, int analyzedFiles) {
+    }
+
+    /**
+     * Cost of a module.
+     *
+     * @param id The id of the module, or its name.
+     * @param name The name of the module.
+     * @param nanos The duration of the module alone on the sampled files.
+     * @param invocations The number of tokens visited by a check of the
+     *     {@code TreeWalker}, otherwise the number of files processed.
+     * @param files The number of files processed.
+     * @param issues The number of issues raised.
+     */
+    record ModuleProfile(String id, String name, long nanos, long invocations, int files,
+            int issues) {
+    }
+
+    /**
+     * Creates a configured {@code Checker} reporting to the given listener.
+     */
+    @FunctionalInterface
+    interface CheckerFactory {
+        /**
+         * Creates the checker.
+         *
+         * @param configuration The configuration of the checker.
+         * @param listener The listener the checker reports to.
+         * @return The configured checker.
+         * @throws CheckstyleException if the checker can not be configured.
+         */
+        Checker create(Configuration configuration, AuditListener listener)
+                throws CheckstyleException;
+    }
+
+    /**
+     * Counts the files and the issues of a run.
+     */
+    private static final class Counter implements AuditListener {
+        private int files;
+        private int issues;
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+            // only the files and the issues are counted
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+            // only the files and the issues are counted
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+            files++;
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+            // counted when started
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            issues++;
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            // only the issues are counted
+        }
+    }
+}
@@ -0,0 +1,175 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+/**
+ * Tells which configured modules see more of a source file than its own
+ * content. Cross-file modules keep state between the files of a single
+ * {@code Checker.process} call, their events depend on the other files:
+ * the files can then be neither split between workers nor replayed one by
+ * one. Path-dependent modules, which include the cross-file ones, also see
+ * the directory of the file or filter it by its path. Only the Checkstyle
+ * modules known to read nothing but the content and the name of the file
+ * are path-independent.
+ */
+final class CheckstyleModuleScope {
+
+    /** Modules whose events depend on the other files, by normalized name. */
+    private static final Set<String> CROSS_FILE_MODULES = Set.of("javadocpackage",
+            "translation");
+
+    /**
+     * Modules of Checkstyle whose events depend only on the content and the
+     * name of the file, by normalized name. Any other module, including the
+     * custom ones, may read the directory of the file and is considered
+     * path-dependent.
+     */
+    private static final Set<String> PATH_INDEPENDENT_MODULES = Set.of(
+            "abbreviationaswordinname", "abstractclassname", "annotationlocation",
+            "annotationonsameline", "annotationusestyle", "anoninnerlength", "arraytrailingcomma",
+            "arraytypestyle", "atclauseorder", "avoiddoublebraceinitialization",
+            "avoidescapedunicodecharacters", "avoidinlineconditionals", "avoidnestedblocks",
+            "avoidnoargumentsuperconstructorcall", "avoidstarimport", "avoidstaticimport",
+            "booleanexpressioncomplexity", "catchparametername", "checker",
+            "classdataabstractioncoupling", "classfanoutcomplexity", "classmemberimpliedmodifier",
+            "classtypeparametername", "commentsindentation", "constantname",
+            "constructorsdeclarationgrouping", "covariantequals", "customimportorder",
+            "cyclomaticcomplexity", "declarationorder", "defaultcomeslast", "descendanttoken",
+            "designforextension", "emptyblock", "emptycatchblock", "emptyforinitializerpad",
+            "emptyforiteratorpad", "emptylineseparator", "emptystatement", "equalsavoidnull",
+            "equalshashcode", "executablestatementcount", "explicitinitialization", "fallthrough",
+            "filelength", "filetabcharacter", "finalclass", "finallocalvariable", "finalparameters",
+            "genericwhitespace", "header", "hiddenfield", "hideutilityclassconstructor",
+            "illegalcatch", "illegalidentifiername", "illegalimport", "illegalinstantiation",
+            "illegalthrows", "illegaltoken", "illegaltokentext", "illegaltype", "importorder",
+            "indentation", "innerassignment", "innertypelast", "interfaceistype",
+            "interfacememberimpliedmodifier", "interfacetypeparametername",
+            "invalidjavadocposition", "javadocblocktaglocation", "javadoccontentlocation",
+            "javadocleadingasteriskalign", "javadocmethod", "javadocmissingleadingasterisk",
+            "javadocmissingwhitespaceafterasterisk", "javadocparagraph", "javadocstyle",
+            "javadoctagcontinuationindentation", "javadoctype", "javadocvariable", "javancss",
+            "lambdabodylength", "lambdaparametername", "leftcurly", "linelength",
+            "localfinalvariablename", "localvariablename", "magicnumber", "matchxpath",
+            "membername", "methodcount", "methodlength", "methodname", "methodparampad",
+            "methodtypeparametername", "missingctor", "missingdeprecated", "missingjavadocmethod",
+            "missingjavadocpackage", "missingjavadoctype", "missingoverride",
+            "missingswitchdefault", "modifiedcontrolvariable", "modifierorder",
+            "multifileregexpheader", "multiplestringliterals", "multiplevariabledeclarations",
+            "mutableexception", "needbraces", "nestedfordepth", "nestedifdepth", "nestedtrydepth",
+            "newlineatendoffile", "noarraytrailingcomma", "noclone", "nocodeinfile",
+            "noenumtrailingcomma", "nofinalizer", "nolinewrap", "nonemptyatclausedescription",
+            "nowhitespaceafter", "nowhitespacebefore", "nowhitespacebeforecasedefaultcolon",
+            "npathcomplexity", "onestatementperline", "onetoplevelclass", "operatorwrap",
+            "orderedproperties", "outertypefilename", "outertypenumber",
+            "overloadmethodsdeclarationorder", "packageannotation", "packagename",
+            "parameterassignment", "parametername", "parameternumber", "parenpad",
+            "patternvariableassignment", "patternvariablename", "recordcomponentname",
+            "recordcomponentnumber", "recordtypeparametername", "redundantimport",
+            "redundantmodifier", "regexp", "regexpheader", "regexpmultiline", "regexpsingleline",
+            "regexpsinglelinejava", "requireemptylinebeforeblocktaggroup", "requirethis",
+            "returncount", "rightcurly", "sealedshouldhavepermitslist", "separatorwrap",
+            "severitymatchfilter", "simplifybooleanexpression", "simplifybooleanreturn",
+            "singlelinejavadoc", "singlespaceseparator", "staticvariablename",
+            "stringliteralequality", "summaryjavadoc", "superclone", "superfinalize",
+            "suppressioncommentfilter", "suppresswarnings", "suppresswarningsfilter",
+            "suppresswarningsholder", "suppresswithnearbycommentfilter",
+            "suppresswithnearbytextfilter", "suppresswithplaintextcommentfilter", "throwscount",
+            "todocomment", "trailingcomment", "treewalker", "typecastparenpad", "typename",
+            "uncommentedmain", "uniqueproperties", "unnecessaryparentheses",
+            "unnecessarysemicolonafteroutertypedeclaration",
+            "unnecessarysemicolonaftertypememberdeclaration", "unnecessarysemicoloninenumeration",
+            "unnecessarysemicolonintrywithresources", "unusedcatchparametershouldbeunnamed",
+            "unusedimports", "unusedlambdaparametershouldbeunnamed", "unusedlocalvariable",
+            "upperell", "variabledeclarationusagedistance", "visibilitymodifier",
+            "whenshouldbeused", "whitespaceafter", "whitespacearound", "writetag");
+
+    private static final String CHECKSTYLE_PACKAGE = "com.puppycrawl.tools.checkstyle.";
+
+    private static final String CHECK_SUFFIX = "check";
+
+    private CheckstyleModuleScope() {
+        // only static methods
+    }
+
+    /**
+     * Finds the first configured module which depends on the other files.
+     *
+     * @param configuration The Checkstyle configuration.
+     * @return The name of the module, or {@code null} if there is none.
+     */
+    @Nullable
+    static String findCrossFileModule(Configuration configuration) {
+        return findModule(configuration, CROSS_FILE_MODULES::contains);
+    }
+
+    /**
+     * Finds the first configured module which may depend on the directory
+     * of the files or on the other files.
+     *
+     * @param configuration The Checkstyle configuration.
+     * @return The name of the module, or {@code null} if there is none.
+     */
+    @Nullable
+    static String findPathDependentModule(Configuration configuration) {
+        return findModule(configuration, module -> !PATH_INDEPENDENT_MODULES.contains(module));
+    }
+
+    @Nullable
+    private static String findModule(Configuration configuration, Predicate<String> modules) {
+        String result = null;
+        final String name = configuration.getName();
+        if (modules.test(normalize(name))) {
+            result = name;
+        }
+        final Configuration[] children = configuration.getChildren();
+        for (int index = 0; result == null && index < children.length; index++) {
+            result = findModule(children[index], modules);
+        }
+        return result;
+    }
+
+    /**
+     * Normalizes the name of a module: the simple name of a Checkstyle module
+     * in lower case, without its {@code Check} suffix. The name of a module
+     * outside of the Checkstyle packages is kept as is, so that a custom
+     * module is never taken for the Checkstyle module of the same name.
+     *
+     * @param name The name of the module in the configuration.
+     * @return The normalized name.
+     */
+    private static String normalize(String name) {
+        String result = name;
+        final int packageEnd = name.lastIndexOf('.');
+        if (packageEnd < 0 || name.startsWith(CHECKSTYLE_PACKAGE)) {
+            result = name.substring(packageEnd + 1).toLowerCase(Locale.ROOT);
+            if (result.endsWith(CHECK_SUFFIX)) {
+                result = result.substring(0, result.length() - CHECK_SUFFIX.length());
+            }
+        }
+        return result;
+    }
+}
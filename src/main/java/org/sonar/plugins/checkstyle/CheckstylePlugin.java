@@ -66,6 +66,74 @@ public final class CheckstylePlugin implements Plugin {
             + "Checkstyle</a> "
             + "configuration for more information.";
 
+    private static final String THREADS_DESCRIPTION = "Number of threads Checkstyle"
+            + " analyses the source files with. Each thread runs its own Checkstyle"
+            + " instance on a shard of the files, the results are the same as for a"
+            + " single-threaded run. Use 0 for the number of available processors.";
+
+    private static final String CACHE_DESCRIPTION = "Reuse the Checkstyle results of"
+            + " unchanged files from the previous analysis. The results are kept in the"
+            + " SonarQube analysis cache when the server provides one, otherwise in the"
+            + " working directory, and are discarded whenever the quality profile, the"
+            + " Checkstyle settings, the files they refer to or the plugin change.";
+
+    private static final String MAX_ISSUES_PER_RULE_DESCRIPTION = "Maximum number of issues"
+            + " reported for a rule in an analysis. The issues beyond are only counted and"
+            + " summarized in the analysis log. Use 0 for no limit.";
+
+    private static final String MAX_ISSUES_PER_FILE_DESCRIPTION = "Maximum number of issues"
+            + " reported for a file. The issues beyond are only counted and summarized in"
+            + " the analysis log. Use 0 for no limit.";
+
+    private static final String MAX_ISSUES_DESCRIPTION = "Maximum number of Checkstyle"
+            + " issues reported by an analysis. The issues beyond are only counted and"
+            + " summarized in the analysis log. Use 0 for no limit.";
+
+    private static final String SPILL_ISSUES_DESCRIPTION = "Whether the Checkstyle issues"
+            + " waiting to be saved are kept in a file of the working directory instead of"
+            + " the memory. Reduces the heap used by analyses raising many issues.";
+
+    private static final String TIMING_REPORT_DESCRIPTION = "Whether to write the slowest"
+            + " source files, with their duration, size and number of issues, to"
+            + " checkstyle-timing.json in the working directory.";
+
+    private static final String SLOW_FILE_THRESHOLD_DESCRIPTION = "Duration in milliseconds"
+            + " from which Checkstyle logs a source file as slow. Use 0 to log none.";
+
+    private static final String PROFILE_MODULES_DESCRIPTION = "Whether to measure the cost of"
+            + " each Checkstyle module and write them, most expensive first, to"
+            + " checkstyle-profile.json in the working directory, with the tokens visited by"
+            + " each check of the TreeWalker. Every module is run alone, without the filters,"
+            + " on a sample of at most 200 files, so the analysis reads and parses that"
+            + " sample once more per module.";
+
+    private static final String PROGRESS_INTERVAL_DESCRIPTION = "Interval in seconds between"
+            + " two lines logging the progress of the Checkstyle analysis, with its"
+            + " throughput and estimated finish time. Use 0 to log none.";
+
+    private static final String FILE_TIMEOUT_DESCRIPTION = "Time in seconds after which"
+            + " Checkstyle abandons a source file and skips it, logging the module that was"
+            + " running. The other files are still analyzed. Use 0 for no limit.";
+
+    private static final String MAX_FILE_SIZE_DESCRIPTION = "Size in kilobytes from which"
+            + " Checkstyle skips a source file. Use 0 for no limit.";
+
+    private static final String MAX_FILE_LINES_DESCRIPTION = "Number of lines from which"
+            + " Checkstyle skips a source file. Use 0 for no limit.";
+
+    private static final String SKIP_GENERATED_DESCRIPTION = "Whether Checkstyle skips the"
+            + " generated source files, marked with a @Generated annotation on their type or a"
+            + " \"DO NOT EDIT\" header comment in their first kilobytes.";
+
+    private static final String MINIFIED_LINE_LENGTH_DESCRIPTION = "Length of a line, in the"
+            + " first kilobytes of a source file, from which Checkstyle skips the file as"
+            + " minified. Use 0 for no limit.";
+
+    private static final String DEDUPLICATE_DESCRIPTION = "Whether Checkstyle checks only"
+            + " once the source files with the same name and content, such as libraries copied"
+            + " into several modules, and reports the issues found on every copy. Ignored when"
+            + " a configured module depends on the directory of the files.";
+
     @SuppressWarnings("rawtypes")
     public static List getExtensions() {
         return Arrays
@@ -98,10 +166,179 @@ public final class CheckstylePlugin implements Plugin {
                                 .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
                                 .name("Generate XML Report").type(PropertyType.BOOLEAN).hidden()
                                 .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_COMPRESS_XML)
+                                .defaultValue("false").category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Compress XML Report").type(PropertyType.BOOLEAN).hidden()
+                                .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_GENERATE_SARIF)
+                                .defaultValue("false").category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Generate SARIF Report").type(PropertyType.BOOLEAN).hidden()
+                                .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_GENERATE_BINARY)
+                                .defaultValue("false").category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Generate Binary Report").type(PropertyType.BOOLEAN)
+                                .hidden()
+                                .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_THREADS)
+                                .defaultValue("1")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Threads")
+                                .description(THREADS_DESCRIPTION)
+                                .type(PropertyType.INTEGER)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_CACHE)
+                                .defaultValue("false")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Cache Results")
+                                .description(CACHE_DESCRIPTION)
+                                .type(PropertyType.BOOLEAN)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(
+                                        CheckstyleConfiguration.PROPERTY_MAX_ISSUES_PER_RULE)
+                                .defaultValue("0")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Maximum Issues per Rule")
+                                .description(MAX_ISSUES_PER_RULE_DESCRIPTION)
+                                .type(PropertyType.INTEGER)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(
+                                        CheckstyleConfiguration.PROPERTY_MAX_ISSUES_PER_FILE)
+                                .defaultValue("0")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Maximum Issues per File")
+                                .description(MAX_ISSUES_PER_FILE_DESCRIPTION)
+                                .type(PropertyType.INTEGER)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_MAX_ISSUES)
+                                .defaultValue("0")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Maximum Issues")
+                                .description(MAX_ISSUES_DESCRIPTION)
+                                .type(PropertyType.INTEGER)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_SPILL_ISSUES)
+                                .defaultValue("false")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Spill Issues")
+                                .description(SPILL_ISSUES_DESCRIPTION)
+                                .type(PropertyType.BOOLEAN)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_TIMING_REPORT)
+                                .defaultValue("false")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Timing Report")
+                                .description(TIMING_REPORT_DESCRIPTION)
+                                .type(PropertyType.BOOLEAN)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(
+                                        CheckstyleConfiguration.PROPERTY_SLOW_FILE_THRESHOLD)
+                                .defaultValue("0")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Slow File Threshold")
+                                .description(SLOW_FILE_THRESHOLD_DESCRIPTION)
+                                .type(PropertyType.INTEGER)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(
+                                        CheckstyleConfiguration.PROPERTY_PROGRESS_INTERVAL)
+                                .defaultValue(String.valueOf(
+                                        CheckstyleConfiguration.DEFAULT_PROGRESS_INTERVAL))
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Progress Interval")
+                                .description(PROGRESS_INTERVAL_DESCRIPTION)
+                                .type(PropertyType.INTEGER)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(
+                                        CheckstyleConfiguration.PROPERTY_MAX_FILE_SIZE)
+                                .defaultValue("0")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Max File Size")
+                                .description(MAX_FILE_SIZE_DESCRIPTION)
+                                .type(PropertyType.INTEGER)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(
+                                        CheckstyleConfiguration.PROPERTY_MAX_FILE_LINES)
+                                .defaultValue("0")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Max File Lines")
+                                .description(MAX_FILE_LINES_DESCRIPTION)
+                                .type(PropertyType.INTEGER)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(
+                                        CheckstyleConfiguration.PROPERTY_SKIP_GENERATED)
+                                .defaultValue("false")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Skip Generated Files")
+                                .description(SKIP_GENERATED_DESCRIPTION)
+                                .type(PropertyType.BOOLEAN)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(
+                                        CheckstyleConfiguration.PROPERTY_MINIFIED_LINE_LENGTH)
+                                .defaultValue("0")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Minified Line Length")
+                                .description(MINIFIED_LINE_LENGTH_DESCRIPTION)
+                                .type(PropertyType.INTEGER)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_DEDUPLICATE)
+                                .defaultValue("false")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Deduplicate Files")
+                                .description(DEDUPLICATE_DESCRIPTION)
+                                .type(PropertyType.BOOLEAN)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_FILE_TIMEOUT)
+                                .defaultValue("0")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("File Timeout")
+                                .description(FILE_TIMEOUT_DESCRIPTION)
+                                .type(PropertyType.INTEGER)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
+                        PropertyDefinition.builder(CheckstyleConfiguration.PROPERTY_PROFILE_MODULES)
+                                .defaultValue("false")
+                                .category(CHECKSTYLE_CATEGORY_NAME)
+                                .subCategory(CHECKSTYLE_SUB_CATEGORY_NAME)
+                                .name("Profile Modules")
+                                .description(PROFILE_MODULES_DESCRIPTION)
+                                .type(PropertyType.BOOLEAN)
+                                .onQualifiers(Qualifiers.PROJECT)
+                                .build(),
 
                         CheckstyleSensor.class, CheckstyleConfiguration.class,
                         CheckstyleExecutor.class, CheckstyleAuditListener.class,
-                        CheckstyleRulesDefinition.class);
+                        CheckstyleRulesDefinition.class, CheckstyleMetrics.class);
     }
 
     @Override
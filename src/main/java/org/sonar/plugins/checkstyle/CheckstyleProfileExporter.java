@@ -20,13 +20,16 @@
 package org.sonar.plugins.checkstyle;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
 
 import javax.annotation.Nullable;
 
@@ -36,7 +39,13 @@ import org.sonar.api.batch.rule.ActiveRule;
 import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.config.Configuration;
 
+import org.xml.sax.InputSource;
+
 import com.google.common.annotations.VisibleForTesting;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 
 public class CheckstyleProfileExporter {
 
@@ -44,6 +53,9 @@ public class CheckstyleProfileExporter {
         "<!DOCTYPE module PUBLIC \"-//Checkstyle//DTD Checkstyle Configuration 1.3//EN\" "
         + "\"https://checkstyle.org/dtds/configuration_1_3.dtd\">";
     private static final String CLOSE_MODULE = "</module>";
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+    private static final String CHECKER = "Checker";
+    private static final String TREE_WALKER = "TreeWalker";
 
     private final Configuration configuration;
 
@@ -71,6 +83,55 @@ public class CheckstyleProfileExporter {
 
     }
 
+    /**
+     * Builds the Checkstyle configuration of the active rules directly, with
+     * the same modules and properties as the XML of
+     * {@link #exportProfile(ActiveRules, Writer)} once loaded by
+     * {@link ConfigurationLoader}. Only the filters, which are XML fragments
+     * in the settings, still go through the loader.
+     *
+     * @param activeRules The rules to export.
+     * @return The root module of the configuration.
+     * @throws CheckstyleException if the filters or a property are invalid.
+     */
+    public DefaultConfiguration exportConfiguration(ActiveRules activeRules)
+            throws CheckstyleException {
+        final Map<String, List<ActiveRule>> activeRulesByConfigKey =
+                arrangeByConfigKey(activeRules
+                .findByRepository(CheckstyleConstants.REPOSITORY_KEY));
+
+        final DefaultConfiguration checker = new DefaultConfiguration(CHECKER);
+        addModuleProperty(checker, "tabWidth", configuration
+                .get(CheckstyleConstants.CHECKER_TAB_WIDTH).orElse(null));
+        addFilters(checker, configuration.get(CheckstyleConstants.CHECKER_FILTERS_KEY)
+                .orElse(null));
+        for (Map.Entry<String, List<ActiveRule>> entry : activeRulesByConfigKey.entrySet()) {
+            if (!isInTreeWalker(entry.getKey())) {
+                for (ActiveRule activeRule : entry.getValue()) {
+                    checker.addChild(createModule(activeRule));
+                }
+            }
+        }
+
+        final DefaultConfiguration treeWalker = new DefaultConfiguration(TREE_WALKER);
+        if (isSuppressWarningsEnabled()) {
+            treeWalker.addChild(new DefaultConfiguration("SuppressWarningsHolder"));
+        }
+        final List<String> ruleSet = new ArrayList<>(activeRulesByConfigKey.keySet());
+        Collections.sort(ruleSet);
+        for (String configKey : ruleSet) {
+            if (isInTreeWalker(configKey)) {
+                for (ActiveRule activeRule : activeRulesByConfigKey.get(configKey)) {
+                    treeWalker.addChild(createModule(activeRule));
+                }
+            }
+        }
+        addFilters(treeWalker, configuration.get(CheckstyleConstants.TREEWALKER_FILTERS_KEY)
+                .orElse(null));
+        checker.addChild(treeWalker);
+        return checker;
+    }
+
     private void generateXml(Writer writer, Map<String,
             List<ActiveRule>> activeRulesByConfigKey) throws IOException {
         appendXmlHeader(writer);
@@ -82,7 +143,7 @@ public class CheckstyleProfileExporter {
     }
 
     private static void appendXmlHeader(Writer writer) throws IOException {
-        writer.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + DOCTYPE_DECLARATION
+        writer.append(XML_HEADER + DOCTYPE_DECLARATION
                 + "<!-- Generated by Sonar -->" + "<module name=\"Checker\">");
     }
 
@@ -146,6 +207,116 @@ public class CheckstyleProfileExporter {
         return result;
     }
 
+    /**
+     * Loads the filter modules of the settings and adds them, as well as any
+     * property or message around them, to the given module.
+     *
+     * @param module The module receiving the filters.
+     * @param filtersXml The XML fragment of the filters.
+     * @throws CheckstyleException if the fragment is invalid.
+     */
+    private static void addFilters(DefaultConfiguration module, @Nullable String filtersXml)
+            throws CheckstyleException {
+        if (StringUtils.isNotBlank(filtersXml)) {
+            final String xml = XML_HEADER + DOCTYPE_DECLARATION + "<module name=\""
+                    + module.getName() + "\">" + filtersXml + CLOSE_MODULE;
+            final com.puppycrawl.tools.checkstyle.api.Configuration filters =
+                    ConfigurationLoader.loadConfiguration(new InputSource(new StringReader(xml)),
+                            new PropertiesExpander(new Properties()),
+                            ConfigurationLoader.IgnoredModulesOptions.EXECUTE);
+            for (String propertyName : filters.getPropertyNames()) {
+                module.addProperty(propertyName, filters.getProperty(propertyName));
+            }
+            filters.getMessages().forEach(module::addMessage);
+            for (com.puppycrawl.tools.checkstyle.api.Configuration filter
+                    : filters.getChildren()) {
+                module.addChild(filter);
+            }
+        }
+    }
+
+    private static DefaultConfiguration createModule(ActiveRule activeRule)
+            throws CheckstyleException {
+        final DefaultConfiguration module = new DefaultConfiguration(
+                StringUtils.substringAfterLast(activeRule.internalKey(), "/"));
+        if (activeRule.templateRuleKey() != null) {
+            addModuleProperty(module, "id", activeRule.ruleKey().rule());
+        }
+        addModuleProperty(module, "severity",
+                CheckstyleSeverityUtils.toSeverity(activeRule.severity()));
+        for (Map.Entry<String, String> param : new TreeMap<>(activeRule.params()).entrySet()) {
+            addModuleProperty(module, param.getKey(), param.getValue());
+        }
+        return module;
+    }
+
+    private static void addModuleProperty(DefaultConfiguration module, String propertyKey,
+            @Nullable String propertyValue) throws CheckstyleException {
+        if (StringUtils.isNotBlank(propertyValue)) {
+            module.addProperty(propertyKey, expandProperties(normalizeValue(propertyValue)));
+        }
+    }
+
+    /**
+     * Normalizes a property value the way the XML export and parsing do:
+     * line breaks and tabs become spaces, the other control characters are
+     * dropped.
+     *
+     * @param value The value to normalize.
+     * @return The normalized value.
+     */
+    @VisibleForTesting
+    static String normalizeValue(String value) {
+        final String unixValue = value.replace("\r\n", "\n");
+        final StringBuilder result = new StringBuilder(unixValue.length());
+        for (int index = 0; index < unixValue.length(); index++) {
+            final char character = unixValue.charAt(index);
+            if (character == '\n' || character == '\r' || character == '\t') {
+                result.append(' ');
+            }
+            else if (character >= ' ') {
+                result.append(character);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Expands the property references of a value like {@link ConfigurationLoader}
+     * does without any property defined: {@code $$} stands for {@code $} and
+     * any {@code ${name}} is an error.
+     *
+     * @param value The value to expand.
+     * @return The expanded value.
+     * @throws CheckstyleException if the value references a property.
+     */
+    @VisibleForTesting
+    static String expandProperties(String value) throws CheckstyleException {
+        final StringBuilder result = new StringBuilder(value.length());
+        int index = 0;
+        while (index < value.length()) {
+            final char character = value.charAt(index);
+            final boolean hasNext = index + 1 < value.length();
+            if (character == '$' && hasNext && value.charAt(index + 1) == '$') {
+                result.append('$');
+                index += 2;
+            }
+            else if (character == '$' && hasNext && value.charAt(index + 1) == '{') {
+                final int end = value.indexOf('}', index);
+                if (end < 0) {
+                    throw new CheckstyleException("Syntax error in property: " + value);
+                }
+                throw new CheckstyleException("Property " + value.substring(index, end + 1)
+                        + " has not been set");
+            }
+            else {
+                result.append(character);
+                index++;
+            }
+        }
+        return result.toString();
+    }
+
     private static void appendXmlFooter(Writer writer) throws IOException {
         writer.append(CLOSE_MODULE);
     }
@@ -155,9 +326,18 @@ public class CheckstyleProfileExporter {
         return StringUtils.startsWithIgnoreCase(configKey, "Checker/TreeWalker/");
     }
 
+    /**
+     * Groups the active rules by configuration key. Keys and rules of a same
+     * key are sorted, so the export does not depend on the order of the
+     * active rules and its hash can identify the configuration.
+     *
+     * @param activeRules The active rules.
+     * @return The sorted rules by sorted configuration key.
+     */
     private static Map<String, List<ActiveRule>> arrangeByConfigKey(
             Collection<ActiveRule> activeRules) {
-        final Map<String, List<ActiveRule>> result = new HashMap<>();
+        final Map<String, List<ActiveRule>> result =
+                new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
         for (ActiveRule activeRule : activeRules) {
             final String key = activeRule.internalKey();
             if (result.containsKey(key)) {
@@ -170,6 +350,9 @@ public class CheckstyleProfileExporter {
                 result.put(key, rules);
             }
         }
+        for (List<ActiveRule> rules : result.values()) {
+            rules.sort(Comparator.comparing(activeRule -> activeRule.ruleKey().toString()));
+        }
         return result;
     }
 
@@ -191,7 +374,7 @@ public class CheckstyleProfileExporter {
 
     private static void appendRuleParameters(Writer writer, ActiveRule activeRule)
             throws IOException {
-        for (Map.Entry<String, String> param : activeRule.params().entrySet()) {
+        for (Map.Entry<String, String> param : new TreeMap<>(activeRule.params()).entrySet()) {
             if (StringUtils.isNotBlank(param.getValue())) {
                 appendModuleProperty(writer, param.getKey(), param.getValue());
             }
@@ -0,0 +1,232 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.Closeable;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Logs the progress of the analysis at a fixed interval, so that a long
+ * analysis does not look stuck: files done out of the total, throughput,
+ * violations so far, files skipped and estimated finish time. The files
+ * abandoned because they were processed for too long count as done, so the
+ * progress still reaches the total. The counters are updated by the audit
+ * events of a single checker, or by the workers as soon as they are done
+ * with a file rather than by the in-order replay of its events, and read by
+ * a single daemon timer thread. When closed, it logs the wall time spent in
+ * each {@link Phase} of the analysis.
+ */
+final class CheckstyleProgressReporter implements AuditListener, Closeable,
+        CheckstyleShardRunner.ProgressListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleProgressReporter.class);
+
+    private final int intervalSeconds;
+    private final AtomicInteger totalFiles = new AtomicInteger();
+    private final AtomicInteger filesDone = new AtomicInteger();
+    private final AtomicInteger filesSkipped = new AtomicInteger();
+    private final AtomicInteger violations = new AtomicInteger();
+    private final AtomicLong startNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLongArray phases = new AtomicLongArray(Phase.values().length);
+    private final AtomicReference<ScheduledExecutorService> timer = new AtomicReference<>();
+
+    /**
+     * Creates a new reporter.
+     *
+     * @param intervalSeconds The interval between two progress lines, in
+     *     seconds, {@code 0} or less to log none.
+     */
+    CheckstyleProgressReporter(int intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    /**
+     * Starts reporting the progress of the files.
+     *
+     * @param files The number of files to process.
+     */
+    void start(int files) {
+        totalFiles.set(files);
+        startNanos.set(System.nanoTime());
+        if (intervalSeconds > 0 && files > 0) {
+            final ScheduledExecutorService executor =
+                    Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        final Thread thread = new Thread(runnable, "checkstyle-progress");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.scheduleAtFixedRate(() -> LOG.info(getProgress()), intervalSeconds,
+                    intervalSeconds, TimeUnit.SECONDS);
+            timer.set(executor);
+        }
+    }
+
+    /**
+     * Adds wall time to a phase of the analysis.
+     *
+     * @param phase The phase.
+     * @param nanos The duration to add, in nanoseconds.
+     */
+    void addPhase(Phase phase, long nanos) {
+        phases.addAndGet(phase.ordinal(), nanos);
+    }
+
+    /**
+     * Gets the wall time spent in a phase of the analysis.
+     *
+     * @param phase The phase.
+     * @return The duration, in nanoseconds.
+     */
+    long getPhase(Phase phase) {
+        return phases.get(phase.ordinal());
+    }
+
+    /**
+     * Describes the progress of the files.
+     *
+     * @return The progress line.
+     */
+    @VisibleForTesting
+    String getProgress() {
+        final int skipped = filesSkipped.get();
+        final int done = filesDone.get() + skipped;
+        final int total = totalFiles.get();
+        final long elapsedNanos = Math.max(1, System.nanoTime() - startNanos.get());
+        final String finish;
+        if (done == 0) {
+            finish = "unknown";
+        }
+        else {
+            final long remainingNanos = elapsedNanos / done * (total - done);
+            finish = LocalTime.now().plusNanos(remainingNanos)
+                    .truncatedTo(ChronoUnit.SECONDS).toString();
+        }
+        return String.format(Locale.ROOT,
+                "Checkstyle progress: %d/%d files, %.1f files/s, %d violations,"
+                        + " %d skipped files, estimated finish at %s",
+                done, total, done * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos,
+                violations.get(), skipped, finish);
+    }
+
+    /**
+     * Describes the wall time spent in each phase of the analysis.
+     *
+     * @return The summary line.
+     */
+    @VisibleForTesting
+    String getSummary() {
+        final StringJoiner summary = new StringJoiner(", ", "Checkstyle phases: ", "");
+        for (Phase phase : Phase.values()) {
+            summary.add(phase.label + " " + TimeUnit.NANOSECONDS.toMillis(getPhase(phase))
+                    + " ms");
+        }
+        return summary.toString();
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        // only the files and violations are counted
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        // only the files and violations are counted
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        // the files are counted when finished
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        filesDone.incrementAndGet();
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        violations.incrementAndGet();
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        // exceptions are not violations
+    }
+
+    @Override
+    public void fileCompleted(List<CheckstyleFileAudit> audits) {
+        for (CheckstyleFileAudit audit : audits) {
+            if (audit.isProcessed()) {
+                filesDone.incrementAndGet();
+            }
+            violations.addAndGet(audit.getErrors().size());
+        }
+    }
+
+    @Override
+    public void fileSkipped(String fileName) {
+        filesSkipped.incrementAndGet();
+    }
+
+    /**
+     * Stops the progress lines and logs the summary of the phases.
+     */
+    @Override
+    public void close() {
+        final ScheduledExecutorService executor = timer.getAndSet(null);
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        LOG.info(getSummary());
+    }
+
+    /**
+     * Phases of the analysis, in the order they run.
+     */
+    enum Phase {
+        CONFIG_EXPORT("config export"),
+        CONFIGURE("configure"),
+        CHECK("check"),
+        REPORT("report");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Finds the files referenced by the properties of an exported Checkstyle
+ * configuration, such as suppressions, headers or import controls, and
+ * hashes their content. The results of Checkstyle depend on these files as
+ * much as on the configuration itself. A value is taken as a file when it
+ * names an existing file, as is or relative to the base directory of the
+ * project; remote resources are not covered.
+ */
+final class CheckstyleReferencedFiles {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleReferencedFiles.class);
+
+    /** Value of a property in the XML of the configuration, in either quotes. */
+    private static final Pattern VALUE =
+            Pattern.compile("\\bvalue\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+
+    private CheckstyleReferencedFiles() {
+        // only static methods
+    }
+
+    /**
+     * Hashes the content of the files referenced by the configuration.
+     *
+     * @param configurationXml The XML of the configuration.
+     * @param baseDir The base directory of the project.
+     * @return The hash, which changes with the content of any referenced
+     *     file, as lower case hexadecimal.
+     */
+    static String hash(String configurationXml, File baseDir) {
+        final Map<String, String> files = new TreeMap<>();
+        final Matcher matcher = VALUE.matcher(configurationXml);
+        while (matcher.find()) {
+            final String value;
+            if (matcher.group(1) == null) {
+                value = matcher.group(2);
+            }
+            else {
+                value = matcher.group(1);
+            }
+            final File file = resolve(unescape(value), baseDir);
+            if (file != null) {
+                files.computeIfAbsent(file.getAbsolutePath(), path -> hashContent(file));
+            }
+        }
+        final StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, String> entry : files.entrySet()) {
+            result.append(entry.getKey()).append('\n').append(entry.getValue()).append('\n');
+        }
+        return CheckstyleDigestUtils.sha256Hex(result.toString());
+    }
+
+    @Nullable
+    private static File resolve(String value, File baseDir) {
+        File result = null;
+        if (!value.isBlank()) {
+            final File file = new File(value);
+            if (file.isFile()) {
+                result = file;
+            }
+            else if (!file.isAbsolute() && new File(baseDir, value).isFile()) {
+                result = new File(baseDir, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hashes the content of a file, unreadable files get a hash of their own.
+     *
+     * @param file The file to hash.
+     * @return The hash.
+     */
+    @VisibleForTesting
+    static String hashContent(File file) {
+        String result;
+        try {
+            result = CheckstyleDigestUtils.sha256Hex(file);
+        }
+        catch (IOException exception) {
+            LOG.debug("Fail to hash {}", file.getAbsolutePath(), exception);
+            result = "unreadable";
+        }
+        return result;
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&quot;", "\"").replace("&apos;", "'").replace("&lt;", "<")
+                .replace("&gt;", ">").replace("&amp;", "&");
+    }
+}
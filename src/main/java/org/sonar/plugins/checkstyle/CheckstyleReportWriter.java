@@ -0,0 +1,147 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Writes a report of Checkstyle on a dedicated thread, so that the
+ * checkers do not wait for the report file. The events of a file are
+ * recorded until the file is finished, then forwarded at once, in the order
+ * they were received, to a single writer through a bounded queue. The events
+ * must be received from one thread at a time, as a {@code Checker} fires
+ * them. The report is written through a large buffer and may be compressed
+ * with gzip.
+ */
+final class CheckstyleReportWriter implements AuditListener, Closeable {
+
+    /** Size of the buffers of the report, in bytes. */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /** Maximum number of events waiting to be written. */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final AuditListener logger;
+    private final OutputStream output;
+    private final CheckstyleSerialExecutor writer;
+    private final CheckstyleAuditRecorder recorder;
+
+    /**
+     * Creates a new writer and starts its thread.
+     *
+     * @param logger The listener writing the events.
+     * @param output The stream of the report, closed with the writer.
+     */
+    CheckstyleReportWriter(AuditListener logger, OutputStream output) {
+        this.logger = logger;
+        this.output = output;
+        writer = new CheckstyleSerialExecutor("checkstyle-report-writer",
+                "Fail to write the Checkstyle report",
+                "Interrupted while writing the Checkstyle report", QUEUE_CAPACITY);
+        writer.start();
+        recorder = new CheckstyleAuditRecorder(audit -> writer.submit(() ->
+                audit.replayTo(logger)));
+    }
+
+    /**
+     * Opens a writer of a report in a file.
+     *
+     * @param report The report file.
+     * @param compress Whether to compress the report with gzip.
+     * @param loggerFactory The factory of the listener writing the events to
+     *     the stream of the report.
+     * @return The writer.
+     * @throws IOException if the file cannot be opened.
+     */
+    static CheckstyleReportWriter open(File report, boolean compress,
+            Function<OutputStream, AuditListener> loggerFactory) throws IOException {
+        final OutputStream output = openOutput(report, compress);
+        return new CheckstyleReportWriter(loggerFactory.apply(output), output);
+    }
+
+    private static OutputStream openOutput(File report, boolean compress) throws IOException {
+        OutputStream output = new BufferedOutputStream(FileUtils.openOutputStream(report),
+                BUFFER_SIZE);
+        if (compress) {
+            // only writes the header to the buffer
+            output = new GZIPOutputStream(output, BUFFER_SIZE);
+        }
+        return output;
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        writer.submit(() -> logger.auditStarted(event));
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        writer.submit(() -> logger.auditFinished(event));
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        recorder.fileStarted(event);
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        recorder.fileFinished(event);
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        recorder.addError(event);
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        recorder.addException(event, throwable);
+    }
+
+    /**
+     * Waits for the events to be written and closes the report.
+     *
+     * @throws IOException if the report cannot be closed.
+     * @throws IllegalStateException if an event could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        final CheckstyleJfrEvents.ReportEvent event = new CheckstyleJfrEvents.ReportEvent();
+        event.begin();
+        try {
+            writer.stop();
+        }
+        finally {
+            output.close();
+        }
+        event.commitWith(logger.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,151 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+import org.sonar.api.batch.fs.InputFile;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.puppycrawl.tools.checkstyle.Checker;
+
+/**
+ * Cache of the audits of the source files, so that unchanged files do not
+ * have to be processed by Checkstyle again. Implementations are used by
+ * several workers at once and have to be thread-safe.
+ */
+interface CheckstyleResultCache {
+
+    /** Version of the serialized audits, to change whenever their format changes. */
+    int FORMAT_VERSION = 1;
+
+    /**
+     * Retrieves the cached audits of the file.
+     *
+     * @param inputFile The file to retrieve the audits for.
+     * @return The audits, or {@code null} if the file has to be processed.
+     */
+    @Nullable
+    List<CheckstyleFileAudit> get(InputFile inputFile);
+
+    /**
+     * Stores the audits of a processed file.
+     *
+     * @param inputFile The processed file.
+     * @param audits The audits of the file.
+     */
+    void put(InputFile inputFile, List<CheckstyleFileAudit> audits);
+
+    /**
+     * Persists the cache once the analysis is over.
+     */
+    void save();
+
+    /**
+     * Computes the key every cached audit depends on. It changes with the
+     * Checkstyle configuration, the format of the cached audits and the
+     * versions of Checkstyle and of the plugin.
+     *
+     * @param configurationHash The hash of the Checkstyle configuration.
+     * @return The key.
+     */
+    static String getCacheKey(String configurationHash) {
+        return CheckstyleDigestUtils.sha256Hex(FORMAT_VERSION + "\n" + configurationHash
+                + "\n" + getVersion(Checker.class) + "\n" + getVersion(CheckstylePlugin.class));
+    }
+
+    /**
+     * Identifies the version of the jar the class comes from.
+     *
+     * @param type The class to identify the jar of.
+     * @return The version.
+     */
+    private static String getVersion(Class<?> type) {
+        return getVersion(type.getPackage().getImplementationVersion(),
+                Optional.ofNullable(type.getProtectionDomain().getCodeSource())
+                        .map(CodeSource::getLocation)
+                        .orElse(null));
+    }
+
+    /**
+     * Identifies the version of a jar by its implementation version and the
+     * hash of its content. The location of the jar is left out, it changes
+     * between build agents.
+     *
+     * @param implementationVersion The version of the manifest of the jar.
+     * @param location The location of the jar, or {@code null} if unknown.
+     * @return The version.
+     */
+    @VisibleForTesting
+    static String getVersion(@Nullable String implementationVersion, @Nullable URL location) {
+        String contentHash = "";
+        if (location != null) {
+            try {
+                final File jar = new File(location.toURI());
+                if (jar.isFile()) {
+                    contentHash = CheckstyleDigestUtils.sha256Hex(jar);
+                }
+            }
+            catch (IOException | URISyntaxException | IllegalArgumentException exception) {
+                // the version alone identifies the jar
+            }
+        }
+        return implementationVersion + "@" + contentHash;
+    }
+
+    /**
+     * Retrieves the cache used when caching is turned off.
+     *
+     * @return A cache which never contains anything.
+     */
+    static CheckstyleResultCache disabled() {
+        return DisabledCache.INSTANCE;
+    }
+
+    /**
+     * Cache which never contains anything.
+     */
+    enum DisabledCache implements CheckstyleResultCache {
+        INSTANCE;
+
+        @Override
+        public List<CheckstyleFileAudit> get(InputFile inputFile) {
+            return null;
+        }
+
+        @Override
+        public void put(InputFile inputFile, List<CheckstyleFileAudit> audits) {
+            // nop
+        }
+
+        @Override
+        public void save() {
+            // nop
+        }
+    }
+}
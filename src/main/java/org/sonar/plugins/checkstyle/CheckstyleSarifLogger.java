@@ -0,0 +1,231 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.rule.ActiveRules;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Writes the results of Checkstyle as a SARIF 2.1.0 log. The rules come from
+ * the active rules of the quality profile and are written when the audit
+ * starts. The results are then streamed as they are reported and flushed
+ * when their file is finished, so the memory used does not depend on the
+ * number of results. Events must be received from a single thread.
+ */
+final class CheckstyleSarifLogger implements AuditListener {
+
+    private static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String SARIF_VERSION = "2.1.0";
+    private static final String LEVEL = "level";
+    private static final String LEVEL_ERROR = "error";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final OutputStream output;
+    private final List<ActiveRule> rules;
+    private JsonGenerator generator;
+
+    /**
+     * Creates a new logger.
+     *
+     * @param output The stream of the log, closed when the audit finishes.
+     * @param activeRules The active rules of the analysis.
+     */
+    CheckstyleSarifLogger(OutputStream output, ActiveRules activeRules) {
+        this.output = output;
+        rules = activeRules.findByRepository(CheckstyleConstants.REPOSITORY_KEY).stream()
+                .sorted(Comparator.comparing(rule -> rule.ruleKey().rule()))
+                .toList();
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        write(() -> {
+            generator = JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8);
+            generator.writeStartObject();
+            generator.writeStringField("$schema", SARIF_SCHEMA);
+            generator.writeStringField("version", SARIF_VERSION);
+            generator.writeArrayFieldStart("runs");
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("tool");
+            generator.writeObjectFieldStart("driver");
+            generator.writeStringField("name", "Checkstyle");
+            generator.writeStringField("informationUri", "https://checkstyle.org/");
+            generator.writeArrayFieldStart("rules");
+            for (ActiveRule rule : rules) {
+                writeRule(rule);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeArrayFieldStart("results");
+        });
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        write(() -> {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.close();
+        });
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        // the results are not grouped by file
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        write(generator::flush);
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        write(() -> {
+            generator.writeStartObject();
+            generator.writeStringField("ruleId", getRuleId(event));
+            generator.writeStringField(LEVEL, getLevel(event.getSeverityLevel()));
+            writeMessage(event.getMessage());
+            writeLocation(event);
+            generator.writeEndObject();
+        });
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        write(() -> {
+            generator.writeStartObject();
+            generator.writeStringField(LEVEL, LEVEL_ERROR);
+            writeMessage(ExceptionUtils.getStackTrace(throwable));
+            writeLocation(event);
+            generator.writeEndObject();
+        });
+    }
+
+    private void write(JsonWriter writer) {
+        try {
+            writer.write();
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void writeRule(ActiveRule rule) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", rule.ruleKey().rule());
+        generator.writeObjectFieldStart("defaultConfiguration");
+        generator.writeStringField(LEVEL, getLevel(SeverityLevel.getInstance(
+                CheckstyleSeverityUtils.toSeverity(rule.severity()))));
+        generator.writeEndObject();
+        generator.writeObjectFieldStart("properties");
+        generator.writeStringField("sonarRuleKey", rule.ruleKey().toString());
+        if (rule.internalKey() != null) {
+            generator.writeStringField("internalKey", rule.internalKey());
+        }
+        generator.writeObjectFieldStart("parameters");
+        for (Map.Entry<String, String> param : new TreeMap<>(rule.params()).entrySet()) {
+            generator.writeStringField(param.getKey(), param.getValue());
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private void writeMessage(String text) throws IOException {
+        generator.writeObjectFieldStart("message");
+        generator.writeStringField("text", text);
+        generator.writeEndObject();
+    }
+
+    private void writeLocation(AuditEvent event) throws IOException {
+        if (event.getFileName() != null) {
+            generator.writeArrayFieldStart("locations");
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("physicalLocation");
+            generator.writeObjectFieldStart("artifactLocation");
+            generator.writeStringField("uri",
+                    new File(event.getFileName()).toURI().toString());
+            generator.writeEndObject();
+            if (event.getViolation() != null && event.getLine() > 0) {
+                generator.writeObjectFieldStart("region");
+                generator.writeNumberField("startLine", event.getLine());
+                if (event.getColumn() > 0) {
+                    generator.writeNumberField("startColumn", event.getColumn());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeEndArray();
+        }
+    }
+
+    private static String getRuleId(AuditEvent event) {
+        String result = event.getModuleId();
+        if (StringUtils.isBlank(result)) {
+            result = event.getSourceName();
+        }
+        return result;
+    }
+
+    private static String getLevel(SeverityLevel severityLevel) {
+        return switch (severityLevel) {
+            case ERROR -> LEVEL_ERROR;
+            case WARNING -> "warning";
+            case INFO -> "note";
+            case IGNORE -> "none";
+        };
+    }
+
+    /**
+     * Writer of a part of the log.
+     */
+    @FunctionalInterface
+    private interface JsonWriter {
+        /**
+         * Writes the part.
+         *
+         * @throws IOException if the log cannot be written.
+         */
+        void write() throws IOException;
+    }
+}
@@ -19,10 +19,13 @@
 
 package org.sonar.plugins.checkstyle;
 
+import java.io.Serializable;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.measures.Metric;
 import org.sonar.api.scanner.sensor.ProjectSensor;
 
 public class CheckstyleSensor implements ProjectSensor {
@@ -43,13 +46,39 @@ public class CheckstyleSensor implements ProjectSensor {
     @Override
     public void execute(SensorContext context) {
         if (context.config().getBoolean(CHECKSTYLE_ENABLED).orElse(true)) {
-            executor.execute(context);
+            saveMeasures(context, executor.execute(context));
         }
         else {
             LOG.info("Checkstyle plugin is disabled.");
         }
     }
 
+    /**
+     * Saves the statistics of the analysis as measures of the project.
+     *
+     * @param context The context of the analysis.
+     * @param statistics The statistics of the analysis.
+     */
+    private static void saveMeasures(SensorContext context, CheckstyleStatistics statistics) {
+        saveMeasure(context, CheckstyleMetrics.ANALYSIS_DURATION,
+                statistics.getDurationMillis());
+        saveMeasure(context, CheckstyleMetrics.FILES_ANALYZED, statistics.getAnalyzedFiles());
+        saveMeasure(context, CheckstyleMetrics.FILES_CACHED, statistics.getCachedFiles());
+        saveMeasure(context, CheckstyleMetrics.FILES_DUPLICATE, statistics.getDuplicateFiles());
+        saveMeasure(context, CheckstyleMetrics.FILES_SKIPPED, statistics.getSkippedFiles());
+        saveMeasure(context, CheckstyleMetrics.VIOLATIONS_PER_SECOND,
+                statistics.getViolationsPerSecond());
+    }
+
+    private static <T extends Serializable> void saveMeasure(SensorContext context,
+            Metric<T> metric, T value) {
+        context.<T>newMeasure()
+            .on(context.project())
+            .forMetric(metric)
+            .withValue(value)
+            .save();
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName();
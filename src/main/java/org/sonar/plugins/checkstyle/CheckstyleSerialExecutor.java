@@ -0,0 +1,145 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs tasks one after the other on a dedicated thread, in submission order.
+ * The queue is bounded: submitting blocks while it is full, which keeps the
+ * pending tasks in check when running them is slower than submitting them.
+ * Tasks may be submitted from several threads. Once a task failed, the
+ * following ones are dropped and the failure is thrown to the submitters.
+ */
+class CheckstyleSerialExecutor {
+
+    private static final Runnable STOP = () -> {
+        // marks the end of the tasks
+    };
+
+    private final BlockingQueue<Runnable> queue;
+    private final Thread thread;
+    private final String failureMessage;
+    private final String interruptedMessage;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Creates a new executor.
+     *
+     * @param name The name of the thread.
+     * @param failureMessage The message of the exception thrown when a task
+     *     failed.
+     * @param interruptedMessage The message of the exception thrown when
+     *     interrupted while waiting.
+     * @param capacity The maximum number of pending tasks.
+     */
+    CheckstyleSerialExecutor(String name, String failureMessage, String interruptedMessage,
+            int capacity) {
+        queue = new ArrayBlockingQueue<>(capacity);
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        this.failureMessage = failureMessage;
+        this.interruptedMessage = interruptedMessage;
+    }
+
+    /**
+     * Starts the thread running the tasks.
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Submits a task, waiting for room in the queue if needed.
+     *
+     * @param task The task to run.
+     * @throws IllegalStateException if a previous task failed or if
+     *     interrupted while waiting.
+     */
+    void submit(Runnable task) {
+        checkFailure();
+        put(task);
+    }
+
+    /**
+     * Waits for the submitted tasks to be run and stops the thread.
+     *
+     * @throws IllegalStateException if a task failed or if interrupted while
+     *     waiting.
+     */
+    void stop() {
+        put(STOP);
+        try {
+            thread.join();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(interruptedMessage, exception);
+        }
+        checkFailure();
+    }
+
+    private void put(Runnable task) {
+        try {
+            queue.put(task);
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(interruptedMessage, exception);
+        }
+    }
+
+    private void checkFailure() {
+        final Throwable cause = failure.get();
+        if (cause != null) {
+            throw new IllegalStateException(failureMessage, cause);
+        }
+    }
+
+    private void run() {
+        Runnable task = take();
+        while (task != STOP) {
+            // once a task failed, the others are only drained
+            if (failure.get() == null) {
+                try {
+                    task.run();
+                }
+                catch (RuntimeException | Error exception) {
+                    failure.set(exception);
+                }
+            }
+            task = take();
+        }
+    }
+
+    private Runnable take() {
+        Runnable result;
+        try {
+            result = queue.take();
+        }
+        catch (InterruptedException exception) {
+            failure.compareAndSet(null, exception);
+            result = STOP;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,773 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+/**
+ * Runs Checkstyle with several workers at once, each with its own
+ * {@code Checker} instance. The files are scheduled through a
+ * {@link CheckstyleWorkQueue}, most expensive first, based on their size,
+ * their line count and the durations recorded on previous analyses.
+ * The events of the workers are recorded and replayed in the original file
+ * order on the calling thread, so the listeners see exactly the same sequence
+ * as for a single-threaded run. Files found in the {@link CheckstyleResultCache}
+ * are not processed again, their cached events are replayed instead. When
+ * enabled, the files identical to a previous one are not processed either,
+ * the events of the first one are replayed for them.
+ * Every file is processed by its own {@code Checker.process} call, the
+ * runner must not be used when a module depends on the other files, see
+ * {@link CheckstyleModuleScope#findCrossFileModule}.
+ */
+final class CheckstyleShardRunner {
+
+    /** Weight of a line compared to a single character of the file. */
+    @VisibleForTesting
+    static final long LINE_WEIGHT = 16;
+
+    /** Maximum interval between two checks of the watchdog. */
+    private static final long MAX_WATCHDOG_PERIOD_MILLIS = 1000;
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final String CHECK_SUFFIX = "Check";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleShardRunner.class);
+
+    private final int threads;
+    private final CheckerFactory checkerFactory;
+    private final CheckstyleDurationHistory history;
+    private final CheckstyleResultCache cache;
+    private final BooleanSupplier cancelled;
+    private final long fileTimeoutMillis;
+    private final boolean deduplicate;
+    private final AtomicInteger cachedFiles = new AtomicInteger();
+    private final AtomicInteger skippedFiles = new AtomicInteger();
+    private final AtomicInteger duplicateFiles = new AtomicInteger();
+
+    /**
+     * Creates a new runner.
+     *
+     * @param threads The maximum number of files processed at once.
+     * @param checkerFactory Creates the configured checker of each worker.
+     * @param history The durations of the previous analyses, updated with
+     *     the ones of this analysis.
+     * @param cache The audits of the previous analyses, updated with the ones
+     *     of this analysis.
+     */
+    CheckstyleShardRunner(int threads, CheckerFactory checkerFactory,
+            CheckstyleDurationHistory history, CheckstyleResultCache cache) {
+        this(threads, checkerFactory, history, cache, () -> false, 0, false);
+    }
+
+    /**
+     * Creates a new runner which can be cancelled between files, abandons
+     * the files processed for too long and processes identical files once.
+     *
+     * @param threads The maximum number of files processed at once.
+     * @param checkerFactory Creates the configured checker of each worker.
+     * @param history The durations of the previous analyses, updated with
+     *     the ones of this analysis.
+     * @param cache The audits of the previous analyses, updated with the ones
+     *     of this analysis.
+     * @param cancelled Tells whether the analysis is cancelled, the files
+     *     not started yet are then skipped without any audit.
+     * @param fileTimeoutMillis The time after which the processing of a file
+     *     is abandoned and the file skipped, {@code 0} or less for no limit.
+     * @param deduplicate Whether the files identical to a previous one, see
+     *     {@link CheckstyleDuplicateFinder}, get the events of that file
+     *     instead of being processed.
+     */
+    CheckstyleShardRunner(int threads, CheckerFactory checkerFactory,
+            CheckstyleDurationHistory history, CheckstyleResultCache cache,
+            BooleanSupplier cancelled, long fileTimeoutMillis, boolean deduplicate) {
+        this.threads = threads;
+        this.checkerFactory = checkerFactory;
+        this.history = history;
+        this.cache = cache;
+        this.cancelled = cancelled;
+        this.fileTimeoutMillis = fileTimeoutMillis;
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * Processes the files and reports the results to the listeners.
+     *
+     * @param inputFiles The files to process.
+     * @param listeners The listeners to report to.
+     * @throws CheckstyleException if a checker failed to process a file.
+     */
+    void process(List<InputFile> inputFiles, List<AuditListener> listeners)
+            throws CheckstyleException {
+        process(inputFiles, listeners, List.of());
+    }
+
+    /**
+     * Processes the files and reports the results to the listeners. The
+     * progress listeners learn about each file as soon as it is done, before
+     * it is replayed in order. The abandoned files get no event, they are
+     * reported to the progress listeners only.
+     *
+     * @param inputFiles The files to process.
+     * @param listeners The listeners to report to.
+     * @param progressListeners The listeners of the files done.
+     * @throws CheckstyleException if a checker failed to process a file.
+     */
+    void process(List<InputFile> inputFiles, List<AuditListener> listeners,
+            List<ProgressListener> progressListeners) throws CheckstyleException {
+        final List<FileTask> tasks = createTasks(inputFiles, history);
+        final List<FileTask> uniqueTasks = removeDuplicates(tasks, progressListeners);
+        final int workers = Math.max(1, Math.min(threads, uniqueTasks.size()));
+        final Shard shard = new Shard(uniqueTasks, workers, progressListeners);
+        final ScheduledExecutorService watchdog = startWatchdog(shard);
+        try {
+            for (int worker = 0; worker < workers; worker++) {
+                shard.start(worker);
+            }
+
+            final AuditEvent auditEvent = new AuditEvent(this);
+            for (AuditListener listener : listeners) {
+                listener.auditStarted(auditEvent);
+            }
+            for (FileTask task : tasks) {
+                for (CheckstyleFileAudit audit : await(task.result)) {
+                    for (AuditListener listener : listeners) {
+                        audit.replayTo(listener);
+                    }
+                }
+            }
+            for (AuditListener listener : listeners) {
+                listener.auditFinished(auditEvent);
+            }
+            history.save();
+            cache.save();
+        }
+        finally {
+            if (watchdog != null) {
+                watchdog.shutdownNow();
+            }
+            shard.stop();
+        }
+        if (skippedFiles.get() > 0) {
+            LOG.warn("Checkstyle skipped {} files processed for more than {} ms",
+                    skippedFiles.get(), fileTimeoutMillis);
+        }
+    }
+
+    /**
+     * Gets the number of files whose results came from the cache.
+     *
+     * @return The number of cached files processed so far.
+     */
+    int getCachedFiles() {
+        return cachedFiles.get();
+    }
+
+    /**
+     * Gets the number of files abandoned because they were processed for
+     * too long.
+     *
+     * @return The number of skipped files so far.
+     */
+    int getSkippedFiles() {
+        return skippedFiles.get();
+    }
+
+    /**
+     * Gets the number of files which got the events of an identical file
+     * instead of being processed.
+     *
+     * @return The number of duplicate files reported so far.
+     */
+    int getDuplicateFiles() {
+        return duplicateFiles.get();
+    }
+
+    /**
+     * Leaves out the tasks of the files identical to a previous one, if
+     * enabled. Each of them gets the events of that file once it is done,
+     * reported for the copy, and is counted as a duplicate if there are any.
+     *
+     * @param tasks The tasks of the files.
+     * @param progressListeners The listeners of the files done.
+     * @return The tasks to process.
+     */
+    private List<FileTask> removeDuplicates(List<FileTask> tasks,
+            List<ProgressListener> progressListeners) {
+        List<FileTask> result = tasks;
+        if (deduplicate) {
+            final Map<InputFile, FileTask> tasksByFile = new HashMap<>();
+            for (FileTask task : tasks) {
+                tasksByFile.put(task.inputFile, task);
+            }
+            final Map<InputFile, InputFile> duplicates = CheckstyleDuplicateFinder
+                    .findDuplicates(tasks.stream().map(task -> task.inputFile).toList());
+            result = new ArrayList<>(tasks.size() - duplicates.size());
+            for (FileTask task : tasks) {
+                final InputFile first = duplicates.get(task.inputFile);
+                if (first == null) {
+                    result.add(task);
+                }
+                else {
+                    tasksByFile.get(first).result.whenComplete((audits, exception) -> {
+                        if (exception == null && !audits.isEmpty()) {
+                            duplicateFiles.incrementAndGet();
+                            fireCompleted(progressListeners, audits);
+                        }
+                        task.completeAsCopy(audits, exception);
+                    });
+                }
+            }
+            LOG.info("Checkstyle processes {} files, {} identical to another one are not"
+                    + " processed again", result.size(), duplicates.size());
+        }
+        return result;
+    }
+
+    /**
+     * Starts the thread abandoning the files processed for too long, if
+     * their processing time is limited.
+     *
+     * @param shard The workers to watch.
+     * @return The watchdog, or {@code null} if there is no limit.
+     */
+    @Nullable
+    private ScheduledExecutorService startWatchdog(Shard shard) {
+        ScheduledExecutorService result = null;
+        if (fileTimeoutMillis > 0) {
+            result = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "checkstyle-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long period = Math.min(MAX_WATCHDOG_PERIOD_MILLIS,
+                    Math.max(1, fileTimeoutMillis / 4));
+            result.scheduleWithFixedDelay(shard::checkTimeouts, period, period,
+                    TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the Checkstyle module running in a stack trace, from the
+     * innermost frame of a class named like a check.
+     *
+     * @param stack The stack trace of the worker.
+     * @return The name of the module.
+     */
+    @VisibleForTesting
+    static String findModule(StackTraceElement... stack) {
+        String result = null;
+        for (int index = 0; result == null && index < stack.length; index++) {
+            final String className = stack[index].getClassName();
+            final String name = className.substring(
+                    Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1);
+            if (name.endsWith(CHECK_SUFFIX) && !name.startsWith("Abstract")) {
+                result = name.substring(0, name.length() - CHECK_SUFFIX.length());
+            }
+        }
+        return Objects.requireNonNullElse(result, "an unknown module");
+    }
+
+    /**
+     * Creates the tasks of the files with their estimated cost. The cost of
+     * a file is its duration on the previous analysis if known, otherwise it
+     * is derived from its size and line count, calibrated with the files of
+     * known duration.
+     *
+     * @param inputFiles The files to create the tasks for.
+     * @param history The durations of the previous analyses.
+     * @return The tasks, in the order of the files.
+     */
+    @VisibleForTesting
+    static List<FileTask> createTasks(List<InputFile> inputFiles,
+            CheckstyleDurationHistory history) {
+        final int size = inputFiles.size();
+        final List<File> files = new ArrayList<>(size);
+        final long[] weights = new long[size];
+        final Long[] durations = new Long[size];
+        long knownWeight = 0;
+        long knownDuration = 0;
+        for (int index = 0; index < size; index++) {
+            final InputFile inputFile = inputFiles.get(index);
+            final File file = new File(inputFile.uri());
+            files.add(file);
+            weights[index] = file.length() + LINE_WEIGHT * inputFile.lines();
+            durations[index] = history.getDuration(file.getAbsolutePath());
+            if (durations[index] != null) {
+                knownWeight += weights[index];
+                knownDuration += durations[index];
+            }
+        }
+
+        final double nanosPerWeight;
+        if (knownWeight > 0) {
+            nanosPerWeight = (double) knownDuration / knownWeight;
+        }
+        else {
+            nanosPerWeight = 1;
+        }
+        final List<FileTask> result = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            final long cost;
+            if (durations[index] == null) {
+                cost = Math.round(weights[index] * nanosPerWeight);
+            }
+            else {
+                cost = durations[index];
+            }
+            result.add(new FileTask(inputFiles.get(index), files.get(index), cost));
+        }
+        return result;
+    }
+
+    private static void fireCompleted(List<ProgressListener> progressListeners,
+            List<CheckstyleFileAudit> audits) {
+        for (ProgressListener progressListener : progressListeners) {
+            progressListener.fileCompleted(audits);
+        }
+    }
+
+    private static List<CheckstyleFileAudit> await(
+            CompletableFuture<List<CheckstyleFileAudit>> result) throws CheckstyleException {
+        try {
+            return result.get();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Checkstyle",
+                    exception);
+        }
+        catch (ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof CheckstyleException checkstyleException) {
+                throw checkstyleException;
+            }
+            throw new IllegalStateException("Checkstyle worker failed", cause);
+        }
+    }
+
+    /**
+     * The workers of a single {@link #process} call and the files they
+     * share. A worker processing a file for too long is abandoned: its file
+     * is skipped, its thread interrupted and a new worker, with a new
+     * checker, takes over its remaining files. A module ignoring the
+     * interruption keeps the abandoned thread busy, it only discards its
+     * results once it is done, and its checker is destroyed then. The new
+     * worker configures its checker on its own thread, so that the watchdog
+     * keeps watching the other workers meanwhile. At most as many workers
+     * as initially started are replaced: once they are, no file is
+     * abandoned anymore and the remaining workers, down to a single one,
+     * process the remaining files without time limit.
+     */
+    private final class Shard {
+        private final List<FileTask> tasks;
+        private final CheckstyleWorkQueue<FileTask> queue;
+        private final List<ProgressListener> progressListeners;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private final ExecutorService pool =
+                Executors.newCachedThreadPool(new WorkerThreadFactory());
+        private final List<Worker> workers = new CopyOnWriteArrayList<>();
+        private final int maxReplacements;
+        /** The number of abandoned workers, only updated by the watchdog. */
+        private int replacements;
+
+        private Shard(List<FileTask> tasks, int workers,
+                List<ProgressListener> progressListeners) {
+            this.tasks = tasks;
+            this.progressListeners = progressListeners;
+            queue = new CheckstyleWorkQueue<>(tasks, FileTask::cost, workers);
+            maxReplacements = workers;
+        }
+
+        /**
+         * Starts a worker with its own checker, configured on the calling
+         * thread.
+         *
+         * @param index The index of the worker in the queue.
+         * @throws CheckstyleException if the checker can not be configured.
+         */
+        private void start(int index) throws CheckstyleException {
+            final Worker worker = createWorker(index);
+            pool.execute(() -> work(worker));
+        }
+
+        /**
+         * Replaces an abandoned worker, on the thread of the new worker.
+         *
+         * @param index The index of the abandoned worker in the queue.
+         */
+        private void replace(int index) {
+            try {
+                work(createWorker(index));
+            }
+            catch (CheckstyleException | RuntimeException exception) {
+                fail(exception);
+            }
+        }
+
+        private Worker createWorker(int index) throws CheckstyleException {
+            final List<CheckstyleFileAudit> audits = new ArrayList<>();
+            final Worker worker = new Worker(index,
+                    checkerFactory.create(new CheckstyleAuditRecorder(audits::add)), audits);
+            workers.add(worker);
+            return worker;
+        }
+
+        /**
+         * Stops the workers. The checker of a worker still processing a file
+         * is destroyed by its own thread once it is done.
+         */
+        private void stop() {
+            stopped.set(true);
+            pool.shutdownNow();
+            workers.forEach(Worker::release);
+        }
+
+        private void work(Worker worker) {
+            try {
+                FileTask task = poll(worker);
+                while (task != null) {
+                    if (cancelled.getAsBoolean()) {
+                        // neither cached nor recorded, the file was not analyzed
+                        task.result.complete(List.of());
+                    }
+                    else {
+                        audit(worker, task);
+                    }
+                    task = poll(worker);
+                }
+            }
+            catch (Exception | Error exception) {
+                // the files of an abandoned worker are taken over by another one
+                if (!worker.abandoned.get()) {
+                    fail(exception);
+                }
+            }
+            finally {
+                worker.release();
+            }
+        }
+
+        /**
+         * Takes the next file of a worker, unless the shard is stopped or the
+         * worker abandoned. A file taken is always completed, its replacement
+         * would not find it in the queue anymore.
+         *
+         * @param worker The worker.
+         * @return The task of the file, or {@code null} if the worker is done.
+         */
+        @Nullable
+        private FileTask poll(Worker worker) {
+            FileTask result = null;
+            if (!stopped.get() && !worker.abandoned.get()) {
+                result = queue.poll(worker.index);
+            }
+            return result;
+        }
+
+        /**
+         * Audits the file of a task, from the cache if found. Nothing is
+         * recorded if the worker was abandoned in the meantime.
+         *
+         * @param worker The worker auditing the file.
+         * @param task The task of the file.
+         * @throws CheckstyleException if the checker failed to process the file.
+         */
+        private void audit(Worker worker, FileTask task) throws CheckstyleException {
+            final List<CheckstyleFileAudit> cached = cache.get(task.inputFile);
+            if (cached == null) {
+                final RunningFile running =
+                        new RunningFile(task, Thread.currentThread(), System.nanoTime());
+                worker.running.set(running);
+                final boolean completed;
+                try {
+                    worker.checker.process(List.of(task.file));
+                }
+                finally {
+                    completed = worker.finish(running);
+                }
+                if (completed) {
+                    history.record(task.file.getAbsolutePath(),
+                            System.nanoTime() - running.startNanos());
+                    final List<CheckstyleFileAudit> result = List.copyOf(worker.audits);
+                    worker.audits.clear();
+                    cache.put(task.inputFile, result);
+                    task.result.complete(result);
+                    fireCompleted(progressListeners, result);
+                }
+            }
+            else {
+                cachedFiles.incrementAndGet();
+                task.result.complete(cached);
+                fireCompleted(progressListeners, cached);
+            }
+        }
+
+        /**
+         * Abandons the workers processing a file for too long.
+         */
+        private void checkTimeouts() {
+            final long now = System.nanoTime();
+            for (Worker worker : workers) {
+                // the worker does not move on to another file while it is abandoned
+                worker.lock.lock();
+                try {
+                    // a file completed meanwhile is neither abandoned nor recorded twice
+                    final RunningFile running = worker.running.getAndUpdate(current -> {
+                        RunningFile result = current;
+                        if (isTimedOut(current, now)) {
+                            result = null;
+                        }
+                        return result;
+                    });
+                    if (isTimedOut(running, now)) {
+                        abandon(worker, running);
+                    }
+                }
+                finally {
+                    worker.lock.unlock();
+                }
+            }
+        }
+
+        private boolean isTimedOut(@Nullable RunningFile running, long now) {
+            return running != null && replacements < maxReplacements
+                    && now - running.startNanos() > fileTimeoutMillis * NANOS_PER_MILLI;
+        }
+
+        /**
+         * Abandons the file of a worker and replaces the worker, while the
+         * worker is still processing the file.
+         *
+         * @param worker The worker.
+         * @param running The file processed for too long.
+         */
+        private void abandon(Worker worker, RunningFile running) {
+            worker.abandoned.set(true);
+            replacements++;
+            skippedFiles.incrementAndGet();
+            LOG.warn("Checkstyle abandoned {} after {} ms in {}, the file is skipped and"
+                    + " {} of {} workers are replaced", running.task().file.getAbsolutePath(),
+                    fileTimeoutMillis, findModule(running.thread().getStackTrace()),
+                    replacements, maxReplacements);
+            running.thread().interrupt();
+            for (ProgressListener progressListener : progressListeners) {
+                progressListener.fileSkipped(running.task().file.getAbsolutePath());
+            }
+            running.task().result.complete(List.of());
+            pool.execute(() -> replace(worker.index));
+        }
+
+        /**
+         * Fails every task not done yet, nobody else might process them.
+         *
+         * @param exception The cause of the failure.
+         */
+        private void fail(Throwable exception) {
+            for (FileTask task : tasks) {
+                task.result.completeExceptionally(exception);
+            }
+        }
+    }
+
+    /**
+     * A worker of a shard with its checker and the audits it recorded. The
+     * checker is destroyed once released by both the shard and the thread
+     * of the worker.
+     */
+    private static final class Worker {
+        private final int index;
+        private final Checker checker;
+        private final List<CheckstyleFileAudit> audits;
+        private final AtomicReference<RunningFile> running = new AtomicReference<>();
+        private final AtomicBoolean abandoned = new AtomicBoolean();
+        private final AtomicInteger users = new AtomicInteger(2);
+        private final Lock lock = new ReentrantLock();
+
+        private Worker(int index, Checker checker, List<CheckstyleFileAudit> audits) {
+            this.index = index;
+            this.checker = checker;
+            this.audits = audits;
+        }
+
+        /**
+         * Ends the processing of a file, unless the file was abandoned
+         * meanwhile. Locked against the watchdog, so that the thread is never
+         * interrupted once it moved on.
+         *
+         * @param file The file processed.
+         * @return {@code true} if the file was not abandoned.
+         */
+        private boolean finish(RunningFile file) {
+            lock.lock();
+            try {
+                return running.compareAndSet(file, null);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        private void release() {
+            if (users.decrementAndGet() == 0) {
+                checker.destroy();
+            }
+        }
+    }
+
+    /**
+     * A file being processed by a worker.
+     *
+     * @param task The task of the file.
+     * @param thread The thread of the worker.
+     * @param startNanos The time the processing started.
+     */
+    private record RunningFile(FileTask task, Thread thread, long startNanos) {
+    }
+
+    /**
+     * Listens to the files as soon as the workers are done with them, in
+     * the order they are done and not in the order of the files. It is
+     * called on the thread completing the file: a worker, or the watchdog for
+     * the files abandoned because they were processed for too long.
+     */
+    interface ProgressListener {
+        /**
+         * Notifies that a file is processed, found in the cache or got the
+         * events of an identical file. The files skipped once the analysis
+         * is cancelled are not notified.
+         *
+         * @param audits The audits of the file.
+         */
+        void fileCompleted(List<CheckstyleFileAudit> audits);
+
+        /**
+         * Notifies that a file is abandoned, its checker may still report
+         * events for it afterwards.
+         *
+         * @param fileName The absolute path of the file.
+         */
+        void fileSkipped(String fileName);
+    }
+
+    /**
+     * Creates a configured {@code Checker} reporting to the given listener.
+     */
+    @FunctionalInterface
+    interface CheckerFactory {
+        /**
+         * Creates the checker.
+         *
+         * @param listener The listener the checker reports to.
+         * @return The configured checker.
+         * @throws CheckstyleException if the checker can not be configured.
+         */
+        Checker create(AuditListener listener) throws CheckstyleException;
+    }
+
+    /**
+     * A file to process with its estimated cost and the events it produced.
+     */
+    @VisibleForTesting
+    static final class FileTask {
+        private final InputFile inputFile;
+        private final File file;
+        private final long cost;
+        private final CompletableFuture<List<CheckstyleFileAudit>> result =
+                new CompletableFuture<>();
+
+        FileTask(InputFile inputFile, File file, long cost) {
+            this.inputFile = inputFile;
+            this.file = file;
+            this.cost = cost;
+        }
+
+        File getFile() {
+            return file;
+        }
+
+        long cost() {
+            return cost;
+        }
+
+        /**
+         * Completes the task of a file with the outcome of an identical file.
+         *
+         * @param audits The audits of the identical file, if it succeeded.
+         * @param exception The failure of the identical file, or {@code null}.
+         */
+        private void completeAsCopy(List<CheckstyleFileAudit> audits,
+                @Nullable Throwable exception) {
+            if (exception == null) {
+                final String fileName = file.getAbsolutePath();
+                result.complete(audits.stream()
+                        .map(audit -> audit.copyFor(fileName))
+                        .toList());
+            }
+            else {
+                result.completeExceptionally(exception);
+            }
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable,
+                    "checkstyle-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Leaves out the source files which cost much more to check than they are
+ * worth: files too large or too long, generated files and minified files
+ * with very long lines. The size and line count come from the file system.
+ * Generated and minified files are detected from the first
+ * {@value #SNIFF_BYTES} bytes of the file only. A file is generated when its
+ * header comment says {@code DO NOT EDIT} or when a {@code Generated}
+ * annotation comes before its type declaration; the comments, the Javadoc
+ * and the annotations of the members do not count. The skipped files are
+ * summarized in the log.
+ */
+final class CheckstyleSourceFilter {
+
+    /** Number of bytes read at the start of a file to detect its kind. */
+    static final int SNIFF_BYTES = 8192;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleSourceFilter.class);
+
+    /** Marker of generated code in the header comment. */
+    private static final String DO_NOT_EDIT = "DO NOT EDIT";
+
+    /** The comments at the start of a file. */
+    private static final Pattern HEADER = Pattern.compile(
+            "(?:\\s*+(?:/\\*.*?\\*/|//[^\\n]*+))++", Pattern.DOTALL);
+
+    /** A comment, to leave out of the code. */
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/|//[^\\n]*+",
+            Pattern.DOTALL);
+
+    /** The start of the first type declaration. */
+    private static final Pattern TYPE_DECLARATION = Pattern.compile(
+            "\\b(?:class|interface|enum|record)\\s++\\p{javaJavaIdentifierStart}");
+
+    /** The annotation of generated code, whatever its package. */
+    private static final Pattern GENERATED = Pattern.compile("@(?:[\\w.]+\\.)?Generated\\b");
+
+    private final long maxFileSize;
+    private final int maxLines;
+    private final boolean skipGenerated;
+    private final int maxLineLength;
+    private final Map<Reason, Integer> skipped = new EnumMap<>(Reason.class);
+
+    /**
+     * Creates a new filter.
+     *
+     * @param maxFileSize The size from which a file is skipped, in bytes,
+     *     {@code 0} or less for no limit.
+     * @param maxLines The line count from which a file is skipped,
+     *     {@code 0} or less for no limit.
+     * @param skipGenerated Whether generated files are skipped.
+     * @param maxLineLength The line length from which a file is skipped as
+     *     minified, {@code 0} or less for no limit.
+     */
+    CheckstyleSourceFilter(long maxFileSize, int maxLines, boolean skipGenerated,
+            int maxLineLength) {
+        this.maxFileSize = maxFileSize;
+        this.maxLines = maxLines;
+        this.skipGenerated = skipGenerated;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Filters the files and logs a summary of the skipped ones.
+     *
+     * @param files The files to filter.
+     * @return The files to check.
+     */
+    List<InputFile> filter(Iterable<InputFile> files) {
+        final List<InputFile> result = new ArrayList<>();
+        for (InputFile file : files) {
+            final Reason reason = getSkipReason(file);
+            if (reason == null) {
+                result.add(file);
+            }
+            else {
+                LOG.debug("Checkstyle skips {}, {}", file, reason.label);
+                skipped.merge(reason, 1, Integer::sum);
+            }
+        }
+        if (!skipped.isEmpty()) {
+            LOG.info(getSummary());
+        }
+        return result;
+    }
+
+    /**
+     * Describes the files skipped so far.
+     *
+     * @return The summary line.
+     */
+    String getSummary() {
+        final StringJoiner summary = new StringJoiner(", ");
+        int total = 0;
+        for (Map.Entry<Reason, Integer> entry : skipped.entrySet()) {
+            summary.add(entry.getValue() + " " + entry.getKey().label);
+            total += entry.getValue();
+        }
+        return "Checkstyle skipped " + total + " source files: " + summary;
+    }
+
+    /**
+     * Finds why a file is skipped, the cheapest criteria first.
+     *
+     * @param file The file.
+     * @return The reason, or {@code null} if the file is checked.
+     */
+    @Nullable
+    Reason getSkipReason(InputFile file) {
+        Reason result = null;
+        if (maxFileSize > 0 && new File(file.uri()).length() > maxFileSize) {
+            result = Reason.TOO_LARGE;
+        }
+        else if (maxLines > 0 && file.lines() > maxLines) {
+            result = Reason.TOO_MANY_LINES;
+        }
+        else if (skipGenerated || maxLineLength > 0) {
+            result = sniff(file);
+        }
+        return result;
+    }
+
+    @Nullable
+    private Reason sniff(InputFile file) {
+        Reason result = null;
+        try (InputStream input = file.inputStream()) {
+            final String prefix = new String(input.readNBytes(SNIFF_BYTES), file.charset());
+            if (skipGenerated && isGenerated(prefix)) {
+                result = Reason.GENERATED;
+            }
+            else if (maxLineLength > 0
+                    && prefix.lines().anyMatch(line -> line.length() > maxLineLength)) {
+                result = Reason.LONG_LINE;
+            }
+        }
+        catch (IOException exception) {
+            // checked anyway, Checkstyle reports the files it fails to read
+            LOG.debug("Checkstyle could not read the start of {}", file, exception);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the start of a file is the one of a generated file.
+     *
+     * @param prefix The start of the file.
+     * @return {@code true} if the file is generated.
+     */
+    @VisibleForTesting
+    static boolean isGenerated(String prefix) {
+        final Matcher header = HEADER.matcher(prefix);
+        boolean result = header.lookingAt() && header.group().contains(DO_NOT_EDIT);
+        if (!result) {
+            final String code = COMMENT.matcher(prefix).replaceAll(" ");
+            final Matcher typeDeclaration = TYPE_DECLARATION.matcher(code);
+            int end = code.length();
+            if (typeDeclaration.find()) {
+                end = typeDeclaration.start();
+            }
+            result = GENERATED.matcher(code).region(0, end).find();
+        }
+        return result;
+    }
+
+    /**
+     * Reasons for skipping a file.
+     */
+    enum Reason {
+        TOO_LARGE("larger than the size limit"),
+        TOO_MANY_LINES("longer than the line limit"),
+        GENERATED("generated"),
+        LONG_LINE("with a line longer than the length limit");
+
+        private final String label;
+
+        Reason(String label) {
+            this.label = label;
+        }
+    }
+}
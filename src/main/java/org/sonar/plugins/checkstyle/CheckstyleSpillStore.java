@@ -0,0 +1,460 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.ActiveRule;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Store of the issues waiting to be saved, kept in a file of the working
+ * directory instead of the heap. Every issue is a fixed-width record of
+ * {@value #RECORD_SIZE} bytes in memory-mapped segments: the ids of its file
+ * and rule, its line, its message and the index of the next issue of the
+ * same file. Files, rules and the first messages are interned; once the
+ * intern table is full, the new messages are spilled to a second file, so
+ * the heap does not grow with the number of issues. Only the most recently
+ * used segments stay mapped, the others are unmapped and mapped again when
+ * needed.
+ */
+final class CheckstyleSpillStore implements Closeable {
+
+    /** Index of no record, ending the records of a file. */
+    static final long NO_RECORD = -1;
+
+    /** Size of a record in bytes, padded to a multiple of 8. */
+    static final int RECORD_SIZE = 32;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleSpillStore.class);
+
+    private static final int SEGMENT_RECORDS = 1 << 16;
+    private static final int MAX_MAPPED_SEGMENTS = 16;
+    private static final int MAX_INTERNED_VALUES = 1 << 16;
+    private static final int RULE_OFFSET = Integer.BYTES;
+    private static final int LINE_OFFSET = 2 * Integer.BYTES;
+    private static final int MESSAGE_OFFSET = 2 * Long.BYTES;
+    private static final int NEXT_OFFSET = 3 * Long.BYTES;
+    private static final int NO_VALUE = -1;
+
+    private final File file;
+    private final File messagesFile;
+    private final FileChannel channel;
+    private final int segmentRecords;
+    private final int maxInternedValues;
+    private final Map<Integer, MappedByteBuffer> segments;
+    private final Map<Object, Integer> ids = new HashMap<>();
+    private final List<Object> values = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel messages;
+    private long messagesSize;
+    private long size;
+
+    private CheckstyleSpillStore(File file, FileChannel channel, int segmentRecords,
+            int maxMappedSegments, int maxInternedValues) {
+        this.file = file;
+        this.channel = channel;
+        this.segmentRecords = segmentRecords;
+        this.maxInternedValues = maxInternedValues;
+        messagesFile = new File(file.getPath() + ".messages");
+        segments = new SegmentCache(maxMappedSegments);
+    }
+
+    /**
+     * Creates an empty store in a new file of the given directory.
+     *
+     * @param directory The directory of the store.
+     * @return The store.
+     * @throws IOException if the file cannot be created.
+     */
+    static CheckstyleSpillStore create(File directory) throws IOException {
+        return create(directory, SEGMENT_RECORDS, MAX_MAPPED_SEGMENTS, MAX_INTERNED_VALUES);
+    }
+
+    /**
+     * Creates an empty store in a new file of the given directory.
+     *
+     * @param directory The directory of the store.
+     * @param segmentRecords The number of records of a segment.
+     * @param maxMappedSegments The maximum number of segments mapped at once,
+     *     at least {@code 2}.
+     * @param maxInternedValues The number of values from which the new
+     *     messages are spilled instead of interned.
+     * @return The store.
+     * @throws IOException if the file cannot be created.
+     */
+    @VisibleForTesting
+    static CheckstyleSpillStore create(File directory, int segmentRecords,
+            int maxMappedSegments, int maxInternedValues) throws IOException {
+        final File file = File.createTempFile("checkstyle-issues-", ".bin", directory);
+        return new CheckstyleSpillStore(file, FileChannel.open(file.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE), segmentRecords,
+                maxMappedSegments, maxInternedValues);
+    }
+
+    /**
+     * Appends an issue after the previous issue of its file.
+     *
+     * @param previousRecord The last record of the file, or {@link #NO_RECORD}
+     *     for its first issue.
+     * @param inputFile The file of the issue.
+     * @param rule The rule of the issue.
+     * @param line The line of the issue.
+     * @param message The message of the issue.
+     * @return The record of the issue.
+     * @throws IllegalStateException if the store cannot be written.
+     */
+    long append(long previousRecord, @Nullable InputFile inputFile, ActiveRule rule, int line,
+            @Nullable String message) {
+        lock.lock();
+        try {
+            final long record = size;
+            final MappedByteBuffer segment = getSegment(record);
+            final int position = getPosition(record);
+            segment.putInt(position, intern(inputFile));
+            segment.putInt(position + RULE_OFFSET, intern(rule));
+            segment.putInt(position + LINE_OFFSET, line);
+            segment.putLong(position + MESSAGE_OFFSET, storeMessage(message));
+            segment.putLong(position + NEXT_OFFSET, NO_RECORD);
+            if (previousRecord != NO_RECORD) {
+                getSegment(previousRecord).putLong(getPosition(previousRecord) + NEXT_OFFSET,
+                        record);
+            }
+            size++;
+            return record;
+        }
+        catch (IOException exception) {
+            throw new IllegalStateException("Fail to write " + file, exception);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Streams the issues of a file, in the order they were appended.
+     *
+     * @param firstRecord The first record of the file.
+     * @param consumer The consumer of the issues.
+     * @throws IllegalStateException if the store cannot be read.
+     */
+    void forEach(long firstRecord, IssueConsumer consumer) {
+        long record = firstRecord;
+        while (record != NO_RECORD) {
+            final InputFile inputFile;
+            final ActiveRule rule;
+            final int line;
+            final String message;
+            lock.lock();
+            try {
+                final MappedByteBuffer segment = getSegment(record);
+                final int position = getPosition(record);
+                inputFile = (InputFile) getValue(segment.getInt(position));
+                rule = (ActiveRule) getValue(segment.getInt(position + RULE_OFFSET));
+                line = segment.getInt(position + LINE_OFFSET);
+                message = loadMessage(segment.getLong(position + MESSAGE_OFFSET));
+                record = segment.getLong(position + NEXT_OFFSET);
+            }
+            catch (IOException exception) {
+                throw new IllegalStateException("Fail to read " + file, exception);
+            }
+            finally {
+                lock.unlock();
+            }
+            consumer.accept(inputFile, rule, line, message);
+        }
+    }
+
+    /**
+     * Obtains the number of records of the store.
+     *
+     * @return The number of records.
+     */
+    long size() {
+        lock.lock();
+        try {
+            return size;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtains the number of files, rules and messages held on the heap.
+     *
+     * @return The number of interned values.
+     */
+    @VisibleForTesting
+    int getInternedValues() {
+        lock.lock();
+        try {
+            return values.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtains the number of segments currently mapped.
+     *
+     * @return The number of mapped segments.
+     */
+    @VisibleForTesting
+    int getMappedSegments() {
+        lock.lock();
+        try {
+            return segments.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unmaps the segments and deletes the files of the store.
+     *
+     * @throws IOException if the files cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            segments.values().forEach(CheckstyleSpillStore::unmap);
+            segments.clear();
+            ids.clear();
+            values.clear();
+            channel.close();
+            if (messages != null) {
+                messages.close();
+            }
+            delete(file);
+            delete(messagesFile);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unmaps a segment right away instead of waiting for the garbage
+     * collector, through the cleaner of {@code sun.misc.Unsafe}. The segment
+     * must not be used anymore. The segment is left to the garbage collector
+     * when the cleaner is not available.
+     *
+     * @param segment The segment.
+     */
+    @VisibleForTesting
+    static void unmap(ByteBuffer segment) {
+        unmap(segment, "sun.misc.Unsafe");
+    }
+
+    /**
+     * Unmaps a segment through the cleaner of the given unsafe class.
+     *
+     * @param segment The segment.
+     * @param unsafeClassName The name of the unsafe class.
+     */
+    @VisibleForTesting
+    static void unmap(ByteBuffer segment, String unsafeClassName) {
+        try {
+            final Class<?> unsafeClass = Class.forName(unsafeClassName);
+            final Object unsafe = MethodHandles.privateLookupIn(unsafeClass,
+                    MethodHandles.lookup())
+                    .findStaticVarHandle(unsafeClass, "theUnsafe", unsafeClass).get();
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(unsafe, segment);
+        }
+        catch (ReflectiveOperationException exception) {
+            LOG.debug("Fail to unmap a segment, left to the garbage collector", exception);
+        }
+    }
+
+    private static void delete(File storeFile) {
+        try {
+            Files.deleteIfExists(storeFile.toPath());
+        }
+        catch (IOException exception) {
+            LOG.debug("Fail to delete {}", storeFile, exception);
+            storeFile.deleteOnExit();
+        }
+    }
+
+    private MappedByteBuffer getSegment(long record) throws IOException {
+        final int index = (int) (record / segmentRecords);
+        MappedByteBuffer result = segments.get(index);
+        if (result == null) {
+            final long segmentSize = (long) segmentRecords * RECORD_SIZE;
+            result = channel.map(FileChannel.MapMode.READ_WRITE, index * segmentSize,
+                    segmentSize);
+            segments.put(index, result);
+        }
+        return result;
+    }
+
+    private int getPosition(long record) {
+        return (int) (record % segmentRecords) * RECORD_SIZE;
+    }
+
+    private int intern(@Nullable Object value) {
+        int result = NO_VALUE;
+        if (value != null) {
+            final Integer id = ids.get(value);
+            if (id == null) {
+                result = values.size();
+                values.add(value);
+                ids.put(value, result);
+            }
+            else {
+                result = id;
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private Object getValue(int id) {
+        Object result = null;
+        if (id != NO_VALUE) {
+            result = values.get(id);
+        }
+        return result;
+    }
+
+    /**
+     * Stores a message, interned while the intern table is not full and
+     * spilled to the messages file otherwise.
+     *
+     * @param message The message.
+     * @return The id of the interned message, {@link #NO_VALUE} for no
+     *     message, or the position of the spilled message encoded below
+     *     {@link #NO_VALUE}.
+     * @throws IOException if the message cannot be spilled.
+     */
+    private long storeMessage(@Nullable String message) throws IOException {
+        final long result;
+        if (message == null || values.size() < maxInternedValues || ids.containsKey(message)) {
+            result = intern(message);
+        }
+        else {
+            if (messages == null) {
+                messages = FileChannel.open(messagesFile.toPath(), StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            final byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length);
+            buffer.putInt(bytes.length).put(bytes).flip();
+            while (buffer.hasRemaining()) {
+                messages.write(buffer, messagesSize + buffer.position());
+            }
+            result = NO_VALUE - 1 - messagesSize;
+            messagesSize += buffer.limit();
+        }
+        return result;
+    }
+
+    @Nullable
+    private String loadMessage(long value) throws IOException {
+        final String result;
+        if (value >= NO_VALUE) {
+            result = (String) getValue((int) value);
+        }
+        else {
+            final long position = NO_VALUE - 1 - value;
+            final ByteBuffer length = read(position, Integer.BYTES);
+            result = new String(read(position + Integer.BYTES, length.getInt()).array(),
+                    StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        final ByteBuffer result = ByteBuffer.allocate(length);
+        while (result.hasRemaining()) {
+            if (messages.read(result, position + result.position()) < 0) {
+                throw new EOFException("Truncated " + messagesFile);
+            }
+        }
+        return result.flip();
+    }
+
+    /**
+     * Consumer of the issues of a store.
+     */
+    @FunctionalInterface
+    interface IssueConsumer {
+        /**
+         * Accepts an issue.
+         *
+         * @param inputFile The file of the issue.
+         * @param rule The rule of the issue.
+         * @param line The line of the issue.
+         * @param message The message of the issue.
+         */
+        void accept(@Nullable InputFile inputFile, ActiveRule rule, int line,
+                @Nullable String message);
+    }
+
+    /**
+     * Least recently used segments, the oldest is unmapped beyond the
+     * maximum number of mapped segments.
+     */
+    private static final class SegmentCache extends LinkedHashMap<Integer, MappedByteBuffer> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        SegmentCache(int maxSize) {
+            super(maxSize, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, MappedByteBuffer> eldest) {
+            final boolean result = size() > maxSize;
+            if (result) {
+                unmap(eldest.getValue());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import java.util.concurrent.TimeUnit;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Statistics of a Checkstyle analysis, published as the
+ * {@link CheckstyleMetrics}. The files and violations are counted from the
+ * events of the audit, which are received on a single thread, cached and
+ * duplicate files included.
+ */
+public final class CheckstyleStatistics implements AuditListener {
+
+    private int files;
+    private int cachedFiles;
+    private int skippedFiles;
+    private int duplicateFiles;
+    private int violations;
+    private long durationNanos;
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        // only the files and violations are counted
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        // only the files and violations are counted
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        files++;
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        // the files are counted when started
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        violations++;
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        // exceptions are not violations
+    }
+
+    /**
+     * Sets the number of files whose results came from the cache.
+     *
+     * @param cachedFiles The number of cached files.
+     */
+    void setCachedFiles(int cachedFiles) {
+        this.cachedFiles = cachedFiles;
+    }
+
+    /**
+     * Sets the number of files skipped because they were processed for too
+     * long.
+     *
+     * @param skippedFiles The number of skipped files.
+     */
+    void setSkippedFiles(int skippedFiles) {
+        this.skippedFiles = skippedFiles;
+    }
+
+    /**
+     * Sets the number of files which got the events of an identical file
+     * instead of being processed.
+     *
+     * @param duplicateFiles The number of duplicate files.
+     */
+    void setDuplicateFiles(int duplicateFiles) {
+        this.duplicateFiles = duplicateFiles;
+    }
+
+    /**
+     * Sets the duration of the analysis.
+     *
+     * @param durationNanos The duration, in nanoseconds.
+     */
+    void setDuration(long durationNanos) {
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Gets the duration of the analysis.
+     *
+     * @return The duration, in milliseconds.
+     */
+    public long getDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    /**
+     * Gets the number of files processed by Checkstyle.
+     *
+     * @return The number of files, cached and duplicate files excluded.
+     */
+    public int getAnalyzedFiles() {
+        return files - cachedFiles - duplicateFiles;
+    }
+
+    /**
+     * Gets the number of files whose results came from the cache.
+     *
+     * @return The number of cached files.
+     */
+    public int getCachedFiles() {
+        return cachedFiles;
+    }
+
+    /**
+     * Gets the number of files skipped because they were processed for too
+     * long.
+     *
+     * @return The number of skipped files.
+     */
+    public int getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    /**
+     * Gets the number of files which got the events of an identical file
+     * instead of being processed.
+     *
+     * @return The number of duplicate files.
+     */
+    public int getDuplicateFiles() {
+        return duplicateFiles;
+    }
+
+    /**
+     * Gets the number of violations found by the analysis.
+     *
+     * @return The number of violations, cached ones included.
+     */
+    public int getViolations() {
+        return violations;
+    }
+
+    /**
+     * Gets the number of violations found per second of analysis.
+     *
+     * @return The number of violations per second, or 0 if the analysis
+     *     took no time.
+     */
+    public double getViolationsPerSecond() {
+        double result = 0;
+        if (durationNanos > 0) {
+            result = violations * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,185 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Cache of the audits kept in a single file of the working directory.
+ * Every entry is keyed by the content hash of its source file, the whole
+ * cache by the hash of the Checkstyle configuration and the versions of
+ * Checkstyle and of the plugin. Any change of these discards the cache.
+ * The entries of the files not looked up during the analysis, such as
+ * deleted or renamed files, are dropped when the cache is saved.
+ */
+final class CheckstyleWorkDirCache implements CheckstyleResultCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckstyleWorkDirCache.class);
+
+    private static final int FILE_FORMAT_VERSION = 1;
+
+    private final File file;
+    private final String key;
+    private final ClassLoader classLoader;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, String> contentHashes = new ConcurrentHashMap<>();
+    private final Set<String> usedPaths = ConcurrentHashMap.newKeySet();
+
+    private CheckstyleWorkDirCache(File file, String key, ClassLoader classLoader) {
+        this.file = file;
+        this.key = key;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Loads the cache from the file. The content of the file is ignored if it
+     * was written for another key, or if it can not be read.
+     *
+     * @param file The file to load the cache from and to save it to.
+     * @param configurationHash The hash of the Checkstyle configuration.
+     * @param classLoader The class loader of the Checkstyle modules.
+     * @return The cache.
+     */
+    static CheckstyleWorkDirCache load(File file, String configurationHash,
+            ClassLoader classLoader) {
+        final CheckstyleWorkDirCache cache = new CheckstyleWorkDirCache(file,
+                CheckstyleResultCache.getCacheKey(configurationHash), classLoader);
+        if (file.isFile()) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(file.toPath())))) {
+                if (input.readInt() == FILE_FORMAT_VERSION && cache.key.equals(input.readUTF())) {
+                    final int count = input.readInt();
+                    for (int index = 0; index < count; index++) {
+                        final String path = input.readUTF();
+                        final String contentHash = input.readUTF();
+                        final byte[] audits = new byte[input.readInt()];
+                        input.readFully(audits);
+                        cache.entries.put(path, new Entry(contentHash, audits));
+                    }
+                }
+                else {
+                    LOG.info("Checkstyle cache is outdated, all files are analyzed");
+                }
+            }
+            catch (IOException exception) {
+                LOG.warn("Ignoring unreadable Checkstyle cache {}", file.getAbsolutePath(),
+                        exception);
+                cache.entries.clear();
+            }
+        }
+        return cache;
+    }
+
+    @Override
+    @Nullable
+    public List<CheckstyleFileAudit> get(InputFile inputFile) {
+        final File sourceFile = new File(inputFile.uri());
+        final String path = sourceFile.getAbsolutePath();
+        usedPaths.add(path);
+        final Entry entry = entries.get(path);
+        List<CheckstyleFileAudit> result = null;
+        if (entry != null && entry.contentHash.equals(getContentHash(sourceFile))) {
+            try {
+                result = CheckstyleAuditSerializer.deserialize(entry.audits, path, this,
+                        classLoader);
+            }
+            catch (IOException | ClassNotFoundException exception) {
+                LOG.debug("Ignoring Checkstyle cache entry of {}", path, exception);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void put(InputFile inputFile, List<CheckstyleFileAudit> audits) {
+        final File sourceFile = new File(inputFile.uri());
+        final String contentHash = getContentHash(sourceFile);
+        final boolean cacheable = contentHash != null
+                && audits.stream().noneMatch(CheckstyleFileAudit::hasExceptions);
+        usedPaths.add(sourceFile.getAbsolutePath());
+        if (cacheable) {
+            entries.put(sourceFile.getAbsolutePath(),
+                    new Entry(contentHash, CheckstyleAuditSerializer.serialize(audits)));
+        }
+    }
+
+    @Override
+    public void save() {
+        entries.keySet().retainAll(usedPaths);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file.toPath())))) {
+            output.writeInt(FILE_FORMAT_VERSION);
+            output.writeUTF(key);
+            output.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeUTF(entry.getValue().contentHash);
+                output.writeInt(entry.getValue().audits.length);
+                output.write(entry.getValue().audits);
+            }
+        }
+        catch (IOException exception) {
+            LOG.warn("Fail to save the Checkstyle cache to {}", file.getAbsolutePath(),
+                    exception);
+        }
+    }
+
+    @Nullable
+    private String getContentHash(File sourceFile) {
+        final String path = sourceFile.getAbsolutePath();
+        String result = contentHashes.get(path);
+        if (result == null) {
+            try {
+                result = CheckstyleDigestUtils.sha256Hex(sourceFile);
+                contentHashes.put(path, result);
+            }
+            catch (IOException exception) {
+                LOG.debug("Fail to hash {}", path, exception);
+            }
+        }
+        return result;
+    }
+
+    private static final class Entry {
+        private final String contentHash;
+        private final byte[] audits;
+
+        private Entry(String contentHash, byte[] audits) {
+            this.contentHash = contentHash;
+            this.audits = audits;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import javax.annotation.Nullable;
+
+/**
+ * Work-stealing queue distributing tasks of known cost between workers.
+ * The tasks are dealt out longest-first to the least loaded worker, so every
+ * worker starts with its most expensive task. A worker takes its own tasks
+ * from the head of its deque; once it runs out, it steals the cheapest task
+ * from the tail of the most loaded worker, so nobody stays idle while work is
+ * left.
+ *
+ * @param <T> The type of the tasks.
+ */
+final class CheckstyleWorkQueue<T> {
+
+    private final List<Deque<Task<T>>> deques;
+    private final List<AtomicLong> loads;
+
+    /**
+     * Creates a new queue.
+     *
+     * @param tasks The tasks to distribute.
+     * @param cost The estimated cost of a task.
+     * @param workers The number of workers.
+     */
+    CheckstyleWorkQueue(List<T> tasks, ToLongFunction<T> cost, int workers) {
+        deques = new ArrayList<>(workers);
+        loads = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            deques.add(new ConcurrentLinkedDeque<>());
+            loads.add(new AtomicLong());
+        }
+
+        final List<Task<T>> sorted = new ArrayList<>(tasks.size());
+        for (T task : tasks) {
+            sorted.add(new Task<>(task, cost.applyAsLong(task)));
+        }
+        sorted.sort(Comparator.comparingLong(Task<T>::cost).reversed());
+
+        final PriorityQueue<Integer> leastLoaded = new PriorityQueue<>(workers,
+                Comparator.comparingLong((Integer worker) -> loads.get(worker).get())
+                        .thenComparing(Comparator.naturalOrder()));
+        for (int worker = 0; worker < workers; worker++) {
+            leastLoaded.add(worker);
+        }
+        for (Task<T> task : sorted) {
+            final int worker = leastLoaded.remove();
+            deques.get(worker).addLast(task);
+            loads.get(worker).addAndGet(task.cost());
+            leastLoaded.add(worker);
+        }
+    }
+
+    /**
+     * Retrieves the next task of the worker, stealing one from another worker
+     * if needed.
+     *
+     * @param worker The index of the worker.
+     * @return The task, or {@code null} once all tasks were handed out.
+     */
+    @Nullable
+    T poll(int worker) {
+        Task<T> task = deques.get(worker).pollFirst();
+        if (task == null) {
+            task = steal();
+        }
+        else {
+            loads.get(worker).addAndGet(-task.cost());
+        }
+        final T result;
+        if (task == null) {
+            result = null;
+        }
+        else {
+            result = task.item();
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the estimated cost of the tasks still assigned to the worker.
+     *
+     * @param worker The index of the worker.
+     * @return The remaining cost.
+     */
+    long getLoad(int worker) {
+        return loads.get(worker).get();
+    }
+
+    @Nullable
+    private Task<T> steal() {
+        Task<T> result = null;
+        boolean found = true;
+        while (result == null && found) {
+            found = false;
+            int victim = -1;
+            for (int worker = 0; worker < deques.size(); worker++) {
+                if (!deques.get(worker).isEmpty()
+                        && (victim < 0 || getLoad(worker) > getLoad(victim))) {
+                    victim = worker;
+                }
+            }
+            if (victim >= 0) {
+                found = true;
+                result = deques.get(victim).pollLast();
+                if (result != null) {
+                    loads.get(victim).addAndGet(-result.cost());
+                }
+            }
+        }
+        return result;
+    }
+
+    private record Task<T>(T item, long cost) {
+    }
+}
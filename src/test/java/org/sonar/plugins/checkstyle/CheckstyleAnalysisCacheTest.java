@@ -0,0 +1,206 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.api.batch.sensor.cache.WriteCache;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleAnalysisCacheTest {
+
+    @TempDir
+    File workDir;
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+
+    @Test
+    void writeAndReplay() throws IOException {
+        final InputFile inputFile = inputFile("class Foo {}");
+        final MapCache first = new MapCache(new HashMap<>());
+        final CheckstyleAnalysisCache cache =
+                new CheckstyleAnalysisCache(first, first, "conf", classLoader);
+        assertThat(cache.get(inputFile)).isNull();
+        cache.put(inputFile, List.of(audit(inputFile)));
+        cache.save();
+        assertThat(first.written).hasSize(1);
+
+        final MapCache second = new MapCache(first.written);
+        final CheckstyleAnalysisCache next =
+                new CheckstyleAnalysisCache(second, second, "conf", classLoader);
+        final List<CheckstyleFileAudit> audits = next.get(inputFile);
+        assertThat(audits).hasSize(1);
+        assertThat(audits.get(0).getErrors().get(0).getMessage()).isEqualTo("msg");
+        assertThat(audits.get(0).getErrors().get(0).getSource()).isSameAs(next);
+        assertThat(second.copied).containsExactlyElementsOf(first.written.keySet());
+    }
+
+    @Test
+    void changedContentOrConfiguration() throws IOException {
+        final InputFile inputFile = inputFile("class Foo {}");
+        final MapCache first = new MapCache(new HashMap<>());
+        new CheckstyleAnalysisCache(first, first, "conf", classLoader)
+                .put(inputFile, List.of(audit(inputFile)));
+
+        final MapCache second = new MapCache(first.written);
+        assertThat(new CheckstyleAnalysisCache(second, second, "other", classLoader)
+                .get(inputFile)).isNull();
+
+        FileUtils.write(new File(inputFile.uri()), "class Foo { }", StandardCharsets.UTF_8);
+        assertThat(new CheckstyleAnalysisCache(second, second, "conf", classLoader)
+                .get(inputFile)).isNull();
+        assertThat(second.copied).isEmpty();
+    }
+
+    @Test
+    void corruptedEntry() throws IOException {
+        final InputFile inputFile = inputFile("class Foo {}");
+        final MapCache first = new MapCache(new HashMap<>());
+        new CheckstyleAnalysisCache(first, first, "conf", classLoader)
+                .put(inputFile, List.of(audit(inputFile)));
+        first.written.replaceAll((key, value) -> new byte[] {0, 0, 0, 1});
+
+        final MapCache second = new MapCache(first.written);
+        assertThat(new CheckstyleAnalysisCache(second, second, "conf", classLoader)
+                .get(inputFile)).isNull();
+        assertThat(second.copied).isEmpty();
+    }
+
+    @Test
+    void unreadableEntry() throws IOException {
+        final InputFile inputFile = inputFile("class Foo {}");
+        final MapCache first = new MapCache(new HashMap<>());
+        new CheckstyleAnalysisCache(first, first, "conf", classLoader)
+                .put(inputFile, List.of(audit(inputFile)));
+
+        final MapCache second = new MapCache(first.written) {
+            @Override
+            public InputStream read(String key) {
+                return new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("failure");
+                    }
+                };
+            }
+        };
+        assertThat(new CheckstyleAnalysisCache(second, second, "conf", classLoader)
+                .get(inputFile)).isNull();
+    }
+
+    @Test
+    void exceptionsAndMissingFilesAreNotCached() throws IOException {
+        final InputFile inputFile = inputFile("class Foo {}");
+        final CheckstyleFileAudit audit = audit(inputFile);
+        audit.addException(new AuditEvent(this), new IllegalStateException("failure"));
+        final InputFile missingFile = new TestInputFileBuilder("", workDir,
+                new File(workDir, "Missing.java")).build();
+        final MapCache cache = new MapCache(new HashMap<>());
+        final CheckstyleAnalysisCache analysisCache =
+                new CheckstyleAnalysisCache(cache, cache, "conf", classLoader);
+
+        analysisCache.put(inputFile, List.of(audit));
+        analysisCache.put(missingFile, List.of());
+
+        assertThat(cache.written).isEmpty();
+        assertThat(analysisCache.get(missingFile)).isNull();
+    }
+
+    private InputFile inputFile(String content) throws IOException {
+        final File file = new File(workDir, "Foo.java");
+        FileUtils.write(file, content, StandardCharsets.UTF_8);
+        return new TestInputFileBuilder("", workDir, file).build();
+    }
+
+    private CheckstyleFileAudit audit(InputFile inputFile) {
+        final String fileName = new File(inputFile.uri()).getAbsolutePath();
+        final CheckstyleFileAudit audit = new CheckstyleFileAudit(fileName, true);
+        audit.addError(new AuditEvent(this, fileName, new Violation(1, "", "", null, "",
+                CheckstyleAnalysisCacheTest.class, "msg")));
+        return audit;
+    }
+
+    /**
+     * In-memory analysis cache, reading from the entries of a previous
+     * analysis and writing to new ones.
+     */
+    static class MapCache implements ReadCache, WriteCache {
+        private final Map<String, byte[]> previous;
+        private final Map<String, byte[]> written = new HashMap<>();
+        private final List<String> copied = new ArrayList<>();
+
+        MapCache(Map<String, byte[]> previous) {
+            this.previous = previous;
+        }
+
+        Map<String, byte[]> getWritten() {
+            return written;
+        }
+
+        @Override
+        public InputStream read(String key) {
+            return new ByteArrayInputStream(previous.get(key));
+        }
+
+        @Override
+        public boolean contains(String key) {
+            return previous.containsKey(key);
+        }
+
+        @Override
+        public void write(String key, InputStream data) {
+            try {
+                written.put(key, data.readAllBytes());
+            }
+            catch (IOException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+
+        @Override
+        public void write(String key, byte[] data) {
+            written.put(key, data);
+        }
+
+        @Override
+        public void copyFromPrevious(String key) {
+            copied.add(key);
+            written.put(key, previous.get(key));
+        }
+    }
+}
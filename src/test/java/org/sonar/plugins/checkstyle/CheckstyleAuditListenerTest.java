@@ -20,6 +20,7 @@
 package org.sonar.plugins.checkstyle;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -29,9 +30,18 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.sonar.api.batch.fs.FilePredicate;
 import org.sonar.api.batch.fs.FilePredicates;
@@ -177,6 +187,296 @@ class CheckstyleAuditListenerTest {
         Mockito.verifyNoInteractions(rule);
     }
 
+    @Test
+    void addErrorOnIndexedFile() {
+        setupRule("repo", "key");
+        final InputFile indexedFile = mock(InputFile.class);
+        when(indexedFile.uri()).thenReturn(file.getAbsoluteFile().toURI());
+        final NewIssue newIssue = mock(NewIssue.class);
+        final NewIssueLocation newLocation = mock(NewIssueLocation.class);
+        when(context.newIssue()).thenReturn(newIssue);
+        when(newIssue.newLocation()).thenReturn(newLocation);
+        when(newIssue.forRule(any())).thenReturn(newIssue);
+        when(newIssue.at(newLocation)).thenReturn(newIssue);
+        when(newLocation.on(any(InputComponent.class))).thenReturn(newLocation);
+        when(newLocation.at(any())).thenReturn(newLocation);
+        when(newLocation.message(anyString())).thenReturn(newLocation);
+
+        final CheckstyleAuditListener listener = new CheckstyleAuditListener(
+                ruleFinder,
+                fileSystem);
+        listener.setContext(context);
+        listener.setInputFiles(List.of(indexedFile));
+        listener.addError(event);
+
+        verify(newLocation).on(indexedFile);
+        verify(fileSystem, times(0)).inputFile(any(FilePredicate.class));
+    }
+
+    @Test
+    void addErrorRoutedDuringAudit() {
+        final ActiveRule rule = mock(ActiveRule.class);
+        when(rule.ruleKey()).thenReturn(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                CheckstyleAuditListenerTest.class.getName()));
+        final ActiveRule templateRule = mock(ActiveRule.class);
+        when(templateRule.ruleKey()).thenReturn(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                "module"));
+        when(ruleFinder.findByRepository(CheckstyleConstants.REPOSITORY_KEY))
+                .thenReturn(List.of(rule, templateRule));
+        final NewIssue newIssue = mock(NewIssue.class);
+        final NewIssueLocation newLocation = mock(NewIssueLocation.class);
+        when(context.newIssue()).thenReturn(newIssue);
+        when(newIssue.newLocation()).thenReturn(newLocation);
+        when(newIssue.forRule(any())).thenReturn(newIssue);
+        when(newIssue.at(newLocation)).thenReturn(newIssue);
+        when(newLocation.on(any(InputComponent.class))).thenReturn(newLocation);
+        when(newLocation.at(any())).thenReturn(newLocation);
+        when(newLocation.message(anyString())).thenReturn(newLocation);
+
+        final CheckstyleAuditListener listener = new CheckstyleAuditListener(
+                ruleFinder,
+                fileSystem);
+        listener.setContext(context);
+        listener.auditStarted(new AuditEvent(this));
+        listener.addError(event);
+        listener.addError(new AuditEvent(this, file.getAbsolutePath(), new Violation(1, "",
+                "", null, "module", CheckstyleAuditListenerTest.class, "msg")));
+        listener.addError(new AuditEvent(this, file.getAbsolutePath(), new Violation(1, "",
+                "", null, "unknown", CheckstyleAuditListenerTest.class, "msg")));
+        listener.fileFinished(new AuditEvent(this, file.getAbsolutePath()));
+        listener.auditFinished(new AuditEvent(this));
+
+        verify(newIssue).forRule(rule.ruleKey());
+        verify(newIssue).forRule(templateRule.ruleKey());
+        verify(newIssue, times(2)).save();
+        verify(ruleFinder, times(0)).find(any());
+    }
+
+    @Test
+    void saveIssuesInBackground() {
+        final ActiveRule rule = setupRoutedRule();
+        final NewIssue newIssue = setupNewIssue();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> threads.add(Thread.currentThread().getName()))
+                .when(newIssue).save();
+
+        final CheckstyleAuditListener listener = new CheckstyleAuditListener(
+                ruleFinder,
+                fileSystem);
+        listener.setContext(context);
+        listener.auditStarted(new AuditEvent(this));
+        listener.addError(event);
+        listener.addError(event);
+        verify(context, times(0)).newIssue();
+        listener.fileFinished(new AuditEvent(this, file.getAbsolutePath()));
+        listener.auditFinished(new AuditEvent(this));
+
+        verify(newIssue, times(2)).forRule(rule.ruleKey());
+        assertThat(threads).containsExactly("checkstyle-issue-sink", "checkstyle-issue-sink");
+    }
+
+    @Test
+    void saveSpilledIssues(@TempDir File directory) {
+        final ActiveRule rule = setupRoutedRule();
+        final NewIssue newIssue = setupNewIssue();
+
+        final CheckstyleAuditListener listener = new CheckstyleAuditListener(
+                ruleFinder,
+                fileSystem);
+        listener.setContext(context);
+        listener.setSpillDirectory(directory);
+        listener.auditStarted(new AuditEvent(this));
+        addErrorsToFile(listener, event, 3);
+        assertThat(directory.list()).hasSize(1);
+        listener.auditFinished(new AuditEvent(this));
+
+        verify(newIssue, times(3)).forRule(rule.ruleKey());
+        assertThat(directory.list()).isEmpty();
+    }
+
+    @Test
+    void spillDirectoryFailure(@TempDir File directory) {
+        setupRoutedRule();
+        final CheckstyleAuditListener listener = new CheckstyleAuditListener(
+                ruleFinder,
+                fileSystem);
+        listener.setContext(context);
+        listener.setSpillDirectory(new File(directory, "missing"));
+
+        assertThatThrownBy(() -> listener.auditStarted(new AuditEvent(this)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Fail to create the Checkstyle issue store");
+    }
+
+    @Test
+    void saveIssuesOfSeveralThreads() throws Exception {
+        setupRoutedRule();
+        final NewIssue newIssue = setupNewIssue();
+        final CheckstyleAuditListener listener = new CheckstyleAuditListener(
+                ruleFinder,
+                fileSystem);
+        listener.setContext(context);
+
+        final int threads = 4;
+        final CountDownLatch started = new CountDownLatch(threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    listener.auditStarted(new AuditEvent(this));
+                    started.countDown();
+                    started.await();
+                    for (int index = 0; index < 100; index++) {
+                        listener.addError(event);
+                        listener.fileFinished(new AuditEvent(this, file.getAbsolutePath()));
+                    }
+                    listener.auditFinished(new AuditEvent(this));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        verify(newIssue, times(threads * 100)).save();
+        verify(ruleFinder, times(1)).findByRepository(CheckstyleConstants.REPOSITORY_KEY);
+    }
+
+    @Test
+    void saveIssuesFailure() {
+        setupRoutedRule();
+        final NewIssue newIssue = setupNewIssue();
+        final IllegalArgumentException failure = new IllegalArgumentException("line");
+        when(inputFile.selectLine(anyInt())).thenThrow(failure);
+
+        final CheckstyleAuditListener listener = new CheckstyleAuditListener(
+                ruleFinder,
+                fileSystem);
+        listener.setContext(context);
+        listener.auditStarted(new AuditEvent(this));
+        listener.addError(event);
+
+        assertThatThrownBy(() -> listener.auditFinished(new AuditEvent(this)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCause(failure);
+        verify(newIssue, times(0)).save();
+
+        // the next audits work again
+        Mockito.reset(inputFile);
+        listener.auditStarted(new AuditEvent(this));
+        listener.addError(event);
+        listener.fileFinished(new AuditEvent(this, file.getAbsolutePath()));
+        listener.auditFinished(new AuditEvent(this));
+        listener.auditFinished(new AuditEvent(this));
+        verify(newIssue, times(1)).save();
+    }
+
+    @Test
+    void issueLimits() {
+        final ActiveRule rule = setupRoutedRule();
+        final ActiveRule moduleRule = mock(ActiveRule.class);
+        when(moduleRule.ruleKey()).thenReturn(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                "module"));
+        when(ruleFinder.findByRepository(CheckstyleConstants.REPOSITORY_KEY))
+                .thenReturn(List.of(rule, moduleRule));
+        final NewIssue newIssue = setupNewIssue();
+        final AuditEvent moduleEvent = new AuditEvent(this, file.getAbsolutePath(),
+                new Violation(1, "", "", null, "module", CheckstyleAuditListenerTest.class,
+                        "msg"));
+
+        final CheckstyleAuditListener listener = new CheckstyleAuditListener(
+                ruleFinder,
+                fileSystem);
+        listener.setContext(context);
+        listener.setIssueLimits(3, 2, 4);
+        listener.auditStarted(new AuditEvent(this));
+        // limited by file
+        addErrorsToFile(listener, event, 3);
+        // limited by rule
+        addErrorsToFile(listener, event, 3);
+        // limited by audit
+        addErrorsToFile(listener, moduleEvent, 2);
+        listener.auditFinished(new AuditEvent(this));
+
+        verify(newIssue, times(3)).forRule(rule.ruleKey());
+        verify(newIssue, times(1)).forRule(moduleRule.ruleKey());
+
+        // the limits apply to each audit
+        listener.auditStarted(new AuditEvent(this));
+        addErrorsToFile(listener, moduleEvent, 3);
+        listener.auditFinished(new AuditEvent(this));
+
+        verify(newIssue, times(3)).forRule(moduleRule.ruleKey());
+    }
+
+    @Test
+    void shareEqualMessages() {
+        setupRule("repo", "key");
+        final NewIssue newIssue = setupNewIssue();
+        final NewIssueLocation newLocation = newIssue.newLocation();
+        final CheckstyleAuditListener listener = new CheckstyleAuditListener(
+                ruleFinder,
+                fileSystem);
+        listener.setContext(context);
+        listener.addError(event);
+        listener.addError(event);
+
+        final ArgumentCaptor<String> messages = ArgumentCaptor.forClass(String.class);
+        verify(newLocation, times(2)).message(messages.capture());
+        assertThat(messages.getAllValues()).containsExactly("msg", "msg");
+        assertThat(messages.getAllValues().get(1)).isSameAs(messages.getAllValues().get(0));
+    }
+
+    @Test
+    void issueLimitsOutsideAudit() {
+        setupRule("repo", "key");
+        final NewIssue newIssue = setupNewIssue();
+        final CheckstyleAuditListener listener = new CheckstyleAuditListener(
+                ruleFinder,
+                fileSystem);
+        listener.setContext(context);
+        listener.setIssueLimits(0, 1, 0);
+        listener.addError(event);
+        listener.addError(event);
+
+        verify(newIssue, times(1)).save();
+    }
+
+    private static void addErrorsToFile(CheckstyleAuditListener listener, AuditEvent error,
+            int errors) {
+        for (int index = 0; index < errors; index++) {
+            listener.addError(error);
+        }
+        listener.fileFinished(new AuditEvent(listener, error.getFileName()));
+    }
+
+    private ActiveRule setupRoutedRule() {
+        final ActiveRule rule = mock(ActiveRule.class);
+        when(rule.ruleKey()).thenReturn(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                CheckstyleAuditListenerTest.class.getName()));
+        when(ruleFinder.findByRepository(CheckstyleConstants.REPOSITORY_KEY))
+                .thenReturn(List.of(rule));
+        return rule;
+    }
+
+    private NewIssue setupNewIssue() {
+        final NewIssue newIssue = mock(NewIssue.class);
+        final NewIssueLocation newLocation = mock(NewIssueLocation.class);
+        when(context.newIssue()).thenReturn(newIssue);
+        when(newIssue.newLocation()).thenReturn(newLocation);
+        when(newIssue.forRule(any())).thenReturn(newIssue);
+        when(newIssue.at(newLocation)).thenReturn(newIssue);
+        when(newLocation.on(any(InputComponent.class))).thenReturn(newLocation);
+        when(newLocation.at(any())).thenReturn(newLocation);
+        when(newLocation.message(anyString())).thenReturn(newLocation);
+        return newIssue;
+    }
+
     private CheckstyleAuditListener addErrorToListener(AuditEvent auditEvent) {
         final CheckstyleAuditListener listener = new CheckstyleAuditListener(
                 ruleFinder,
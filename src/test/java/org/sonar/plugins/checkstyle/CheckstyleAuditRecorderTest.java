@@ -0,0 +1,100 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleAuditRecorderTest {
+
+    private final List<CheckstyleFileAudit> audits = new ArrayList<>();
+    private final CheckstyleAuditRecorder recorder = new CheckstyleAuditRecorder(audits::add);
+
+    @Test
+    void recordAndReplayFile() {
+        final AuditEvent fileEvent = new AuditEvent(this, "file1");
+        final AuditEvent error = newError("file1");
+        final AuditEvent exception = newError("file1");
+        final IllegalStateException throwable = new IllegalStateException("failure");
+
+        recorder.auditStarted(new AuditEvent(this));
+        recorder.fileStarted(fileEvent);
+        recorder.addError(error);
+        recorder.addException(exception, throwable);
+        recorder.fileFinished(fileEvent);
+        recorder.auditFinished(new AuditEvent(this));
+
+        assertThat(audits).hasSize(1);
+        final CheckstyleFileAudit audit = audits.get(0);
+        assertThat(audit.getFileName()).isEqualTo("file1");
+        assertThat(audit.isProcessed()).isTrue();
+
+        final AuditListener listener = mock(AuditListener.class);
+        audit.replayTo(listener);
+        final InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).fileStarted(any(AuditEvent.class));
+        inOrder.verify(listener).addError(error);
+        inOrder.verify(listener).addException(exception, throwable);
+        inOrder.verify(listener).fileFinished(any(AuditEvent.class));
+        verify(listener, never()).auditStarted(any(AuditEvent.class));
+    }
+
+    @Test
+    void recordOutsideOfFile() {
+        final AuditEvent error = newError("file2");
+        final AuditEvent exception = newError("file3");
+        final IllegalStateException throwable = new IllegalStateException("failure");
+
+        recorder.addError(error);
+        recorder.addException(exception, throwable);
+
+        assertThat(audits).hasSize(2);
+        assertThat(audits.get(0).getFileName()).isEqualTo("file2");
+        assertThat(audits.get(0).isProcessed()).isFalse();
+        assertThat(audits.get(1).getFileName()).isEqualTo("file3");
+
+        final AuditListener listener = mock(AuditListener.class);
+        audits.get(0).replayTo(listener);
+        audits.get(1).replayTo(listener);
+        verify(listener).addError(error);
+        verify(listener).addException(exception, throwable);
+        verify(listener, never()).fileStarted(any(AuditEvent.class));
+        verify(listener, never()).fileFinished(any(AuditEvent.class));
+    }
+
+    private AuditEvent newError(String fileName) {
+        return new AuditEvent(this, fileName, new Violation(1, "", "", null, "",
+                CheckstyleAuditRecorderTest.class, "msg"));
+    }
+}
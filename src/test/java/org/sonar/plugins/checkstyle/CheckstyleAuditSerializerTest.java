@@ -0,0 +1,89 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleAuditSerializerTest {
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+
+    @Test
+    void roundTrip() throws Exception {
+        final CheckstyleFileAudit processed = new CheckstyleFileAudit("Foo.java", true);
+        processed.addError(new AuditEvent(this, "Foo.java", new Violation(1, "", "", null,
+                null, CheckstyleAuditSerializerTest.class, "first")));
+        final CheckstyleFileAudit unprocessed = new CheckstyleFileAudit("Foo.java", false);
+        unprocessed.addError(new AuditEvent(this, "Foo.java", new Violation(2, "", "", null,
+                "module", CheckstyleAuditSerializerTest.class, "{1} second")));
+
+        final byte[] data =
+                CheckstyleAuditSerializer.serialize(List.of(processed, unprocessed));
+        final List<CheckstyleFileAudit> audits = CheckstyleAuditSerializer.deserialize(data,
+                "Bar.java", this, classLoader);
+
+        assertThat(audits).hasSize(2);
+        assertThat(audits.get(0).isProcessed()).isTrue();
+        assertThat(audits.get(0).getFileName()).isEqualTo("Bar.java");
+        assertThat(audits.get(0).getErrors().get(0).getModuleId()).isNull();
+        assertThat(audits.get(0).getErrors().get(0).getMessage()).isEqualTo("first");
+        assertThat(audits.get(1).isProcessed()).isFalse();
+        assertThat(audits.get(1).getErrors().get(0).getLine()).isEqualTo(2);
+        assertThat(audits.get(1).getErrors().get(0).getModuleId()).isEqualTo("module");
+        assertThat(audits.get(1).getErrors().get(0).getMessage()).isEqualTo("{1} second");
+    }
+
+    @Test
+    void missingMessage() throws Exception {
+        final AuditEvent event = mock(AuditEvent.class);
+        when(event.getLine()).thenReturn(1);
+        when(event.getSeverityLevel()).thenReturn(SeverityLevel.ERROR);
+        when(event.getSourceName()).thenReturn(CheckstyleAuditSerializerTest.class.getName());
+        when(event.getMessage()).thenThrow(new IllegalStateException("no message"));
+        final CheckstyleFileAudit audit = new CheckstyleFileAudit("Foo.java", true);
+        audit.addError(event);
+
+        final byte[] data = CheckstyleAuditSerializer.serialize(List.of(audit));
+        final List<CheckstyleFileAudit> audits = CheckstyleAuditSerializer.deserialize(data,
+                "Foo.java", this, classLoader);
+
+        assertThat(audits.get(0).getErrors()).hasSize(1);
+        assertThat(audits.get(0).getErrors().get(0).getSeverityLevel())
+                .isEqualTo(SeverityLevel.ERROR);
+    }
+
+    @Test
+    void corruptedData() {
+        Assertions.assertThrows(IOException.class, () -> CheckstyleAuditSerializer
+                .deserialize(new byte[] {0, 0, 0, 1}, "Foo.java", this, classLoader));
+    }
+}
@@ -0,0 +1,74 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleBinaryLoggerTest {
+
+    private final AuditEvent error = new AuditEvent(this, "Hello.java", new Violation(1, "",
+            "", null, "LineLength", CheckstyleBinaryLoggerTest.class, "Line is too long."));
+
+    @Test
+    void writeValuesOnce() {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final CheckstyleBinaryLogger logger = new CheckstyleBinaryLogger(output);
+        logger.auditStarted(new AuditEvent(this));
+        logger.fileStarted(new AuditEvent(this, "Hello.java"));
+        logger.addError(error);
+        final int firstIssue = output.size();
+        logger.addError(error);
+        final int secondIssue = output.size() - firstIssue;
+        logger.addException(error, new IllegalArgumentException());
+        logger.fileFinished(new AuditEvent(this, "Hello.java"));
+        logger.auditFinished(new AuditEvent(this));
+
+        // tag, file, rule, message, line, column and severity of one byte each
+        assertThat(secondIssue).isEqualTo(7);
+        assertThat(output.size()).isEqualTo(firstIssue + secondIssue + 1);
+    }
+
+    @Test
+    void writeFailure() throws IOException {
+        final OutputStream output = mock(OutputStream.class);
+        doThrow(IOException.class).when(output).write(anyInt());
+        final CheckstyleBinaryLogger logger = new CheckstyleBinaryLogger(output);
+
+        assertThatThrownBy(() -> logger.auditStarted(new AuditEvent(this)))
+                .isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> logger.addError(error))
+                .isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> logger.auditFinished(new AuditEvent(this)))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+}
@@ -0,0 +1,227 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleBinaryReaderTest {
+
+    @Test
+    void readIssues() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final CheckstyleBinaryLogger logger = new CheckstyleBinaryLogger(output);
+        logger.auditStarted(new AuditEvent(this));
+        logger.addError(newEvent("Hello.java", 300, 5, "LineLength", "Too long."));
+        logger.addError(newEvent("Hello.java", 1, 0, "", "Too long."));
+        logger.addError(newEvent("World.java", 0, 0, "LineLength", "Empty."));
+        logger.auditFinished(new AuditEvent(this));
+
+        try (CheckstyleBinaryReader reader = new CheckstyleBinaryReader(
+                new ByteArrayInputStream(output.toByteArray()))) {
+            final CheckstyleBinaryReader.Issue first = reader.next();
+            assertThat(first).isEqualTo(new CheckstyleBinaryReader.Issue("Hello.java",
+                    "LineLength", "Too long.", 300, 5, "warning"));
+            final CheckstyleBinaryReader.Issue second = reader.next();
+            assertThat(second).isEqualTo(new CheckstyleBinaryReader.Issue("Hello.java",
+                    CheckstyleBinaryReaderTest.class.getName(), "Too long.", 1, 0, "warning"));
+            assertThat(second.fileName()).isSameAs(first.fileName());
+            assertThat(second.message()).isSameAs(first.message());
+            assertThat(reader.next()).isEqualTo(new CheckstyleBinaryReader.Issue("World.java",
+                    "LineLength", "Empty.", 0, 0, "warning"));
+            assertThat(reader.next()).isNull();
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void readOtherFile() {
+        final byte[] content = {'<', '?', 'x', 'm', 'l'};
+        assertThatThrownBy(() -> new CheckstyleBinaryReader(new ByteArrayInputStream(content)))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Not a Checkstyle binary report");
+    }
+
+    @Test
+    void readOtherVersion() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(CheckstyleBinaryReader.MAGIC);
+        data.writeByte(2);
+        assertThatThrownBy(() -> new CheckstyleBinaryReader(
+                new ByteArrayInputStream(output.toByteArray())))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Unsupported Checkstyle binary report version 2");
+    }
+
+    @Test
+    void readUnknownEntry() throws IOException {
+        final ByteArrayOutputStream output = newReport();
+        output.write(42);
+        try (CheckstyleBinaryReader reader = new CheckstyleBinaryReader(
+                new ByteArrayInputStream(output.toByteArray()))) {
+            assertThatThrownBy(reader::next)
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Unknown entry 42");
+        }
+    }
+
+    @Test
+    void readUndefinedValue() throws IOException {
+        final ByteArrayOutputStream output = newReport();
+        output.write(CheckstyleBinaryReader.ISSUE);
+        output.write(0);
+        try (CheckstyleBinaryReader reader = new CheckstyleBinaryReader(
+                new ByteArrayInputStream(output.toByteArray()))) {
+            assertThatThrownBy(reader::next)
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Undefined value 0");
+        }
+    }
+
+    @Test
+    void readTruncatedReport() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final CheckstyleBinaryLogger logger = new CheckstyleBinaryLogger(output);
+        logger.auditStarted(new AuditEvent(this));
+        logger.addError(newEvent("Hello.java", 300, 5, "LineLength", "Too long."));
+        logger.auditFinished(new AuditEvent(this));
+        final byte[] content = output.toByteArray();
+
+        // cut in the middle of every entry, text or number
+        for (int length = Integer.BYTES; length < content.length - 1; length++) {
+            try (CheckstyleBinaryReader reader = new CheckstyleBinaryReader(
+                    new ByteArrayInputStream(content, 0, length))) {
+                assertThatThrownBy(reader::next).isInstanceOf(EOFException.class);
+            }
+            catch (EOFException exception) {
+                // cut in the version
+                assertThat(length).isEqualTo(Integer.BYTES);
+            }
+        }
+    }
+
+    @Test
+    void readTooLongVarInt() throws IOException {
+        final ByteArrayOutputStream output = newReport();
+        output.write(CheckstyleBinaryReader.FILE);
+        output.write(new byte[] {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80,
+            (byte) 0x80, 0x01});
+        assertCorrupted(output, "Too long variable-length integer");
+    }
+
+    @Test
+    void readNegativeVarInt() throws IOException {
+        final ByteArrayOutputStream output = newReport();
+        output.write(CheckstyleBinaryReader.FILE);
+        output.write(new byte[] {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f});
+        assertCorrupted(output, "Too large variable-length integer");
+    }
+
+    @Test
+    void readTooLongString() throws IOException {
+        final ByteArrayOutputStream output = newReport();
+        output.write(CheckstyleBinaryReader.MESSAGE);
+        CheckstyleBinaryReader.writeVarInt(new DataOutputStream(output),
+                CheckstyleBinaryReader.MAX_STRING_BYTES + 1);
+        assertCorrupted(output, "Too long text of "
+                + (CheckstyleBinaryReader.MAX_STRING_BYTES + 1) + " bytes");
+    }
+
+    @Test
+    void readLargestVarInt() throws IOException {
+        final ByteArrayOutputStream output = newReport();
+        final DataOutputStream data = new DataOutputStream(output);
+        data.write(CheckstyleBinaryReader.FILE);
+        CheckstyleBinaryReader.writeString(data, "Hello.java");
+        data.write(CheckstyleBinaryReader.RULE);
+        CheckstyleBinaryReader.writeString(data, "LineLength");
+        data.write(CheckstyleBinaryReader.MESSAGE);
+        CheckstyleBinaryReader.writeString(data, "Too long.");
+        data.write(CheckstyleBinaryReader.ISSUE);
+        CheckstyleBinaryReader.writeVarInt(data, 0);
+        CheckstyleBinaryReader.writeVarInt(data, 0);
+        CheckstyleBinaryReader.writeVarInt(data, 0);
+        CheckstyleBinaryReader.writeVarInt(data, Integer.MAX_VALUE);
+        CheckstyleBinaryReader.writeVarInt(data, 0);
+        CheckstyleBinaryReader.writeVarInt(data, SeverityLevel.ERROR.ordinal());
+        try (CheckstyleBinaryReader reader = new CheckstyleBinaryReader(
+                new ByteArrayInputStream(output.toByteArray()))) {
+            assertThat(reader.next()).isEqualTo(new CheckstyleBinaryReader.Issue("Hello.java",
+                    "LineLength", "Too long.", Integer.MAX_VALUE, 0, "error"));
+        }
+    }
+
+    @Test
+    void writeTooLongString() throws IOException {
+        final ByteArrayOutputStream output = newReport();
+        final DataOutputStream data = new DataOutputStream(output);
+        data.write(CheckstyleBinaryReader.MESSAGE);
+        // the 2 bytes of the last character do not fit
+        CheckstyleBinaryReader.writeString(data,
+                "a".repeat(CheckstyleBinaryReader.MAX_STRING_BYTES - 1) + "\u00e9");
+        data.write(CheckstyleBinaryReader.ISSUE);
+        data.write(0);
+        try (CheckstyleBinaryReader reader = new CheckstyleBinaryReader(
+                new ByteArrayInputStream(output.toByteArray()))) {
+            // the message is read, the issue refers to an undefined file
+            assertThatThrownBy(reader::next)
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Undefined value 0");
+        }
+        assertThat(output.size()).isEqualTo(Integer.BYTES + 1 + 1 + 3
+                + CheckstyleBinaryReader.MAX_STRING_BYTES - 1 + 2);
+    }
+
+    private static void assertCorrupted(ByteArrayOutputStream output, String message)
+            throws IOException {
+        try (CheckstyleBinaryReader reader = new CheckstyleBinaryReader(
+                new ByteArrayInputStream(output.toByteArray()))) {
+            assertThatThrownBy(reader::next)
+                    .isInstanceOf(IOException.class)
+                    .hasMessage(message);
+        }
+    }
+
+    private static ByteArrayOutputStream newReport() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(CheckstyleBinaryReader.MAGIC);
+        data.writeByte(CheckstyleBinaryReader.VERSION);
+        return output;
+    }
+
+    private AuditEvent newEvent(String fileName, int line, int column, String moduleId,
+            String message) {
+        return new AuditEvent(this, fileName, new Violation(line, column, "", "", null,
+                SeverityLevel.WARNING, moduleId, CheckstyleBinaryReaderTest.class, message));
+    }
+}
@@ -0,0 +1,46 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class CheckstyleCancellationFilterTest {
+
+    @Test
+    void skipFilesOnceCancelled() {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final CheckstyleCancellationFilter filter =
+                new CheckstyleCancellationFilter(cancelled::get);
+
+        assertThat(filter.accept("Hello.java")).isTrue();
+        assertThat(filter.isCancelled()).isFalse();
+
+        cancelled.set(true);
+        assertThat(filter.accept("World.java")).isFalse();
+        assertThat(filter.isCancelled()).isTrue();
+
+        // stays cancelled
+        cancelled.set(false);
+        assertThat(filter.accept("Hello.java")).isFalse();
+    }
+}
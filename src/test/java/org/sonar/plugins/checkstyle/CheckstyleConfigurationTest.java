@@ -20,12 +20,15 @@
 package org.sonar.plugins.checkstyle;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +48,9 @@ import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.rules.Rule;
 import org.sonar.api.utils.System2;
 
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
 
 class CheckstyleConfigurationTest {
@@ -81,8 +87,8 @@ class CheckstyleConfigurationTest {
 
     @Test
     void getSourceFilesWithDefaultExporter() {
-        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(null,
-                null, fileSystem);
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(new MapSettings()), null, fileSystem);
         assertThat(configuration.getSourceFiles()).hasSize(1);
         assertThat(configuration.getSourceFiles().iterator().next().toString())
                 .contains("mainFile");
@@ -91,13 +97,47 @@ class CheckstyleConfigurationTest {
     @Test
     void getSourceFiles() {
         final CheckstyleProfileExporter exporter = new FakeExporter();
-        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(null, exporter,
-                null, fileSystem);
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(new MapSettings()), exporter, null, fileSystem);
         assertThat(configuration.getSourceFiles()).hasSize(1);
         assertThat(configuration.getSourceFiles().iterator().next().toString())
                 .contains("mainFile");
     }
 
+    @Test
+    void getChangedSourceFiles() {
+        final DefaultFileSystem pullRequestFileSystem = new DefaultFileSystem(new File(""));
+        pullRequestFileSystem.add(new TestInputFileBuilder("", "Same.java")
+                .setLanguage("java").setStatus(InputFile.Status.SAME).build());
+        pullRequestFileSystem.add(new TestInputFileBuilder("", "Changed.java")
+                .setLanguage("java").setStatus(InputFile.Status.CHANGED).build());
+        pullRequestFileSystem.add(new TestInputFileBuilder("", "Added.java")
+                .setLanguage("java").setStatus(InputFile.Status.ADDED).build());
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(new MapSettings()), null, null, pullRequestFileSystem);
+
+        assertThat(configuration.getSourceFiles()).hasSize(3);
+        assertThat(configuration.getSourceFiles(true)).extracting(InputFile::filename)
+                .containsExactlyInAnyOrder("Changed.java", "Added.java");
+    }
+
+    @Test
+    void getSourceFilesWithFilter() {
+        final DefaultFileSystem filteredFileSystem = new DefaultFileSystem(new File(""));
+        filteredFileSystem.add(new TestInputFileBuilder("", "Small.java")
+                .setLanguage("java").setLines(10).build());
+        filteredFileSystem.add(new TestInputFileBuilder("", "Large.java")
+                .setLanguage("java").setLines(50_000).build());
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, filteredFileSystem);
+        assertThat(configuration.getSourceFiles()).hasSize(2);
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_MAX_FILE_LINES, "10000");
+        assertThat(configuration.getSourceFiles()).extracting(InputFile::filename)
+                .containsExactly("Small.java");
+    }
+
     @Test
     void getTargetXmlReport() {
         final org.sonar.api.config.Configuration settings =
@@ -113,6 +153,176 @@ class CheckstyleConfigurationTest {
                 null, null, fileSystem);
         assertThat(configuration2.getTargetXmlReport()).isEqualTo(
                 new File(fileSystem.workDir(), "checkstyle-result.xml"));
+        assertThat(configuration2.isXmlReportCompressed()).isFalse();
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_COMPRESS_XML, "true");
+        assertThat(configuration2.isXmlReportCompressed()).isTrue();
+        assertThat(configuration2.getTargetXmlReport()).isEqualTo(
+                new File(fileSystem.workDir(), "checkstyle-result.xml.gz"));
+    }
+
+    @Test
+    void getIssueLimits() {
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, fileSystem);
+        assertThat(configuration.getMaxIssuesPerRule()).isZero();
+        assertThat(configuration.getMaxIssuesPerFile()).isZero();
+        assertThat(configuration.getMaxIssues()).isZero();
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_MAX_ISSUES_PER_RULE, "10");
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_MAX_ISSUES_PER_FILE, "20");
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_MAX_ISSUES, "30");
+        assertThat(configuration.getMaxIssuesPerRule()).isEqualTo(10);
+        assertThat(configuration.getMaxIssuesPerFile()).isEqualTo(20);
+        assertThat(configuration.getMaxIssues()).isEqualTo(30);
+    }
+
+    @Test
+    void getTargetSarifReport() {
+        final MapSettings mapSettings = new MapSettings();
+        final ActiveRules activeRules = mock(ActiveRules.class);
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, activeRules, fileSystem);
+        assertThat(configuration.getTargetSarifReport()).isNull();
+        assertThat(configuration.getActiveRules()).isSameAs(activeRules);
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_GENERATE_SARIF, "true");
+        assertThat(configuration.getTargetSarifReport()).isEqualTo(
+                new File(fileSystem.workDir(), "checkstyle-result.sarif"));
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_COMPRESS_XML, "true");
+        assertThat(configuration.getTargetSarifReport()).isEqualTo(
+                new File(fileSystem.workDir(), "checkstyle-result.sarif.gz"));
+    }
+
+    @Test
+    void getTargetBinaryReport() {
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, fileSystem);
+        assertThat(configuration.getTargetBinaryReport()).isNull();
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_GENERATE_BINARY, "true");
+        assertThat(configuration.getTargetBinaryReport()).isEqualTo(
+                new File(fileSystem.workDir(), "checkstyle-result.bin"));
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_COMPRESS_XML, "true");
+        assertThat(configuration.getTargetBinaryReport()).isEqualTo(
+                new File(fileSystem.workDir(), "checkstyle-result.bin.gz"));
+    }
+
+    @Test
+    void getTimingSettings() {
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, fileSystem);
+        assertThat(configuration.getTargetTimingReport()).isNull();
+        assertThat(configuration.getSlowFileThreshold()).isZero();
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_TIMING_REPORT, "true");
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_SLOW_FILE_THRESHOLD, "500");
+        assertThat(configuration.getTargetTimingReport()).isEqualTo(
+                new File(fileSystem.workDir(), "checkstyle-timing.json"));
+        assertThat(configuration.getSlowFileThreshold()).isEqualTo(500);
+    }
+
+    @Test
+    void getProgressInterval() {
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, fileSystem);
+        assertThat(configuration.getProgressInterval())
+                .isEqualTo(CheckstyleConfiguration.DEFAULT_PROGRESS_INTERVAL);
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_PROGRESS_INTERVAL, "0");
+        assertThat(configuration.getProgressInterval()).isZero();
+    }
+
+    @Test
+    void getFileTimeout() {
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, fileSystem);
+        assertThat(configuration.getFileTimeout()).isZero();
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_FILE_TIMEOUT, "300");
+        assertThat(configuration.getFileTimeout()).isEqualTo(300);
+    }
+
+    @Test
+    void isDeduplicationEnabled() {
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, fileSystem);
+        assertThat(configuration.isDeduplicationEnabled()).isFalse();
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_DEDUPLICATE, "true");
+        assertThat(configuration.isDeduplicationEnabled()).isTrue();
+    }
+
+    @Test
+    void getTargetProfileReport() {
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, fileSystem);
+        assertThat(configuration.getTargetProfileReport()).isNull();
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_PROFILE_MODULES, "true");
+        assertThat(configuration.getTargetProfileReport()).isEqualTo(
+                new File(fileSystem.workDir(), "checkstyle-profile.json"));
+    }
+
+    @Test
+    void getSpillDirectory() {
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, fileSystem);
+        assertThat(configuration.getSpillDirectory()).isNull();
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_SPILL_ISSUES, "true");
+        assertThat(configuration.getSpillDirectory()).isEqualTo(fileSystem.workDir());
+    }
+
+    @Test
+    void getThreads() {
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, fileSystem);
+        assertThat(configuration.getThreads()).isEqualTo(1);
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_THREADS, "4");
+        assertThat(configuration.getThreads()).isEqualTo(4);
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_THREADS, "0");
+        assertThat(configuration.getThreads())
+                .isEqualTo(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    void getCacheSettings() {
+        final MapSettings mapSettings = new MapSettings();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(
+                new ConfigurationBridge(mapSettings), null, null, fileSystem);
+        assertThat(configuration.isCacheEnabled()).isFalse();
+
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_CACHE, "true");
+        assertThat(configuration.isCacheEnabled()).isTrue();
+        assertThat(configuration.getCacheFile())
+                .isEqualTo(new File(fileSystem.workDir(), "checkstyle-cache.bin"));
+        assertThat(configuration.getDurationHistoryFile()).isEqualTo(
+                new File(fileSystem.workDir(), "checkstyle-durations.properties"));
+    }
+
+    @Test
+    void getConfigurationHash() {
+        fileSystem.setEncoding(StandardCharsets.UTF_8);
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(null,
+                new FakeExporter(), new DefaultActiveRules(Collections.emptyList()),
+                fileSystem);
+        assertThat(configuration.getConfigurationHash())
+                .isEqualTo(CheckstyleDigestUtils.sha256Hex("<conf/>\nUTF-8\n"
+                        + CheckstyleDigestUtils.sha256Hex("")));
     }
 
     @Test
@@ -150,13 +360,104 @@ class CheckstyleConfigurationTest {
         final Configuration checkstyleConfiguration = configuration.getCheckstyleConfiguration();
         assertThat(checkstyleConfiguration).isNotNull();
         assertThat(checkstyleConfiguration.getProperty("charset")).isEqualTo("UTF-8");
+        assertThat(new File("checkstyle.xml")).doesNotExist();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void getCheckstyleConfigurationWithXmlDefinition() throws Exception {
+        fileSystem.setEncoding(StandardCharsets.UTF_8);
+        final MapSettings mapSettings = new MapSettings(new PropertyDefinitions(
+                System2.INSTANCE, CheckstylePlugin.getExtensions()));
+        mapSettings.setProperty(CheckstyleConfiguration.PROPERTY_GENERATE_XML, "true");
+        final org.sonar.api.config.Configuration settings = new ConfigurationBridge(mapSettings);
+
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(settings,
+                new CheckstyleProfileExporter(settings),
+                new DefaultActiveRules(Collections.emptyList()), fileSystem);
+        final Configuration checkstyleConfiguration = configuration.getCheckstyleConfiguration();
+        assertThat(checkstyleConfiguration.getProperty("charset")).isEqualTo("UTF-8");
         final File xmlFile = new File("checkstyle.xml");
         assertThat(xmlFile.exists()).isTrue();
+        // the definition is only written for the XML report, it matches the built configuration
+        assertThat(ConfigurationLoader.loadConfiguration(xmlFile.getAbsolutePath(),
+                new PropertiesExpander(new Properties())).getChildren())
+                .hasSameSizeAs(checkstyleConfiguration.getChildren());
 
         FileUtils.forceDelete(xmlFile);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    void reuseCheckstyleConfiguration() throws Exception {
+        fileSystem.setEncoding(StandardCharsets.UTF_8);
+        final MapSettings mapSettings = new MapSettings(new PropertyDefinitions(
+                System2.INSTANCE, CheckstylePlugin.getExtensions()));
+        mapSettings.setProperty(CheckstyleConstants.CHECKER_TAB_WIDTH, "7");
+        final org.sonar.api.config.Configuration settings = new ConfigurationBridge(mapSettings);
+
+        final Configuration checkstyleConfiguration = new CheckstyleConfiguration(settings,
+                new CheckstyleProfileExporter(settings),
+                new DefaultActiveRules(Collections.emptyList()), fileSystem)
+                .getCheckstyleConfiguration();
+        // the modules configured with a configuration must not change the following ones
+        ((DefaultConfiguration) checkstyleConfiguration).addProperty("tabWidth", "3");
+        ((DefaultConfiguration) checkstyleConfiguration.getChildren()[0])
+                .addChild(new DefaultConfiguration("Added"));
+        final Configuration reusedConfiguration = new CheckstyleConfiguration(settings,
+                new CheckstyleProfileExporter(settings),
+                new DefaultActiveRules(Collections.emptyList()), fileSystem)
+                .getCheckstyleConfiguration();
+        assertThat(reusedConfiguration).isNotSameAs(checkstyleConfiguration);
+        assertThat(reusedConfiguration.getProperty("charset")).isEqualTo("UTF-8");
+        assertThat(reusedConfiguration.getProperty("tabWidth")).isEqualTo("7");
+        assertThat(reusedConfiguration.getChildren()[0].getChildren())
+                .hasSize(checkstyleConfiguration.getChildren()[0].getChildren().length - 1);
+
+        mapSettings.setProperty(CheckstyleConstants.CHECKER_TAB_WIDTH, "6");
+        final Configuration otherConfiguration = new CheckstyleConfiguration(settings,
+                new CheckstyleProfileExporter(settings),
+                new DefaultActiveRules(Collections.emptyList()), fileSystem)
+                .getCheckstyleConfiguration();
+        assertThat(otherConfiguration.getProperty("tabWidth")).isEqualTo("6");
+    }
+
+    @Test
+    void copyConfiguration() throws Exception {
+        final DefaultConfiguration configuration = new DefaultConfiguration("Checker");
+        configuration.addProperty("charset", "UTF-8");
+        configuration.addMessage("key", "message");
+        final DefaultConfiguration child = new DefaultConfiguration("TreeWalker");
+        child.addProperty("tabWidth", "4");
+        configuration.addChild(child);
+
+        final DefaultConfiguration copy = CheckstyleConfiguration.copy(configuration);
+        assertThat(copy).isNotSameAs(configuration);
+        assertThat(copy.getName()).isEqualTo("Checker");
+        assertThat(copy.getProperty("charset")).isEqualTo("UTF-8");
+        assertThat(copy.getMessages()).containsExactly(Map.entry("key", "message"));
+        assertThat(copy.getChildren()).hasSize(1);
+        assertThat(copy.getChildren()[0]).isNotSameAs(child);
+        assertThat(copy.getChildren()[0].getName()).isEqualTo("TreeWalker");
+        assertThat(copy.getChildren()[0].getProperty("tabWidth")).isEqualTo("4");
+    }
+
+    @Test
+    void exportProfileOnce() {
+        fileSystem.setEncoding(StandardCharsets.UTF_8);
+        final FakeExporter exporter = new FakeExporter();
+        final CheckstyleConfiguration configuration = new CheckstyleConfiguration(null, exporter,
+                new DefaultActiveRules(Collections.emptyList()), fileSystem);
+        final String configurationHash = configuration.getConfigurationHash();
+        final File xmlFile = configuration.getXmlDefinitionFile();
+
+        assertThat(configuration.getConfigurationHash()).isEqualTo(configurationHash);
+        assertThat(xmlFile).hasContent("<conf/>");
+        assertThat(exporter.exports).isEqualTo(1);
+    }
+
     private static class FakeExporter extends CheckstyleProfileExporter {
+        private int exports;
 
         FakeExporter() {
             super(new ConfigurationBridge(new MapSettings()));
@@ -164,6 +465,7 @@ class CheckstyleConfigurationTest {
 
         @Override
         public void exportProfile(ActiveRules activeRules, Writer writer) {
+            exports++;
             try {
                 writer.write("<conf/>");
             }
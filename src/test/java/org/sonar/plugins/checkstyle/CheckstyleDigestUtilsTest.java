@@ -0,0 +1,57 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckstyleDigestUtilsTest {
+
+    @TempDir
+    File workDir;
+
+    @Test
+    void sha256Hex() throws IOException {
+        final File file = new File(workDir, "file.txt");
+        FileUtils.write(file, "abc", StandardCharsets.UTF_8);
+
+        assertThat(CheckstyleDigestUtils.sha256Hex("abc")).isEqualTo(
+                "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        assertThat(CheckstyleDigestUtils.sha256Hex(file))
+                .isEqualTo(CheckstyleDigestUtils.sha256Hex("abc"));
+    }
+
+    @Test
+    void unsupportedAlgorithm() {
+        final IllegalStateException exception = Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> CheckstyleDigestUtils.newDigest("unknown"));
+
+        assertThat(exception.getMessage()).isEqualTo("unknown is not supported");
+    }
+}
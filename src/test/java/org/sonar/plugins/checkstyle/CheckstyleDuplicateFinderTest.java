@@ -0,0 +1,86 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+class CheckstyleDuplicateFinderTest {
+
+    @TempDir
+    private File directory;
+
+    @Test
+    void privateConstructor() throws ReflectiveOperationException {
+        final Constructor<CheckstyleDuplicateFinder> constructor = CheckstyleDuplicateFinder.class
+                .getDeclaredConstructor();
+        assertThat(Modifier.isPrivate(constructor.getModifiers())).isTrue();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    void findDuplicates() throws IOException {
+        final InputFile first = inputFile("first/Stub.java", "class Stub {}");
+        final InputFile copy = inputFile("second/Stub.java", "class Stub {}");
+        final InputFile other = inputFile("third/Stub.java", "class Stub{ }");
+        final InputFile renamed = inputFile("third/Copy.java", "class Stub {}");
+        final InputFile otherCopy = inputFile("fourth/Stub.java", "class Stub{ }");
+        final InputFile thirdCopy = inputFile("fifth/Stub.java", "class Stub {}");
+
+        final Map<InputFile, InputFile> duplicates = CheckstyleDuplicateFinder.findDuplicates(
+                List.of(first, copy, other, renamed, otherCopy, thirdCopy));
+
+        assertThat(duplicates).containsOnly(Map.entry(copy, first),
+                Map.entry(otherCopy, other), Map.entry(thirdCopy, first));
+    }
+
+    @Test
+    void ignoreUnreadableFiles() {
+        final InputFile first = new TestInputFileBuilder("", directory, new File(directory,
+                "first/Missing.java")).setCharset(StandardCharsets.UTF_8).build();
+        final InputFile second = new TestInputFileBuilder("", directory, new File(directory,
+                "second/Missing.java")).setCharset(StandardCharsets.UTF_8).build();
+
+        assertThat(CheckstyleDuplicateFinder.findDuplicates(List.of(first, second))).isEmpty();
+    }
+
+    private InputFile inputFile(String path, String contents) throws IOException {
+        final File file = new File(directory, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), contents, StandardCharsets.UTF_8);
+        return new TestInputFileBuilder("", directory, file)
+                .setLanguage("java")
+                .setCharset(StandardCharsets.UTF_8)
+                .build();
+    }
+}
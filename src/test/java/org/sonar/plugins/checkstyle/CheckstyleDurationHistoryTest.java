@@ -0,0 +1,89 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckstyleDurationHistoryTest {
+
+    @TempDir
+    File workDir;
+
+    @Test
+    void saveAndLoad() {
+        final File file = new File(workDir, "durations.properties");
+        final CheckstyleDurationHistory history = CheckstyleDurationHistory.load(file);
+        assertThat(history.getDuration("/a/B.java")).isNull();
+
+        history.record("/a/B.java", 42);
+        history.save();
+
+        final CheckstyleDurationHistory loaded = CheckstyleDurationHistory.load(file);
+        assertThat(loaded.getDuration("/a/B.java")).isEqualTo(42);
+    }
+
+    @Test
+    void pruneUnusedFiles() {
+        final File file = new File(workDir, "durations.properties");
+        final CheckstyleDurationHistory history = CheckstyleDurationHistory.load(file);
+        history.record("/a/Kept.java", 1);
+        history.record("/a/Cached.java", 2);
+        history.record("/a/Deleted.java", 3);
+        history.save();
+
+        final CheckstyleDurationHistory next = CheckstyleDurationHistory.load(file);
+        next.record("/a/Kept.java", 4);
+        assertThat(next.getDuration("/a/Cached.java")).isEqualTo(2);
+        next.save();
+
+        final CheckstyleDurationHistory pruned = CheckstyleDurationHistory.load(file);
+        assertThat(pruned.getDuration("/a/Kept.java")).isEqualTo(4);
+        assertThat(pruned.getDuration("/a/Cached.java")).isEqualTo(2);
+        assertThat(pruned.getDuration("/a/Deleted.java")).isNull();
+    }
+
+    @Test
+    void loadCorruptedFile() throws IOException {
+        final File file = new File(workDir, "durations.properties");
+        FileUtils.write(file, "/a/B.java=42\n/a/C.java=abc\n", StandardCharsets.UTF_8);
+
+        final CheckstyleDurationHistory history = CheckstyleDurationHistory.load(file);
+        assertThat(history.getDuration("/a/B.java")).isNull();
+        assertThat(history.getDuration("/a/C.java")).isNull();
+    }
+
+    @Test
+    void saveFailure() {
+        final File file = new File(workDir, "missing/durations.properties");
+        final CheckstyleDurationHistory history = CheckstyleDurationHistory.load(file);
+        history.record("/a/B.java", 42);
+        history.save();
+
+        assertThat(file).doesNotExist();
+    }
+}
@@ -21,6 +21,7 @@ package org.sonar.plugins.checkstyle;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -29,23 +30,38 @@ import static org.mockito.Mockito.when;
 
 import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
-import org.sonar.api.batch.fs.internal.DefaultIndexedFile;
-import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.batch.sensor.SensorContext;
 
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
 import com.puppycrawl.tools.checkstyle.api.AuditEvent;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 
@@ -60,7 +76,11 @@ class CheckstyleExecutorTest {
         final CheckstyleConfiguration conf = mockConf();
         final CheckstyleAuditListener listener = mockListener();
         final CheckstyleExecutor executor = new CheckstyleExecutor(conf, listener);
-        executor.execute(context);
+        final CheckstyleStatistics statistics = executor.execute(context);
+
+        assertThat(statistics.getAnalyzedFiles()).isPositive();
+        assertThat(statistics.getCachedFiles()).isZero();
+        assertThat(statistics.getDurationMillis()).isNotNegative();
 
         verify(listener, times(1)).auditStarted(any(AuditEvent.class));
         verify(listener, times(1)).auditFinished(any(AuditEvent.class));
@@ -135,6 +155,387 @@ class CheckstyleExecutorTest {
         }
     }
 
+    @Test
+    void generateCompressedXmlReport() throws Exception {
+        final CheckstyleConfiguration conf = mockConf();
+        final File report = new File("target/test-tmp/checkstyle-report.xml.gz");
+        // delete if exists from a previous run
+        report.delete();
+        when(conf.getTargetXmlReport()).thenReturn(report);
+        when(conf.isXmlReportCompressed()).thenReturn(true);
+        new CheckstyleExecutor(conf, mockListener()).execute(context);
+
+        try (InputStream input = new GZIPInputStream(new FileInputStream(report))) {
+            assertThat(IOUtils.toString(input, StandardCharsets.UTF_8))
+                    .contains("<error")
+                    .contains("Empty statement.")
+                    .contains("</checkstyle>");
+        }
+    }
+
+    @Test
+    void generateSarifReport() throws Exception {
+        final CheckstyleConfiguration conf = mockConf();
+        final File report = new File("target/test-tmp/checkstyle-report.sarif");
+        // delete if exists from a previous run
+        report.delete();
+        when(conf.getTargetSarifReport()).thenReturn(report);
+        when(conf.getActiveRules()).thenReturn(mock(ActiveRules.class));
+        new CheckstyleExecutor(conf, mockListener()).execute(context);
+
+        final String reportContents = FileUtils.readFileToString(report,
+                StandardCharsets.UTF_8);
+        assertThat(reportContents).contains("\"version\":\"2.1.0\"");
+        assertThat(reportContents).contains("Empty statement.");
+    }
+
+    @Test
+    void generateBinaryReport() throws Exception {
+        final CheckstyleConfiguration conf = mockConf();
+        final File report = new File("target/test-tmp/checkstyle-report.bin");
+        // delete if exists from a previous run
+        report.delete();
+        when(conf.getTargetBinaryReport()).thenReturn(report);
+        new CheckstyleExecutor(conf, mockListener()).execute(context);
+
+        try (CheckstyleBinaryReader reader = new CheckstyleBinaryReader(
+                new FileInputStream(report))) {
+            final List<String> messages = new ArrayList<>();
+            for (CheckstyleBinaryReader.Issue issue = reader.next(); issue != null;
+                    issue = reader.next()) {
+                messages.add(issue.message());
+            }
+            assertThat(messages).contains("Empty statement.");
+        }
+    }
+
+    @Test
+    void generateTimingReport() throws Exception {
+        final CheckstyleConfiguration conf = mockConf();
+        final File report = new File("target/test-tmp/checkstyle-timing.json");
+        // delete if exists from a previous run
+        report.delete();
+        when(conf.getTargetTimingReport()).thenReturn(report);
+        new CheckstyleExecutor(conf, mockListener()).execute(context);
+
+        assertThat(FileUtils.readFileToString(report, StandardCharsets.UTF_8))
+                .contains("\"files\" : 2")
+                .contains("Hello.java")
+                .contains("World.java");
+    }
+
+    @Test
+    void logSlowFilesInParallel() throws CheckstyleException {
+        final File report = new File("target/test-tmp/checkstyle-timing.json");
+        report.delete();
+        final CheckstyleConfiguration conf = mockPerFileConf();
+        when(conf.getThreads()).thenReturn(2);
+        when(conf.getSlowFileThreshold()).thenReturn(1);
+        final CheckstyleAuditListener listener = mockListener();
+        new CheckstyleExecutor(conf, listener).execute(context);
+
+        verify(listener, times(2)).fileFinished(any(AuditEvent.class));
+        assertThat(report).doesNotExist();
+    }
+
+    @Test
+    void generateProfileReport() throws Exception {
+        final CheckstyleConfiguration conf = mockConf();
+        final File report = new File("target/test-tmp/checkstyle-profile.json");
+        // delete if exists from a previous run
+        report.delete();
+        when(conf.getTargetProfileReport()).thenReturn(report);
+        new CheckstyleExecutor(conf, mockListener()).execute(context);
+
+        assertThat(FileUtils.readFileToString(report, StandardCharsets.UTF_8))
+                .contains("\"id\" : \"EmptyStatement\"")
+                .contains("\"id\" : \"JavadocPackage\"");
+    }
+
+    @Test
+    void cancel() throws CheckstyleException {
+        final CheckstyleConfiguration conf = mockConf();
+        final File report = new File("target/test-tmp/checkstyle-cancelled-profile.json");
+        // delete if exists from a previous run
+        report.delete();
+        when(conf.getTargetProfileReport()).thenReturn(report);
+        final SensorContext cancelledContext = mock(SensorContext.class);
+        when(cancelledContext.isCancelled()).thenReturn(true);
+        final CheckstyleAuditListener listener = mockListener();
+        final CheckstyleStatistics statistics =
+                new CheckstyleExecutor(conf, listener).execute(cancelledContext);
+
+        assertThat(statistics.getAnalyzedFiles()).isZero();
+        verify(listener, times(0)).fileStarted(any(AuditEvent.class));
+        verify(listener).auditFinished(any(AuditEvent.class));
+        assertThat(report).doesNotExist();
+    }
+
+    @Test
+    void executeWithFileTimeout() throws CheckstyleException {
+        final CheckstyleConfiguration conf = mockPerFileConf();
+        when(conf.getFileTimeout()).thenReturn(60);
+        final CheckstyleAuditListener listener = mockListener();
+        final CheckstyleStatistics statistics =
+                new CheckstyleExecutor(conf, listener).execute(context);
+
+        assertThat(statistics.getAnalyzedFiles()).isEqualTo(2);
+        assertThat(statistics.getSkippedFiles()).isZero();
+        verify(listener, times(2)).fileStarted(any(AuditEvent.class));
+        verify(listener, atLeast(1)).addError(any(AuditEvent.class));
+    }
+
+    @Test
+    void executeWithDeduplication() throws CheckstyleException, IOException {
+        final CheckstyleConfiguration conf = mockDuplicatesConf();
+        when(conf.getCheckstyleConfiguration())
+                .thenReturn(treeWalkerConfiguration("EmptyStatement"));
+        final CheckstyleAuditListener listener = mockListener();
+        final CheckstyleStatistics statistics =
+                new CheckstyleExecutor(conf, listener).execute(context);
+
+        assertThat(statistics.getAnalyzedFiles()).isEqualTo(2);
+        assertThat(statistics.getDuplicateFiles()).isEqualTo(1);
+        final ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(listener, atLeast(2)).addError(captor.capture());
+        assertThat(captor.getAllValues())
+                .extracting(AuditEvent::getFileName)
+                .contains(new File("test-resources/Hello.java").getAbsolutePath(),
+                        new File("target/test-tmp/copy/Hello.java").getAbsolutePath());
+    }
+
+    @Test
+    void executeWithDeduplicationOfPathDependentModule()
+            throws CheckstyleException, IOException {
+        final CheckstyleConfiguration conf = mockDuplicatesConf();
+        when(conf.getCheckstyleConfiguration()).thenReturn(
+                treeWalkerConfiguration("EmptyStatement", "PackageDeclaration"));
+        final CheckstyleAuditListener listener = mockListener();
+        final CheckstyleStatistics statistics =
+                new CheckstyleExecutor(conf, listener).execute(context);
+
+        assertThat(statistics.getAnalyzedFiles()).isEqualTo(3);
+        assertThat(statistics.getDuplicateFiles()).isZero();
+        verify(listener, times(3)).fileStarted(any(AuditEvent.class));
+        verify(listener, atLeast(2)).addError(any(AuditEvent.class));
+    }
+
+    @Test
+    void cancelInParallel() throws CheckstyleException {
+        final CheckstyleConfiguration conf = mockPerFileConf();
+        when(conf.getThreads()).thenReturn(2);
+        final SensorContext cancelledContext = mock(SensorContext.class);
+        when(cancelledContext.isCancelled()).thenReturn(false, true);
+        final CheckstyleAuditListener listener = mockListener();
+        final CheckstyleStatistics statistics =
+                new CheckstyleExecutor(conf, listener).execute(cancelledContext);
+
+        assertThat(statistics.getAnalyzedFiles()).isLessThanOrEqualTo(1);
+        verify(listener).auditFinished(any(AuditEvent.class));
+    }
+
+    @Test
+    void executeInParallel() throws CheckstyleException {
+        final CheckstyleConfiguration conf = mockPerFileConf();
+        when(conf.getThreads()).thenReturn(2);
+        final CheckstyleAuditListener listener = mockListener();
+        final CheckstyleExecutor executor = new CheckstyleExecutor(conf, listener);
+        executor.execute(context);
+
+        verify(listener, times(1)).auditStarted(any(AuditEvent.class));
+        verify(listener, times(1)).auditFinished(any(AuditEvent.class));
+
+        final InOrder inOrder = Mockito.inOrder(listener);
+        final ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        inOrder.verify(listener).fileStarted(captor.capture());
+        assertThat(captor.getValue().getFileName()).matches(".*Hello.java");
+        inOrder.verify(listener, atLeast(1)).addError(captor.capture());
+        assertThat(captor.getValue().getFileName()).matches(".*Hello.java");
+        inOrder.verify(listener).fileFinished(captor.capture());
+        assertThat(captor.getValue().getFileName()).matches(".*Hello.java");
+        inOrder.verify(listener).fileStarted(captor.capture());
+        assertThat(captor.getValue().getFileName()).matches(".*World.java");
+        inOrder.verify(listener).fileFinished(captor.capture());
+        assertThat(captor.getValue().getFileName()).matches(".*World.java");
+    }
+
+    @Test
+    void generateSameXmlReportInParallel() throws Exception {
+        final File sequentialReport = new File("target/test-tmp/checkstyle-sequential.xml");
+        final CheckstyleConfiguration sequentialConf = mockPerFileConf();
+        when(sequentialConf.getTargetXmlReport()).thenReturn(sequentialReport);
+        new CheckstyleExecutor(sequentialConf, mockListener()).execute(context);
+
+        final File parallelReport = new File("target/test-tmp/checkstyle-parallel.xml");
+        final CheckstyleConfiguration parallelConf = mockPerFileConf();
+        when(parallelConf.getTargetXmlReport()).thenReturn(parallelReport);
+        when(parallelConf.getThreads()).thenReturn(2);
+        new CheckstyleExecutor(parallelConf, mockListener()).execute(context);
+
+        assertThat(FileUtils.readFileToString(parallelReport, StandardCharsets.UTF_8))
+                .isEqualTo(FileUtils.readFileToString(sequentialReport,
+                        StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void generateSameXmlReportWithCrossFileModule() throws Exception {
+        final List<InputFile> inputFiles = new ArrayList<>();
+        for (String directory : List.of("first", "second")) {
+            for (String name : List.of("Hello.java", "World.java")) {
+                final File file = new File("target/test-tmp/packages/" + directory, name);
+                FileUtils.copyFile(new File("test-resources", name), file);
+                inputFiles.add(inputFile(file));
+            }
+        }
+        final DefaultConfiguration checkstyleConfiguration =
+                treeWalkerConfiguration("EmptyStatement");
+        checkstyleConfiguration.addChild(new DefaultConfiguration("JavadocPackage"));
+
+        final File sequentialReport =
+                new File("target/test-tmp/checkstyle-cross-file-sequential.xml");
+        final CheckstyleConfiguration sequentialConf = mockConf();
+        when(sequentialConf.getSourceFiles(anyBoolean())).thenReturn(inputFiles);
+        when(sequentialConf.getCheckstyleConfiguration()).thenReturn(checkstyleConfiguration);
+        when(sequentialConf.getTargetXmlReport()).thenReturn(sequentialReport);
+        new CheckstyleExecutor(sequentialConf, mockListener()).execute(context);
+
+        final File parallelReport = new File("target/test-tmp/checkstyle-cross-file-parallel.xml");
+        final CheckstyleConfiguration parallelConf = mockConf();
+        when(parallelConf.getSourceFiles(anyBoolean())).thenReturn(inputFiles);
+        when(parallelConf.getCheckstyleConfiguration()).thenReturn(checkstyleConfiguration);
+        when(parallelConf.getTargetXmlReport()).thenReturn(parallelReport);
+        when(parallelConf.getThreads()).thenReturn(2);
+        when(parallelConf.getFileTimeout()).thenReturn(60);
+        when(parallelConf.isCacheEnabled()).thenReturn(true);
+        when(parallelConf.isDeduplicationEnabled()).thenReturn(true);
+        new CheckstyleExecutor(parallelConf, mockListener()).execute(context);
+
+        final String sequentialXml =
+                FileUtils.readFileToString(sequentialReport, StandardCharsets.UTF_8);
+        // reported once per directory, by the single checker of all the files
+        assertThat(Pattern.compile("JavadocPackageCheck").matcher(sequentialXml).results())
+                .hasSize(2);
+        assertThat(FileUtils.readFileToString(parallelReport, StandardCharsets.UTF_8))
+                .isEqualTo(sequentialXml);
+        verify(parallelConf, times(0)).getCacheFile();
+    }
+
+    @Test
+    void executeInParallelException() throws CheckstyleException {
+        final CheckstyleConfiguration conf = mockPerFileConf();
+        when(conf.getThreads()).thenReturn(2);
+        final CheckstyleExecutor executor = new CheckstyleExecutor(conf, null);
+        Assertions.assertThrows(IllegalStateException.class,
+                            () -> executor.execute(context),
+                            "Can not execute Checkstyle");
+    }
+
+    @Test
+    void executeWithCache() throws CheckstyleException {
+        final File cacheFile = new File("target/test-tmp/checkstyle-cache.bin");
+        cacheFile.delete();
+        final CheckstyleConfiguration conf = mockPerFileConf();
+        when(conf.isCacheEnabled()).thenReturn(true);
+        when(conf.getCacheFile()).thenReturn(cacheFile);
+        when(conf.getConfigurationHash()).thenReturn("hash");
+
+        final CheckstyleAuditListener listener = mockListener();
+        new CheckstyleExecutor(conf, listener).execute(context);
+        final ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(listener, atLeast(1)).addError(captor.capture());
+        assertThat(captor.getValue().getSource())
+                .isNotInstanceOf(CheckstyleWorkDirCache.class);
+        assertThat(cacheFile).exists();
+
+        final CheckstyleAuditListener cachedListener = mockListener();
+        final CheckstyleStatistics statistics =
+                new CheckstyleExecutor(conf, cachedListener).execute(context);
+        assertThat(statistics.getCachedFiles()).isPositive();
+        assertThat(statistics.getAnalyzedFiles()).isZero();
+        assertThat(statistics.getViolations()).isEqualTo(captor.getAllValues().size());
+        final ArgumentCaptor<AuditEvent> cachedCaptor =
+                ArgumentCaptor.forClass(AuditEvent.class);
+        verify(cachedListener, times(captor.getAllValues().size()))
+                .addError(cachedCaptor.capture());
+        for (int index = 0; index < captor.getAllValues().size(); index++) {
+            final AuditEvent event = captor.getAllValues().get(index);
+            final AuditEvent cachedEvent = cachedCaptor.getAllValues().get(index);
+            assertThat(cachedEvent.getSource()).isInstanceOf(CheckstyleWorkDirCache.class);
+            assertThat(cachedEvent.getFileName()).isEqualTo(event.getFileName());
+            assertThat(cachedEvent.getLine()).isEqualTo(event.getLine());
+            assertThat(cachedEvent.getSourceName()).isEqualTo(event.getSourceName());
+            assertThat(cachedEvent.getMessage()).isEqualTo(event.getMessage());
+        }
+    }
+
+    @Test
+    void executeWithAnalysisCache() throws CheckstyleException {
+        final CheckstyleConfiguration conf = mockPerFileConf();
+        when(conf.isCacheEnabled()).thenReturn(true);
+        when(conf.getConfigurationHash()).thenReturn("hash");
+        final CheckstyleAnalysisCacheTest.MapCache firstCache =
+                new CheckstyleAnalysisCacheTest.MapCache(new HashMap<>());
+        final SensorContext firstContext = mock(SensorContext.class);
+        when(firstContext.isCacheEnabled()).thenReturn(true);
+        when(firstContext.previousCache()).thenReturn(firstCache);
+        when(firstContext.nextCache()).thenReturn(firstCache);
+
+        final CheckstyleAuditListener listener = mockListener();
+        new CheckstyleExecutor(conf, listener).execute(firstContext);
+        final ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(listener, atLeast(1)).addError(captor.capture());
+        assertThat(captor.getValue().getSource())
+                .isNotInstanceOf(CheckstyleAnalysisCache.class);
+        verify(conf, times(0)).getCacheFile();
+
+        final CheckstyleAnalysisCacheTest.MapCache secondCache =
+                new CheckstyleAnalysisCacheTest.MapCache(firstCache.getWritten());
+        final SensorContext secondContext = mock(SensorContext.class);
+        when(secondContext.isCacheEnabled()).thenReturn(true);
+        when(secondContext.previousCache()).thenReturn(secondCache);
+        when(secondContext.nextCache()).thenReturn(secondCache);
+
+        final CheckstyleAuditListener cachedListener = mockListener();
+        new CheckstyleExecutor(conf, cachedListener).execute(secondContext);
+        final ArgumentCaptor<AuditEvent> cachedCaptor =
+                ArgumentCaptor.forClass(AuditEvent.class);
+        verify(cachedListener, times(captor.getAllValues().size()))
+                .addError(cachedCaptor.capture());
+        assertThat(cachedCaptor.getValue().getSource())
+                .isInstanceOf(CheckstyleAnalysisCache.class);
+        assertThat(secondCache.getWritten()).isEqualTo(firstCache.getWritten());
+    }
+
+    @Test
+    void analysisCacheRequiresProperty() throws CheckstyleException {
+        final CheckstyleConfiguration conf = mockPerFileConf();
+        final SensorContext cacheContext = mock(SensorContext.class);
+        when(cacheContext.isCacheEnabled()).thenReturn(true);
+
+        final CheckstyleStatistics statistics =
+                new CheckstyleExecutor(conf, mockListener()).execute(cacheContext);
+
+        assertThat(statistics.getAnalyzedFiles()).isEqualTo(2);
+        verify(cacheContext, times(0)).previousCache();
+        verify(cacheContext, times(0)).nextCache();
+        verify(conf, times(0)).getCacheFile();
+    }
+
+    @Test
+    void skipUnchangedFiles() throws CheckstyleException {
+        final CheckstyleConfiguration conf = mockConf();
+        final SensorContext pullRequestContext = mock(SensorContext.class);
+        when(pullRequestContext.canSkipUnchangedFiles()).thenReturn(true);
+        when(conf.getSourceFiles(true)).thenReturn(Collections.emptyList());
+
+        final CheckstyleAuditListener listener = mockListener();
+        new CheckstyleExecutor(conf, listener).execute(pullRequestContext);
+
+        verify(conf).getSourceFiles(true);
+        verify(listener, times(0)).fileStarted(any(AuditEvent.class));
+        verify(listener).auditFinished(any(AuditEvent.class));
+    }
+
     @Test
     void generateXmlReportNull() throws CheckstyleException {
         final CheckstyleConfiguration conf = mockConf();
@@ -176,27 +577,66 @@ class CheckstyleExecutorTest {
         final CheckstyleConfiguration conf = mock(CheckstyleConfiguration.class);
         when(conf.getCharset()).thenReturn(Charset.defaultCharset());
         when(conf.getCheckstyleConfiguration()).thenReturn(
-                CheckstyleConfiguration.toCheckstyleConfiguration(
-                        new File("test-resources/checkstyle-conf.xml")));
-
-        final File file = new File("test-resources/Hello.java");
-        final File file2 = new File("test-resources/World.java");
-        when(conf.getSourceFiles()).thenReturn(Arrays.asList(
-                new DefaultInputFile(
-                        new DefaultIndexedFile("",
-                                file.getParentFile().toPath(),
-                                file.getName(),
-                                "java"),
-                        DefaultInputFile::checkMetadata, DefaultInputFile::checkMetadata),
-                new DefaultInputFile(
-                        new DefaultIndexedFile("",
-                                file2.getParentFile().toPath(),
-                                file2.getName(),
-                                "java"),
-                        DefaultInputFile::checkMetadata, DefaultInputFile::checkMetadata)
-        ));
+                ConfigurationLoader.loadConfiguration("test-resources/checkstyle-conf.xml",
+                        new PropertiesExpander(new Properties())));
+
+        when(conf.getDurationHistoryFile()).thenReturn(
+                new File("target/test-tmp/checkstyle-durations.properties"));
+        when(conf.getSourceFiles(anyBoolean())).thenReturn(Arrays.asList(
+                inputFile(new File("test-resources/Hello.java")),
+                inputFile(new File("test-resources/World.java"))));
 
         return conf;
     }
 
+    private static CheckstyleConfiguration mockPerFileConf() throws CheckstyleException {
+        final CheckstyleConfiguration conf = mockConf();
+        when(conf.getCheckstyleConfiguration()).thenReturn(
+                treeWalkerConfiguration("EmptyStatement", "StringLiteralEquality"));
+        return conf;
+    }
+
+    /**
+     * Creates a configuration without any module depending on the other
+     * files, so that the files can be split between workers.
+     *
+     * @param modules The modules of the tree walker.
+     * @return The configuration.
+     */
+    private static DefaultConfiguration treeWalkerConfiguration(String... modules) {
+        final DefaultConfiguration checker = new DefaultConfiguration("Checker");
+        final DefaultConfiguration treeWalker = new DefaultConfiguration("TreeWalker");
+        for (String module : modules) {
+            treeWalker.addChild(new DefaultConfiguration(module));
+        }
+        checker.addChild(treeWalker);
+        return checker;
+    }
+
+    private static CheckstyleConfiguration mockDuplicatesConf()
+            throws CheckstyleException, IOException {
+        final File copy = new File("target/test-tmp/copy/Hello.java");
+        FileUtils.copyFile(new File("test-resources/Hello.java"), copy);
+        final CheckstyleConfiguration conf = mockConf();
+        when(conf.isDeduplicationEnabled()).thenReturn(true);
+        when(conf.getSourceFiles(anyBoolean())).thenReturn(Arrays.asList(
+                inputFile(new File("test-resources/Hello.java")),
+                inputFile(copy),
+                inputFile(new File("test-resources/World.java"))));
+        return conf;
+    }
+
+    private static InputFile inputFile(File file) {
+        try {
+            return new TestInputFileBuilder("", file.getParentFile(), file)
+                    .setLanguage("java")
+                    .setCharset(StandardCharsets.UTF_8)
+                    .initMetadata(FileUtils.readFileToString(file, StandardCharsets.UTF_8))
+                    .build();
+        }
+        catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
 }
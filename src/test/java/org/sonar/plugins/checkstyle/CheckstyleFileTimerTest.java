@@ -0,0 +1,130 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleFileTimerTest {
+
+    @TempDir
+    private File directory;
+
+    @Test
+    void timeFiles() {
+        final CheckstyleFileTimer timer = new CheckstyleFileTimer(0);
+        final String fileName = new File("Hello.java").getAbsolutePath();
+        final AuditEvent error = new AuditEvent(this, fileName, new Violation(1, "", "", null,
+                "", CheckstyleFileTimerTest.class, "msg"));
+        timer.auditStarted(new AuditEvent(this));
+        timer.fileStarted(new AuditEvent(this, fileName));
+        timer.addError(error);
+        timer.addError(error);
+        timer.addException(error, new IllegalArgumentException());
+        timer.fileFinished(new AuditEvent(this, fileName));
+        // events of a file not started are ignored
+        timer.addError(error);
+        timer.fileFinished(new AuditEvent(this, fileName));
+        timer.auditFinished(new AuditEvent(this));
+
+        assertThat(timer.getSlowestFiles()).hasSize(1);
+        final CheckstyleFileTimer.FileTiming timing = timer.getSlowestFiles().get(0);
+        assertThat(timing.path()).isEqualTo(fileName);
+        assertThat(timing.nanos()).isPositive();
+        assertThat(timing.issues()).isEqualTo(2);
+    }
+
+    @Test
+    void skipAbandonedFiles() {
+        final CheckstyleFileTimer timer = new CheckstyleFileTimer(0);
+        final String abandoned = new File("Abandoned.java").getAbsolutePath();
+        final String other = new File("Other.java").getAbsolutePath();
+        timer.fileStarted(new AuditEvent(this, abandoned));
+        timer.fileSkipped(abandoned);
+        timer.fileCompleted(List.of(new CheckstyleFileAudit(other, true)));
+        // the abandoned checker finishes the file later on
+        timer.fileFinished(new AuditEvent(this, abandoned));
+        timer.fileStarted(new AuditEvent(this, other));
+        timer.fileFinished(new AuditEvent(this, other));
+
+        assertThat(timer.getSlowestFiles())
+                .extracting(CheckstyleFileTimer.FileTiming::path)
+                .containsExactly(other);
+    }
+
+    @Test
+    void keepSlowestFiles() {
+        final CheckstyleFileTimer timer = new CheckstyleFileTimer(1);
+        final int files = CheckstyleFileTimer.MAX_FILES * 2;
+        for (int index = 0; index < files; index++) {
+            timer.record(new CheckstyleFileTimer.FileTiming("File" + index + ".java",
+                    TimeUnit.MICROSECONDS.toNanos(index * 100L), 0));
+        }
+
+        assertThat(timer.getSlowestFiles())
+                .hasSize(CheckstyleFileTimer.MAX_FILES)
+                .first()
+                .isEqualTo(new CheckstyleFileTimer.FileTiming("File" + (files - 1) + ".java",
+                        TimeUnit.MICROSECONDS.toNanos((files - 1) * 100L), 0));
+        assertThat(timer.getSlowestFiles().get(CheckstyleFileTimer.MAX_FILES - 1).path())
+                .isEqualTo("File" + CheckstyleFileTimer.MAX_FILES + ".java");
+    }
+
+    @Test
+    void writeReport() throws IOException {
+        final CheckstyleFileTimer timer = new CheckstyleFileTimer(0);
+        final File source = new File("test-resources/Hello.java");
+        timer.record(new CheckstyleFileTimer.FileTiming(source.getAbsolutePath(),
+                TimeUnit.MILLISECONDS.toNanos(30), 3));
+        timer.record(new CheckstyleFileTimer.FileTiming("World.java",
+                TimeUnit.MILLISECONDS.toNanos(20), 0));
+        final File report = new File(directory, "timing.json");
+        timer.writeReport(report);
+
+        final JsonNode json = new ObjectMapper().readTree(report);
+        assertThat(json.get("files").asLong()).isEqualTo(2);
+        assertThat(json.get("durationMs").asLong()).isEqualTo(50);
+        final JsonNode slowest = json.get("slowestFiles").get(0);
+        assertThat(slowest.get("path").asText()).isEqualTo(source.getAbsolutePath());
+        assertThat(slowest.get("durationMs").asLong()).isEqualTo(30);
+        assertThat(slowest.get("size").asLong()).isEqualTo(source.length());
+        assertThat(slowest.get("issues").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    void writeReportFailure() {
+        final CheckstyleFileTimer timer = new CheckstyleFileTimer(0);
+        // a directory can not be written as a file
+        timer.writeReport(directory);
+
+        assertThat(directory).isDirectory();
+    }
+}
@@ -0,0 +1,75 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+class CheckstyleInputFileIndexTest {
+
+    private final File baseDir = new File("src/test").getAbsoluteFile();
+
+    @Test
+    void findAllFiles() {
+        final List<InputFile> inputFiles = new ArrayList<>();
+        for (int index = 0; index < 1000; index++) {
+            inputFiles.add(inputFile("dir" + index % 10 + "/File" + index + ".java"));
+        }
+        final CheckstyleInputFileIndex index = new CheckstyleInputFileIndex(inputFiles);
+
+        for (InputFile inputFile : inputFiles) {
+            assertThat(index.get(new File(inputFile.uri()).getAbsolutePath()))
+                    .isSameAs(inputFile);
+        }
+        assertThat(index.get(new File(baseDir, "Unknown.java").getAbsolutePath())).isNull();
+    }
+
+    @Test
+    void sameHashCode() {
+        // "Aa" and "BB" have the same hash code
+        final InputFile first = inputFile("Aa.java");
+        final InputFile second = inputFile("BB.java");
+        final CheckstyleInputFileIndex index = new CheckstyleInputFileIndex(
+                List.of(first, second));
+
+        assertThat(index.get(new File(baseDir, "Aa.java").getAbsolutePath())).isSameAs(first);
+        assertThat(index.get(new File(baseDir, "BB.java").getAbsolutePath())).isSameAs(second);
+        assertThat(index.get(new File(baseDir, "Ab.java").getAbsolutePath())).isNull();
+    }
+
+    @Test
+    void emptyIndex() {
+        final CheckstyleInputFileIndex index =
+                new CheckstyleInputFileIndex(Collections.emptyList());
+        assertThat(index.get(new File(baseDir, "File.java").getAbsolutePath())).isNull();
+    }
+
+    private InputFile inputFile(String relativePath) {
+        return new TestInputFileBuilder("", baseDir, new File(baseDir, relativePath)).build();
+    }
+}
@@ -0,0 +1,106 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class CheckstyleIssueSinkTest {
+
+    @Test
+    void runBatchesInOrder() {
+        final List<Integer> batches = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        final CheckstyleIssueSink sink = new CheckstyleIssueSink(2);
+        sink.start();
+        for (int index = 0; index < 100; index++) {
+            final int batch = index;
+            sink.submit(() -> {
+                batches.add(batch);
+                threads.add(Thread.currentThread().getName());
+            });
+        }
+        sink.stop();
+
+        assertThat(batches).hasSize(100).isSorted();
+        assertThat(threads).containsOnly("checkstyle-issue-sink");
+    }
+
+    @Test
+    void failure() {
+        final IllegalArgumentException failure = new IllegalArgumentException("failure");
+        final AtomicBoolean ranAfterFailure = new AtomicBoolean();
+        final CountDownLatch failed = new CountDownLatch(1);
+        final CheckstyleIssueSink sink = new CheckstyleIssueSink(4);
+        sink.start();
+        sink.submit(() -> {
+            failed.countDown();
+            throw failure;
+        });
+        sink.submit(() -> ranAfterFailure.set(true));
+        await(failed);
+
+        assertThatThrownBy(sink::stop)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Fail to save Checkstyle issues")
+                .hasCause(failure);
+        assertThatThrownBy(() -> sink.submit(() -> ranAfterFailure.set(true)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCause(failure);
+        assertThat(ranAfterFailure).isFalse();
+    }
+
+    @Test
+    void interruptedSubmit() {
+        final CheckstyleIssueSink sink = new CheckstyleIssueSink(4);
+        sink.start();
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> sink.submit(() -> {
+                // never run
+            }))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Interrupted while saving Checkstyle issues");
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        }
+        finally {
+            Thread.interrupted();
+        }
+        sink.stop();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class CheckstyleJfrEventsTest {
+
+    @TempDir
+    private File directory;
+
+    @Test
+    void recordEvents() throws IOException {
+        final File file = new File(directory, "Hello.java");
+        Files.writeString(file.toPath(), "class Hello {}", StandardCharsets.UTF_8);
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(CheckstyleJfrEvents.ConfigurationEvent.class);
+            recording.enable(CheckstyleJfrEvents.CheckerConfigureEvent.class);
+            recording.enable(CheckstyleJfrEvents.FileEvent.class);
+            recording.enable(CheckstyleJfrEvents.IssuesEvent.class);
+            recording.enable(CheckstyleJfrEvents.ReportEvent.class);
+            recording.start();
+            emitEvents(file);
+            recording.stop();
+            final Path dump = new File(directory, "checkstyle.jfr").toPath();
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+        }
+
+        assertThat(events)
+                .extracting(event -> event.getEventType().getName())
+                .containsExactlyInAnyOrder("org.sonar.checkstyle.Configuration",
+                        "org.sonar.checkstyle.CheckerConfigure",
+                        "org.sonar.checkstyle.File",
+                        "org.sonar.checkstyle.Issues",
+                        "org.sonar.checkstyle.Report");
+        final RecordedEvent configurationEvent = getEvent(events, "Configuration");
+        assertThat(configurationEvent.getString("hash")).isEqualTo("hash");
+        assertThat(configurationEvent.getBoolean("reused")).isTrue();
+        final RecordedEvent fileEvent = getEvent(events, "File");
+        assertThat(fileEvent.getString("path")).isEqualTo(file.getAbsolutePath());
+        assertThat(fileEvent.getLong("size")).isEqualTo(file.length());
+        assertThat(fileEvent.getInt("issues")).isEqualTo(2);
+        assertThat(fileEvent.getStackTrace()).isNull();
+        final RecordedEvent issuesEvent = getEvent(events, "Issues");
+        assertThat(issuesEvent.getString("file")).isEqualTo("Hello.java");
+        assertThat(issuesEvent.getInt("issues")).isEqualTo(3);
+        assertThat(getEvent(events, "Report").getString("report")).isEqualTo("XMLLogger");
+    }
+
+    @Test
+    void skipEventsWithoutRecording() {
+        // nothing is recorded, the events only check that they are disabled
+        emitEvents(new File(directory, "Hello.java"));
+
+        assertThat(new CheckstyleJfrEvents.FileEvent().isEnabled()).isFalse();
+    }
+
+    @Test
+    void privateConstructor() throws ReflectiveOperationException {
+        final Constructor<CheckstyleJfrEvents> constructor = CheckstyleJfrEvents.class
+                .getDeclaredConstructor();
+        assertThat(Modifier.isPrivate(constructor.getModifiers())).isTrue();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    private static RecordedEvent getEvent(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName()
+                        .equals("org.sonar.checkstyle." + name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void emitEvents(File file) {
+        final CheckstyleJfrEvents.ConfigurationEvent configurationEvent =
+                new CheckstyleJfrEvents.ConfigurationEvent();
+        configurationEvent.begin();
+        configurationEvent.commitWith("hash", true);
+
+        final CheckstyleJfrEvents.CheckerConfigureEvent configureEvent =
+                new CheckstyleJfrEvents.CheckerConfigureEvent();
+        configureEvent.begin();
+        configureEvent.commit();
+
+        final String fileName = file.getAbsolutePath();
+        final AuditEvent error = new AuditEvent(CheckstyleJfrEventsTest.class, fileName,
+                new Violation(1, "", "", null, "", CheckstyleJfrEventsTest.class, "msg"));
+        final CheckstyleJfrEvents.FileListener listener = new CheckstyleJfrEvents.FileListener();
+        listener.auditStarted(new AuditEvent(CheckstyleJfrEventsTest.class));
+        listener.fileStarted(new AuditEvent(CheckstyleJfrEventsTest.class, fileName));
+        listener.addError(error);
+        listener.addError(error);
+        listener.addException(error, new IllegalArgumentException());
+        listener.fileFinished(new AuditEvent(CheckstyleJfrEventsTest.class, fileName));
+        // events of a file not started are ignored
+        listener.addError(error);
+        listener.fileFinished(new AuditEvent(CheckstyleJfrEventsTest.class, fileName));
+        listener.auditFinished(new AuditEvent(CheckstyleJfrEventsTest.class));
+
+        final CheckstyleJfrEvents.IssuesEvent issuesEvent = new CheckstyleJfrEvents.IssuesEvent();
+        issuesEvent.begin();
+        issuesEvent.commitWith("Hello.java", 3);
+
+        final CheckstyleJfrEvents.ReportEvent reportEvent = new CheckstyleJfrEvents.ReportEvent();
+        reportEvent.begin();
+        reportEvent.commitWith("XMLLogger");
+    }
+}
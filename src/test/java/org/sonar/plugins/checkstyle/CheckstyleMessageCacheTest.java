@@ -0,0 +1,94 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleMessageCacheTest {
+
+    @Test
+    void formatEqualMessagesOnce() {
+        final CheckstyleMessageCache cache = new CheckstyleMessageCache(10);
+        final String first = cache.getMessage(newEvent(1, "x"));
+        final String second = cache.getMessage(newEvent(2, "x"));
+        final String other = cache.getMessage(newEvent(1, "y"));
+
+        assertThat(first).isEqualTo("Don't use 'x' here.");
+        assertThat(second).isSameAs(first);
+        assertThat(other).isEqualTo("Don't use 'y' here.");
+        assertThat(CheckstyleMessageCache.findFields(Violation.class)).hasSize(5);
+    }
+
+    @Test
+    void formatMessagesBeyondMaximum() {
+        final CheckstyleMessageCache cache = new CheckstyleMessageCache(1);
+        final String first = cache.getMessage(newEvent(1, "x"));
+        final String other = cache.getMessage(newEvent(1, "y"));
+
+        assertThat(cache.getMessage(newEvent(2, "x"))).isSameAs(first);
+        assertThat(cache.getMessage(newEvent(2, "y")))
+                .isEqualTo(other)
+                .isNotSameAs(other);
+    }
+
+    @Test
+    void formatEveryMessageWithoutFields() {
+        final List<VarHandle> fields =
+                CheckstyleMessageCache.findFields(Object.class);
+        final CheckstyleMessageCache cache = new CheckstyleMessageCache(10, fields);
+        final String first = cache.getMessage(newEvent(1, "x"));
+
+        assertThat(fields).isEmpty();
+        assertThat(cache.getMessage(newEvent(2, "x")))
+                .isEqualTo(first)
+                .isNotSameAs(first);
+    }
+
+    @Test
+    void invalidMessage() {
+        final CheckstyleMessageCache cache = new CheckstyleMessageCache(10);
+        final AuditEvent event = new AuditEvent(this, "Hello.java", new Violation(1, 0, null,
+                null, null, SeverityLevel.WARNING, "id", CheckstyleMessageCacheTest.class,
+                "Unmatched {0"));
+
+        assertThat(cache.getMessage(event)).isNull();
+        assertThat(cache.getMessage(event)).isNull();
+    }
+
+    @Test
+    void eventWithoutViolation() {
+        assertThat(new CheckstyleMessageCache(10).getMessage(new AuditEvent(this, "Hello.java")))
+                .isNull();
+    }
+
+    private AuditEvent newEvent(int line, String argument) {
+        return new AuditEvent(this, "Hello.java", new Violation(line, 0, null, null,
+                new Object[] {argument}, SeverityLevel.WARNING, "id",
+                CheckstyleMessageCacheTest.class, "Don''t use ''{0}'' here."));
+    }
+}
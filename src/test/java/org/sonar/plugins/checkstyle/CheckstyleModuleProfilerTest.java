@@ -0,0 +1,224 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleModuleProfilerTest {
+
+    @TempDir
+    private File directory;
+
+    @Test
+    void profileEachModule() throws CheckstyleException {
+        final DefaultConfiguration root = new DefaultConfiguration("Checker");
+        root.addProperty("charset", "UTF-8");
+        final DefaultConfiguration treeWalker = new DefaultConfiguration("TreeWalker");
+        final DefaultConfiguration emptyStatement = new DefaultConfiguration("EmptyStatement");
+        emptyStatement.addProperty("id", "emptyStatementTemplate");
+        treeWalker.addChild(emptyStatement);
+        final DefaultConfiguration emptyBlock = new DefaultConfiguration("EmptyBlock");
+        emptyBlock.addProperty("tokens", "LITERAL_IF");
+        treeWalker.addChild(emptyBlock);
+        treeWalker.addChild(new DefaultConfiguration("SuppressionCommentFilter"));
+        root.addChild(treeWalker);
+        root.addChild(new DefaultConfiguration("FileLength"));
+        root.addMessage("key", "message");
+
+        final CheckstyleModuleProfiler.Profile profile =
+                new CheckstyleModuleProfiler((configuration, listener) -> {
+                    assertThat(configuration.getChildren()).hasSize(1);
+                    assertThat(configuration.getMessages()).containsEntry("key", "message");
+                    final Checker checker = new Checker();
+                    checker.setModuleClassLoader(Checker.class.getClassLoader());
+                    checker.addListener(listener);
+                    checker.configure(configuration);
+                    return checker;
+                }).profile(root, List.of(new File("test-resources/Hello.java")));
+
+        assertThat(profile.sampledFiles()).isEqualTo(1);
+        assertThat(profile.analyzedFiles()).isEqualTo(1);
+        final List<CheckstyleModuleProfiler.ModuleProfile> modules = profile.modules();
+        assertThat(modules).extracting(CheckstyleModuleProfiler.ModuleProfile::id)
+                .containsExactlyInAnyOrder("emptyStatementTemplate", "EmptyBlock",
+                        "SuppressionCommentFilter", "FileLength");
+        assertThat(modules).isSortedAccordingTo((first, second) ->
+                Long.compare(second.nanos(), first.nanos()));
+        final CheckstyleModuleProfiler.ModuleProfile emptyStatementProfile =
+                findModule(modules, "emptyStatementTemplate");
+        assertThat(emptyStatementProfile.name()).isEqualTo("EmptyStatement");
+        assertThat(emptyStatementProfile.files()).isEqualTo(1);
+        assertThat(emptyStatementProfile.issues()).isPositive();
+        // the two empty statements of the file
+        assertThat(emptyStatementProfile.invocations()).isEqualTo(2);
+        // the single if statement of the file
+        assertThat(findModule(modules, "EmptyBlock").invocations()).isEqualTo(1);
+        // the filter and the checks outside of the tree walker count the files
+        assertThat(findModule(modules, "SuppressionCommentFilter").invocations())
+                .isEqualTo(1);
+        assertThat(findModule(modules, "FileLength").invocations()).isEqualTo(1);
+    }
+
+    @Test
+    void profileSampleOfFiles() throws CheckstyleException {
+        final DefaultConfiguration root = new DefaultConfiguration("Checker");
+        root.addChild(new DefaultConfiguration("FileLength"));
+        final List<File> files = List.of(new File("first.java"), new File("second.java"),
+                new File("third.java"), new File("fourth.java"), new File("fifth.java"));
+        final Checker checker = mock(Checker.class);
+        final AuditListener[] counter = new AuditListener[1];
+        when(checker.process(anyList())).thenAnswer(invocation -> {
+            final List<File> processed = invocation.getArgument(0);
+            assertThat(processed).containsExactly(new File("first.java"),
+                    new File("third.java"));
+            counter[0].fileStarted(new AuditEvent(this, "first.java"));
+            counter[0].addError(new AuditEvent(this, "first.java", new Violation(1, "", "",
+                    null, "", CheckstyleModuleProfilerTest.class, "msg")));
+            counter[0].addException(new AuditEvent(this, "first.java"),
+                    new IllegalStateException());
+            counter[0].fileFinished(new AuditEvent(this, "first.java"));
+            counter[0].fileStarted(new AuditEvent(this, "third.java"));
+            counter[0].fileFinished(new AuditEvent(this, "third.java"));
+            return 1;
+        });
+
+        final CheckstyleModuleProfiler.Profile profile =
+                new CheckstyleModuleProfiler((configuration, listener) -> {
+                    counter[0] = listener;
+                    return checker;
+                }, 2).profile(root, files);
+
+        assertThat(profile.sampledFiles()).isEqualTo(2);
+        assertThat(profile.analyzedFiles()).isEqualTo(5);
+        assertThat(profile.modules()).singleElement().satisfies(module -> {
+            assertThat(module.id()).isEqualTo("FileLength");
+            assertThat(module.invocations()).isEqualTo(2);
+            assertThat(module.files()).isEqualTo(2);
+            assertThat(module.issues()).isEqualTo(1);
+        });
+        verify(checker).destroy();
+    }
+
+    @Test
+    void profileFailure() throws CheckstyleException {
+        final DefaultConfiguration root = new DefaultConfiguration("Checker");
+        root.addChild(new DefaultConfiguration("FileLength"));
+        final Checker checker = mock(Checker.class);
+        when(checker.process(anyList())).thenThrow(new CheckstyleException("failure"));
+        final CheckstyleModuleProfiler profiler =
+                new CheckstyleModuleProfiler((configuration, listener) -> checker);
+        final List<File> files = List.of(new File("test-resources/Hello.java"));
+
+        final CheckstyleException exception = Assertions.assertThrows(
+                CheckstyleException.class, () -> profiler.profile(root, files));
+        assertThat(exception.getMessage()).isEqualTo("failure");
+        verify(checker).destroy();
+    }
+
+    @Test
+    void countTokens() {
+        final Map<Integer, Long> tokens = CheckstyleModuleProfiler.countTokens(List.of(
+                new File("test-resources/Hello.java"),
+                new File("test-resources/checkstyle-conf.xml"),
+                new File("test-resources/Missing.java")));
+
+        assertThat(tokens)
+                .containsEntry(TokenTypes.CLASS_DEF, 1L)
+                .containsEntry(TokenTypes.LITERAL_IF, 1L)
+                .containsEntry(TokenTypes.EMPTY_STAT, 2L)
+                .doesNotContainKey(TokenTypes.LITERAL_WHILE);
+    }
+
+    @Test
+    void sample() {
+        final List<File> files = List.of(new File("0"), new File("1"), new File("2"),
+                new File("3"), new File("4"), new File("5"), new File("6"));
+
+        assertThat(CheckstyleModuleProfiler.sample(files, 3))
+                .containsExactly(new File("0"), new File("2"), new File("4"));
+        assertThat(CheckstyleModuleProfiler.sample(files, 7)).isSameAs(files);
+        assertThat(CheckstyleModuleProfiler.sample(files, 10)).isSameAs(files);
+    }
+
+    @Test
+    void writeReport() throws IOException {
+        final File report = new File(directory, "profile.json");
+        CheckstyleModuleProfiler.writeReport(new CheckstyleModuleProfiler.Profile(List.of(
+                new CheckstyleModuleProfiler.ModuleProfile("template", "RegexpSingleline",
+                        TimeUnit.MILLISECONDS.toNanos(40), 2, 2, 5),
+                new CheckstyleModuleProfiler.ModuleProfile("EmptyBlock", "EmptyBlock",
+                        TimeUnit.MILLISECONDS.toNanos(10), 30, 2, 0)), 2, 1000), report);
+
+        final JsonNode root = new ObjectMapper().readTree(report);
+        assertThat(root.get("sampledFiles").asInt()).isEqualTo(2);
+        assertThat(root.get("analyzedFiles").asInt()).isEqualTo(1000);
+        assertThat(root.get("note").asText()).contains("without the filters")
+                .contains("at most " + CheckstyleModuleProfiler.SAMPLED_FILES + " files");
+        final JsonNode modules = root.get("modules");
+        assertThat(modules).hasSize(2);
+        assertThat(modules.get(0).get("id").asText()).isEqualTo("template");
+        assertThat(modules.get(0).get("name").asText()).isEqualTo("RegexpSingleline");
+        assertThat(modules.get(0).get("durationMs").asLong()).isEqualTo(40);
+        assertThat(modules.get(0).get("invocations").asLong()).isEqualTo(2);
+        assertThat(modules.get(1).get("invocations").asLong()).isEqualTo(30);
+        assertThat(modules.get(0).get("files").asInt()).isEqualTo(2);
+        assertThat(modules.get(0).get("issues").asInt()).isEqualTo(5);
+    }
+
+    @Test
+    void writeReportFailure() {
+        // a directory can not be written as a file
+        CheckstyleModuleProfiler.writeReport(
+                new CheckstyleModuleProfiler.Profile(List.of(), 0, 0), directory);
+
+        assertThat(directory).isDirectory();
+    }
+
+    private static CheckstyleModuleProfiler.ModuleProfile findModule(
+            List<CheckstyleModuleProfiler.ModuleProfile> modules, String id) {
+        return modules.stream()
+                .filter(module -> id.equals(module.id()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,99 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+import org.junit.jupiter.api.Test;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+
+class CheckstyleModuleScopeTest {
+
+    @Test
+    void privateConstructor() throws ReflectiveOperationException {
+        final Constructor<CheckstyleModuleScope> constructor = CheckstyleModuleScope.class
+                .getDeclaredConstructor();
+        assertThat(Modifier.isPrivate(constructor.getModifiers())).isTrue();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    void findCrossFileModule() {
+        final DefaultConfiguration checker = new DefaultConfiguration("Checker");
+        final DefaultConfiguration treeWalker = new DefaultConfiguration("TreeWalker");
+        treeWalker.addChild(new DefaultConfiguration("PackageDeclaration"));
+        checker.addChild(treeWalker);
+        assertThat(CheckstyleModuleScope.findCrossFileModule(checker)).isNull();
+
+        checker.addChild(new DefaultConfiguration("JavadocPackageCheck"));
+        assertThat(CheckstyleModuleScope.findCrossFileModule(checker))
+                .isEqualTo("JavadocPackageCheck");
+        assertThat(CheckstyleModuleScope.findCrossFileModule(new DefaultConfiguration(
+                "com.puppycrawl.tools.checkstyle.checks.TranslationCheck")))
+                .isEqualTo("com.puppycrawl.tools.checkstyle.checks.TranslationCheck");
+    }
+
+    @Test
+    void findPathDependentModule() {
+        final DefaultConfiguration checker = new DefaultConfiguration("Checker");
+        final DefaultConfiguration treeWalker = new DefaultConfiguration("TreeWalker");
+        treeWalker.addChild(new DefaultConfiguration("EmptyStatement"));
+        treeWalker.addChild(new DefaultConfiguration("OuterTypeFilenameCheck"));
+        treeWalker.addChild(new DefaultConfiguration(
+                "com.puppycrawl.tools.checkstyle.checks.coding.MagicNumberCheck"));
+        checker.addChild(treeWalker);
+        checker.addChild(new DefaultConfiguration("SuppressWarningsFilter"));
+        assertThat(CheckstyleModuleScope.findPathDependentModule(checker)).isNull();
+
+        final DefaultConfiguration packageDeclaration =
+                new DefaultConfiguration("PackageDeclaration");
+        treeWalker.addChild(packageDeclaration);
+        assertThat(CheckstyleModuleScope.findPathDependentModule(checker))
+                .isEqualTo("PackageDeclaration");
+
+        checker.addChild(new DefaultConfiguration(
+                "com.puppycrawl.tools.checkstyle.checks.regexp.RegexpOnFilenameCheck"));
+        assertThat(CheckstyleModuleScope.findPathDependentModule(checker))
+                .isEqualTo("PackageDeclaration");
+        assertThat(CheckstyleModuleScope.findPathDependentModule(new DefaultConfiguration(
+                "com.puppycrawl.tools.checkstyle.checks.regexp.RegexpOnFilenameCheck")))
+                .isEqualTo("com.puppycrawl.tools.checkstyle.checks.regexp.RegexpOnFilenameCheck");
+        assertThat(CheckstyleModuleScope.findPathDependentModule(
+                new DefaultConfiguration("SuppressionFilter")))
+                .isEqualTo("SuppressionFilter");
+    }
+
+    @Test
+    void findUnknownModuleAsPathDependent() {
+        assertThat(CheckstyleModuleScope.findPathDependentModule(
+                new DefaultConfiguration("ImportControl")))
+                .isEqualTo("ImportControl");
+        assertThat(CheckstyleModuleScope.findPathDependentModule(
+                new DefaultConfiguration("com.example.FileNameCheck")))
+                .isEqualTo("com.example.FileNameCheck");
+        assertThat(CheckstyleModuleScope.findPathDependentModule(
+                new DefaultConfiguration("com.example.LineLengthCheck")))
+                .isEqualTo("com.example.LineLengthCheck");
+    }
+}
@@ -32,7 +32,7 @@ class CheckstylePluginTest {
 
     @Test
     void testGetExtensions() {
-        assertThat(CheckstylePlugin.getExtensions().size()).isEqualTo(9);
+        assertThat(CheckstylePlugin.getExtensions().size()).isEqualTo(29);
     }
 
     @Test
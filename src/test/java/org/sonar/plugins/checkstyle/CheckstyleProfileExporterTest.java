@@ -20,6 +20,7 @@
 package org.sonar.plugins.checkstyle;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -28,6 +29,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -47,6 +49,11 @@ import org.sonar.api.config.internal.ConfigurationBridge;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.System2;
+import org.xml.sax.InputSource;
+
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 
 class CheckstyleProfileExporterTest {
 
@@ -137,6 +144,39 @@ class CheckstyleProfileExporterTest {
                 sanitizeForTests(writer.toString()));
     }
 
+    @Test
+    void exportIsIndependentOfActiveRulesOrder() {
+        final List<ActiveRule> rules = new ArrayList<>();
+        rules.add(new TestActiveRule(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                "com.puppycrawl.tools.checkstyle.checks.whitespace.FileTabCharacterCheck"),
+                "Checker/FileTabCharacter", null, null));
+        rules.add(testActiveRule);
+        rules.add(new TestActiveRule(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                "com.puppycrawl.tools.checkstyle.checks.naming.MemberNameCheck"),
+                "Checker/TreeWalker/MemberName", null, "^[a-z]$"));
+        rules.add(new TestActiveRule(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                "com.puppycrawl.tools.checkstyle.checks.naming.MemberNameCheck_1"),
+                "Checker/TreeWalker/MemberName", "TEMPLATE", "^m[A-Z]$"));
+        final ActiveRules activeRules = Mockito.mock(ActiveRules.class);
+        Mockito.when(activeRules.findByRepository(CheckstyleConstants.REPOSITORY_KEY))
+                .thenReturn(rules);
+        final StringWriter writer = new StringWriter();
+        new CheckstyleProfileExporter(settings).exportProfile(activeRules, writer);
+
+        final List<ActiveRule> reversedRules = new ArrayList<>(rules);
+        Collections.reverse(reversedRules);
+        final ActiveRules reversedActiveRules = Mockito.mock(ActiveRules.class);
+        Mockito.when(reversedActiveRules.findByRepository(CheckstyleConstants.REPOSITORY_KEY))
+                .thenReturn(reversedRules);
+        final StringWriter reversedWriter = new StringWriter();
+        new CheckstyleProfileExporter(settings).exportProfile(reversedActiveRules,
+                reversedWriter);
+
+        Assertions.assertThat(reversedWriter.toString()).isEqualTo(writer.toString());
+        Assertions.assertThat(writer.toString()).containsSubsequence(
+                "FileTabCharacter", "JavadocPackage", "^[a-z]$", "^m[A-Z]$");
+    }
+
     @Test
     void noCheckstyleTemplateActiveRulesToExport() {
         final ActiveRules activeRules = Mockito.mock(ActiveRules.class);
@@ -240,6 +280,112 @@ class CheckstyleProfileExporterTest {
                         + "addTabWidthProperty.xml", sanitizeForTests(writer.toString()));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    void exportConfigurationLikeXml() throws CheckstyleException {
+        final MapSettings mapSettings = new MapSettings(
+                new PropertyDefinitions(System2.INSTANCE, CheckstylePlugin.getExtensions()));
+        mapSettings.setProperty(CheckstyleConstants.CHECKER_TAB_WIDTH, "8");
+        mapSettings.setProperty(CheckstyleConstants.CHECKER_FILTERS_KEY,
+                "<property name=\"fileExtensions\" value=\"java\"/>"
+                        + "<module name=\"SuppressWarningsFilter\" />"
+                        + "<module name=\"SuppressWithNearbyCommentFilter\">"
+                        + "<property name=\"checkFormat\" value=\"$$1\"/>"
+                        + "<message key=\"name.invalidPattern\" value=\"Invalid\"/>"
+                        + "</module>");
+        mapSettings.setProperty(CheckstyleConstants.TREEWALKER_FILTERS_KEY,
+                "<module name=\"SuppressionCommentFilter\" />");
+        settings = new ConfigurationBridge(mapSettings);
+
+        final List<ActiveRule> rules = new ArrayList<>();
+        rules.add(testActiveRule);
+        rules.add(new TestActiveRule(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                "com.puppycrawl.tools.checkstyle.checks.whitespace.FileTabCharacterCheck"),
+                "Checker/FileTabCharacter", null, ""));
+        rules.add(new TestActiveRule(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                "com.puppycrawl.tools.checkstyle.checks.naming.MemberNameCheck"),
+                "Checker/TreeWalker/MemberName", null, "^[a-z]$$\r\n<&>\t\u0001\""));
+        rules.add(new TestActiveRule(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                "com.puppycrawl.tools.checkstyle.checks.naming.ConstantNameCheck"),
+                "Checker/TreeWalker/ConstantName", "TEMPLATE", "^[A-Z]+$"));
+        final ActiveRules activeRules = Mockito.mock(ActiveRules.class);
+        Mockito.when(activeRules.findByRepository(CheckstyleConstants.REPOSITORY_KEY))
+                .thenReturn(rules);
+
+        assertSameConfiguration(activeRules);
+    }
+
+    @Test
+    void exportConfigurationWithoutFilters() throws CheckstyleException {
+        initSettings(CheckstyleConstants.TREEWALKER_FILTERS_KEY, "");
+        final ActiveRules activeRules = Mockito.mock(ActiveRules.class);
+        Mockito.when(activeRules.findByRepository(CheckstyleConstants.REPOSITORY_KEY))
+                .thenReturn(Collections.singletonList(testActiveRule));
+
+        assertSameConfiguration(activeRules);
+    }
+
+    @Test
+    void exportConfigurationWithUndefinedProperty() {
+        final ActiveRules activeRules = Mockito.mock(ActiveRules.class);
+        Mockito.when(activeRules.findByRepository(CheckstyleConstants.REPOSITORY_KEY))
+                .thenReturn(Collections.singletonList(new TestActiveRule(
+                        RuleKey.of(CheckstyleConstants.REPOSITORY_KEY,
+                        "com.puppycrawl.tools.checkstyle.checks.naming.MemberNameCheck"),
+                        "Checker/TreeWalker/MemberName", null, "${undefined}")));
+
+        Assertions.assertThatThrownBy(() -> new CheckstyleProfileExporter(settings)
+                .exportConfiguration(activeRules))
+                .isInstanceOf(CheckstyleException.class)
+                .hasMessage("Property ${undefined} has not been set");
+    }
+
+    @Test
+    void expandProperties() throws CheckstyleException {
+        Assertions.assertThat(CheckstyleProfileExporter.expandProperties("a$$b$c$"))
+                .isEqualTo("a$b$c$");
+        Assertions.assertThatThrownBy(() -> CheckstyleProfileExporter
+                .expandProperties("a${b"))
+                .isInstanceOf(CheckstyleException.class)
+                .hasMessage("Syntax error in property: a${b");
+    }
+
+    @Test
+    void normalizeValue() {
+        Assertions.assertThat(CheckstyleProfileExporter
+                .normalizeValue("a\r\nb\rc\nd\te\u0001f")).isEqualTo("a b c d ef");
+    }
+
+    private void assertSameConfiguration(ActiveRules activeRules) throws CheckstyleException {
+        final CheckstyleProfileExporter exporter = new CheckstyleProfileExporter(settings);
+        final StringWriter writer = new StringWriter();
+        exporter.exportProfile(activeRules, writer);
+        final com.puppycrawl.tools.checkstyle.api.Configuration expected =
+                ConfigurationLoader.loadConfiguration(
+                        new InputSource(new StringReader(writer.toString())),
+                        new PropertiesExpander(new Properties()),
+                        ConfigurationLoader.IgnoredModulesOptions.EXECUTE);
+
+        assertSameModule(expected, exporter.exportConfiguration(activeRules));
+    }
+
+    private static void assertSameModule(
+            com.puppycrawl.tools.checkstyle.api.Configuration expected,
+            com.puppycrawl.tools.checkstyle.api.Configuration actual) throws CheckstyleException {
+        Assertions.assertThat(actual.getName()).isEqualTo(expected.getName());
+        Assertions.assertThat(actual.getPropertyNames())
+                .containsExactlyInAnyOrder(expected.getPropertyNames());
+        for (String propertyName : expected.getPropertyNames()) {
+            Assertions.assertThat(actual.getProperty(propertyName))
+                    .isEqualTo(expected.getProperty(propertyName));
+        }
+        Assertions.assertThat(actual.getMessages()).isEqualTo(expected.getMessages());
+        Assertions.assertThat(actual.getChildren()).hasSameSizeAs(expected.getChildren());
+        for (int index = 0; index < expected.getChildren().length; index++) {
+            assertSameModule(expected.getChildren()[index], actual.getChildren()[index]);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private void initSettings(@Nullable String key, @Nullable String property) {
         final MapSettings mapSettings = new MapSettings(
@@ -0,0 +1,131 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleProgressReporterTest {
+
+    @Test
+    void reportProgress() {
+        try (CheckstyleProgressReporter progress = new CheckstyleProgressReporter(0)) {
+            progress.start(4);
+            assertThat(progress.getProgress())
+                    .startsWith("Checkstyle progress: 0/4 files, 0.0 files/s, 0 violations,")
+                    .endsWith("estimated finish at unknown");
+
+            final AuditEvent error = new AuditEvent(this, "Hello.java", new Violation(1, "", "",
+                    null, "", CheckstyleProgressReporterTest.class, "msg"));
+            progress.auditStarted(new AuditEvent(this));
+            progress.fileStarted(new AuditEvent(this, "Hello.java"));
+            progress.addError(error);
+            progress.addError(error);
+            progress.addException(error, new IllegalArgumentException());
+            progress.fileFinished(new AuditEvent(this, "Hello.java"));
+            progress.auditFinished(new AuditEvent(this));
+
+            assertThat(progress.getProgress())
+                    .startsWith("Checkstyle progress: 1/4 files, ")
+                    .contains(" files/s, 2 violations, 0 skipped files, estimated finish at ")
+                    .doesNotEndWith("unknown");
+        }
+    }
+
+    @Test
+    void countSkippedFilesAsDone() {
+        try (CheckstyleProgressReporter progress = new CheckstyleProgressReporter(0)) {
+            progress.start(2);
+            progress.fileFinished(new AuditEvent(this, "Hello.java"));
+            progress.fileSkipped("Slow.java");
+
+            assertThat(progress.getProgress())
+                    .startsWith("Checkstyle progress: 2/2 files, ")
+                    .contains(" 0 violations, 1 skipped files, ");
+        }
+    }
+
+    @Test
+    void countCompletedFiles() {
+        try (CheckstyleProgressReporter progress = new CheckstyleProgressReporter(0)) {
+            progress.start(3);
+            final CheckstyleFileAudit audit = new CheckstyleFileAudit("Hello.java", true);
+            audit.addError(new AuditEvent(this, "Hello.java", new Violation(1, "", "",
+                    null, "", CheckstyleProgressReporterTest.class, "msg")));
+            final CheckstyleFileAudit outsideFile = new CheckstyleFileAudit("World.java", false);
+            outsideFile.addError(new AuditEvent(this, "World.java", new Violation(1, "", "",
+                    null, "", CheckstyleProgressReporterTest.class, "msg")));
+            progress.fileCompleted(List.of(audit, outsideFile));
+            progress.fileCompleted(List.of());
+
+            assertThat(progress.getProgress())
+                    .startsWith("Checkstyle progress: 1/3 files, ")
+                    .contains(" 2 violations, 0 skipped files, ");
+        }
+    }
+
+    @Test
+    void summarizePhases() {
+        final CheckstyleProgressReporter progress = new CheckstyleProgressReporter(0);
+        progress.addPhase(CheckstyleProgressReporter.Phase.CONFIG_EXPORT,
+                TimeUnit.MILLISECONDS.toNanos(12));
+        progress.addPhase(CheckstyleProgressReporter.Phase.CONFIGURE,
+                TimeUnit.MILLISECONDS.toNanos(3));
+        progress.addPhase(CheckstyleProgressReporter.Phase.CONFIGURE,
+                TimeUnit.MILLISECONDS.toNanos(4));
+        progress.addPhase(CheckstyleProgressReporter.Phase.CHECK,
+                TimeUnit.MILLISECONDS.toNanos(1500));
+
+        assertThat(progress.getPhase(CheckstyleProgressReporter.Phase.CONFIGURE))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(7));
+        assertThat(progress.getSummary()).isEqualTo("Checkstyle phases: config export 12 ms,"
+                + " configure 7 ms, check 1500 ms, report 0 ms");
+        progress.close();
+    }
+
+    @Test
+    void logProgressPeriodically() throws InterruptedException {
+        final CheckstyleProgressReporter progress = new CheckstyleProgressReporter(1);
+        progress.start(1);
+        // the first line is logged after one interval
+        Thread.sleep(TimeUnit.SECONDS.toMillis(1) + 200);
+        progress.fileFinished(new AuditEvent(this, "Hello.java"));
+        progress.close();
+        // closing again does not fail once the timer is stopped
+        progress.close();
+
+        assertThat(progress.getProgress()).startsWith("Checkstyle progress: 1/1 files, ");
+    }
+
+    @Test
+    void noProgressWithoutFiles() {
+        final CheckstyleProgressReporter progress = new CheckstyleProgressReporter(1);
+        progress.start(0);
+        progress.close();
+
+        assertThat(progress.getProgress()).startsWith("Checkstyle progress: 0/0 files, ");
+    }
+}
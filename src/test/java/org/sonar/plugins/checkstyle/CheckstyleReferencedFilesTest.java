@@ -0,0 +1,105 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckstyleReferencedFilesTest {
+
+    @TempDir
+    private File directory;
+
+    @Test
+    void privateConstructor() throws ReflectiveOperationException {
+        final Constructor<CheckstyleReferencedFiles> constructor = CheckstyleReferencedFiles.class
+                .getDeclaredConstructor();
+        assertThat(Modifier.isPrivate(constructor.getModifiers())).isTrue();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    void hashWithoutFiles() {
+        assertThat(CheckstyleReferencedFiles.hash("<module name=\"Checker\">"
+                + "<property name=\"tabWidth\" value=\"4\"/>"
+                + "<property name=\"format\" value=\"\"/></module>", directory))
+                .isEqualTo(CheckstyleDigestUtils.sha256Hex(""));
+    }
+
+    @Test
+    void hashChangesWithReferencedFiles() throws IOException {
+        final File suppressions = write("suppressions.xml", "<suppressions/>");
+        final File header = write("header.txt", "// header");
+        final String xml = "<module name=\"SuppressionFilter\"><property name=\"file\" value=\""
+                + suppressions.getAbsolutePath() + "\"/></module>"
+                + "<module name='Header'><property name='headerFile' value='header.txt'/>"
+                + "</module>";
+        final String hash = CheckstyleReferencedFiles.hash(xml, directory);
+        assertThat(hash).isNotEqualTo(CheckstyleDigestUtils.sha256Hex(""));
+        assertThat(CheckstyleReferencedFiles.hash(xml, directory)).isEqualTo(hash);
+
+        write("suppressions.xml", "<suppressions><suppress checks=\".*\"/></suppressions>");
+        final String suppressionsHash = CheckstyleReferencedFiles.hash(xml, directory);
+        assertThat(suppressionsHash).isNotEqualTo(hash);
+
+        write(header.getName(), "// other header");
+        assertThat(CheckstyleReferencedFiles.hash(xml, directory))
+                .isNotEqualTo(suppressionsHash);
+    }
+
+    @Test
+    void hashEscapedPaths() throws IOException {
+        final File file = write("a&b.xml", "<import-control/>");
+        final String hash = CheckstyleReferencedFiles.hash("<property name=\"file\" value=\""
+                + file.getAbsolutePath().replace("&", "&amp;") + "\"/>", directory);
+
+        assertThat(hash).isNotEqualTo(CheckstyleDigestUtils.sha256Hex(""));
+    }
+
+    @Test
+    void ignoreDirectoriesAndMissingFiles() {
+        assertThat(CheckstyleReferencedFiles.hash("<property name=\"file\" value=\""
+                + directory.getAbsolutePath() + "\"/><property name=\"file\" value=\""
+                + new File(directory, "missing.xml").getAbsolutePath() + "\"/>"
+                + "<property name=\"file\" value=\"missing.xml\"/>", directory))
+                .isEqualTo(CheckstyleDigestUtils.sha256Hex(""));
+    }
+
+    @Test
+    void hashUnreadableFile() {
+        assertThat(CheckstyleReferencedFiles.hashContent(new File(directory, "missing.xml")))
+                .isEqualTo("unreadable");
+    }
+
+    private File write(String name, String content) throws IOException {
+        final File file = new File(directory, name);
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,147 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.XMLLogger;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleReportWriterTest {
+
+    @TempDir
+    private File directory;
+
+    @Test
+    void forwardEventsInOrder() throws IOException {
+        final AuditListener logger = mock(AuditListener.class);
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> threads.add(Thread.currentThread().getName()))
+                .when(logger).addError(any());
+        final OutputStream output = mock(OutputStream.class);
+        final AuditEvent audit = new AuditEvent(this);
+        final AuditEvent file = new AuditEvent(this, "Hello.java");
+        final AuditEvent error = new AuditEvent(this, "Hello.java", new Violation(1, "", "",
+                null, "", CheckstyleReportWriterTest.class, "msg"));
+        final AuditEvent auditError = new AuditEvent(this, null, new Violation(1, "", "",
+                null, "", CheckstyleReportWriterTest.class, "msg"));
+        final Throwable throwable = new IllegalArgumentException();
+        try (CheckstyleReportWriter writer = new CheckstyleReportWriter(logger, output)) {
+            writer.auditStarted(audit);
+            writer.addError(auditError);
+            writer.fileStarted(file);
+            writer.addError(error);
+            writer.addException(error, throwable);
+            writer.fileFinished(file);
+            writer.auditFinished(audit);
+        }
+
+        final InOrder inOrder = Mockito.inOrder(logger, output);
+        inOrder.verify(logger).auditStarted(audit);
+        inOrder.verify(logger).addError(auditError);
+        // the events of the file are forwarded at once when it is finished
+        inOrder.verify(logger).fileStarted(argThat(event ->
+                "Hello.java".equals(event.getFileName())));
+        inOrder.verify(logger).addError(error);
+        inOrder.verify(logger).addException(error, throwable);
+        inOrder.verify(logger).fileFinished(argThat(event ->
+                "Hello.java".equals(event.getFileName())));
+        inOrder.verify(logger).auditFinished(audit);
+        inOrder.verify(output).close();
+        assertThat(threads).containsExactly("checkstyle-report-writer",
+                "checkstyle-report-writer");
+    }
+
+    @Test
+    void writeFailure() throws IOException {
+        final AuditListener logger = mock(AuditListener.class);
+        doThrow(new IllegalArgumentException("failure")).when(logger).auditStarted(any());
+        final OutputStream output = mock(OutputStream.class);
+        final CheckstyleReportWriter writer = new CheckstyleReportWriter(logger, output);
+        writer.auditStarted(new AuditEvent(this));
+
+        assertThatThrownBy(writer::close)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Fail to write the Checkstyle report")
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        verify(output).close();
+    }
+
+    @Test
+    void openReport() throws IOException {
+        final File report = new File(directory, "report.xml");
+        try (CheckstyleReportWriter writer = CheckstyleReportWriter.open(report, false,
+                CheckstyleReportWriterTest::newXmlLogger)) {
+            writer.auditStarted(new AuditEvent(this));
+            writer.auditFinished(new AuditEvent(this));
+        }
+
+        assertThat(Files.readString(report.toPath(), StandardCharsets.UTF_8))
+                .contains("<checkstyle")
+                .contains("</checkstyle>");
+    }
+
+    @Test
+    void openCompressedReport() throws IOException {
+        final File report = new File(directory, "report.xml.gz");
+        try (CheckstyleReportWriter writer = CheckstyleReportWriter.open(report, true,
+                CheckstyleReportWriterTest::newXmlLogger)) {
+            writer.auditStarted(new AuditEvent(this));
+            writer.auditFinished(new AuditEvent(this));
+        }
+
+        final byte[] content = Files.readAllBytes(report.toPath());
+        // gzip magic number
+        assertThat(content[0]).isEqualTo((byte) 0x1f);
+        assertThat(content[1]).isEqualTo((byte) 0x8b);
+        final ByteArrayOutputStream expanded = new ByteArrayOutputStream();
+        try (GZIPInputStream input = new GZIPInputStream(Files.newInputStream(report.toPath()))) {
+            input.transferTo(expanded);
+        }
+        assertThat(expanded.toString(StandardCharsets.UTF_8)).contains("</checkstyle>");
+    }
+
+    private static AuditListener newXmlLogger(OutputStream output) {
+        return new XMLLogger(output, AbstractAutomaticBean.OutputStreamOptions.CLOSE);
+    }
+}
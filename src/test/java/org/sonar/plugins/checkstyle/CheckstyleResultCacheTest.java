@@ -0,0 +1,80 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckstyleResultCacheTest {
+
+    @TempDir
+    private File directory;
+
+    @Test
+    void getVersionIgnoresLocation() throws IOException {
+        final File jar = writeJar("first/plugin.jar", "content");
+        final File movedJar = writeJar("second/plugin.jar", "content");
+
+        assertThat(CheckstyleResultCache.getVersion("1.0", jar.toURI().toURL()))
+                .isEqualTo("1.0@" + CheckstyleDigestUtils.sha256Hex(jar))
+                .isEqualTo(CheckstyleResultCache.getVersion("1.0", movedJar.toURI().toURL()));
+    }
+
+    @Test
+    void getVersionChangesWithContent() throws IOException {
+        final File jar = writeJar("plugin.jar", "content");
+        final String version = CheckstyleResultCache.getVersion("1.0", jar.toURI().toURL());
+
+        writeJar("plugin.jar", "other content");
+        assertThat(CheckstyleResultCache.getVersion("1.0", jar.toURI().toURL()))
+                .isNotEqualTo(version);
+    }
+
+    @Test
+    void getVersionWithoutJar() throws IOException {
+        assertThat(CheckstyleResultCache.getVersion("1.0", directory.toURI().toURL()))
+                .isEqualTo("1.0@");
+        assertThat(CheckstyleResultCache.getVersion("1.0",
+                URI.create("https://example.org/plugin.jar").toURL()))
+                .isEqualTo("1.0@");
+        assertThat(CheckstyleResultCache.getVersion(null, null)).isEqualTo("null@");
+    }
+
+    @Test
+    void getCacheKey() {
+        assertThat(CheckstyleResultCache.getCacheKey("conf"))
+                .isEqualTo(CheckstyleResultCache.getCacheKey("conf"))
+                .isNotEqualTo(CheckstyleResultCache.getCacheKey("other"));
+    }
+
+    private File writeJar(String path, String content) throws IOException {
+        final File file = new File(directory, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,160 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.rule.RuleKey;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleSarifLoggerTest {
+
+    @Test
+    void writeSarif() throws IOException {
+        final ActiveRules activeRules = mock(ActiveRules.class);
+        when(activeRules.findByRepository(CheckstyleConstants.REPOSITORY_KEY)).thenReturn(List.of(
+                mockRule("LineLength", "MAJOR", "Checker/LineLength", Map.of("max", "120")),
+                mockRule("EmptyStatement", "CRITICAL", null, Map.of())));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final CheckstyleSarifLogger logger = new CheckstyleSarifLogger(output, activeRules);
+        final String fileName = new File("Hello.java").getAbsolutePath();
+
+        logger.auditStarted(new AuditEvent(this));
+        logger.fileStarted(new AuditEvent(this, fileName));
+        logger.addError(new AuditEvent(this, fileName, new Violation(3, 5, "", "", null,
+                SeverityLevel.ERROR, "EmptyStatement", CheckstyleSarifLoggerTest.class,
+                "Empty statement.")));
+        logger.addError(new AuditEvent(this, fileName, new Violation(4, "", "", null,
+                SeverityLevel.WARNING, "", CheckstyleSarifLoggerTest.class, "Too long.")));
+        logger.addError(new AuditEvent(this, fileName, new Violation(0, "", "", null,
+                SeverityLevel.INFO, "", CheckstyleSarifLoggerTest.class, "Info.")));
+        logger.addException(new AuditEvent(this, fileName),
+                new IllegalArgumentException("failure"));
+        logger.addException(new AuditEvent(this), new IllegalArgumentException("other"));
+        logger.fileFinished(new AuditEvent(this, fileName));
+        logger.auditFinished(new AuditEvent(this));
+
+        final JsonNode sarif = new ObjectMapper().readTree(output.toByteArray());
+        assertThat(sarif.get("version").asText()).isEqualTo("2.1.0");
+        final JsonNode run = sarif.get("runs").get(0);
+        final JsonNode rules = run.get("tool").get("driver").get("rules");
+        assertThat(rules).hasSize(2);
+        assertThat(rules.get(0).get("id").asText()).isEqualTo("EmptyStatement");
+        assertThat(rules.get(0).get("defaultConfiguration").get("level").asText())
+                .isEqualTo("error");
+        assertThat(rules.get(0).get("properties").has("internalKey")).isFalse();
+        assertThat(rules.get(1).get("id").asText()).isEqualTo("LineLength");
+        assertThat(rules.get(1).get("defaultConfiguration").get("level").asText())
+                .isEqualTo("warning");
+        assertThat(rules.get(1).get("properties").get("internalKey").asText())
+                .isEqualTo("Checker/LineLength");
+        assertThat(rules.get(1).get("properties").get("parameters").get("max").asText())
+                .isEqualTo("120");
+
+        final JsonNode results = run.get("results");
+        assertThat(results).hasSize(5);
+        final JsonNode error = results.get(0);
+        assertThat(error.get("ruleId").asText()).isEqualTo("EmptyStatement");
+        assertThat(error.get("level").asText()).isEqualTo("error");
+        assertThat(error.get("message").get("text").asText()).isEqualTo("Empty statement.");
+        final JsonNode location = error.get("locations").get(0).get("physicalLocation");
+        assertThat(location.get("artifactLocation").get("uri").asText())
+                .isEqualTo(new File(fileName).toURI().toString());
+        assertThat(location.get("region").get("startLine").asInt()).isEqualTo(3);
+        assertThat(location.get("region").get("startColumn").asInt()).isEqualTo(5);
+
+        final JsonNode warning = results.get(1);
+        assertThat(warning.get("ruleId").asText())
+                .isEqualTo(CheckstyleSarifLoggerTest.class.getName());
+        assertThat(warning.get("level").asText()).isEqualTo("warning");
+        assertThat(warning.get("locations").get(0).get("physicalLocation").get("region")
+                .has("startColumn")).isFalse();
+
+        final JsonNode info = results.get(2);
+        assertThat(info.get("level").asText()).isEqualTo("note");
+        assertThat(info.get("locations").get(0).get("physicalLocation").has("region"))
+                .isFalse();
+
+        assertThat(results.get(3).get("level").asText()).isEqualTo("error");
+        assertThat(results.get(3).get("message").get("text").asText()).contains("failure");
+        assertThat(results.get(4).has("locations")).isFalse();
+    }
+
+    @Test
+    void writeIgnoredLevel() throws IOException {
+        final ActiveRules activeRules = mock(ActiveRules.class);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final CheckstyleSarifLogger logger = new CheckstyleSarifLogger(output, activeRules);
+        logger.auditStarted(new AuditEvent(this));
+        logger.addError(new AuditEvent(this, "Hello.java", new Violation(1, "", "", null,
+                SeverityLevel.IGNORE, "", CheckstyleSarifLoggerTest.class, "Ignored.")));
+        logger.auditFinished(new AuditEvent(this));
+
+        final JsonNode results = new ObjectMapper().readTree(output.toByteArray())
+                .get("runs").get(0).get("results");
+        assertThat(results.get(0).get("level").asText()).isEqualTo("none");
+    }
+
+    @Test
+    void writeFailure() throws IOException {
+        final OutputStream output = mock(OutputStream.class);
+        Mockito.doThrow(IOException.class).when(output).write(Mockito.any(byte[].class),
+                Mockito.anyInt(), Mockito.anyInt());
+        Mockito.doThrow(IOException.class).when(output).flush();
+        final CheckstyleSarifLogger logger = new CheckstyleSarifLogger(output,
+                mock(ActiveRules.class));
+        logger.auditStarted(new AuditEvent(this));
+        final AuditEvent event = new AuditEvent(this, "Hello.java");
+
+        Assertions.assertThatThrownBy(() -> logger.fileFinished(event))
+                .isInstanceOf(UncheckedIOException.class);
+        Assertions.assertThatThrownBy(() -> logger.auditFinished(event))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
+    private static ActiveRule mockRule(String key, String severity, String internalKey,
+            Map<String, String> params) {
+        final ActiveRule rule = mock(ActiveRule.class);
+        when(rule.ruleKey()).thenReturn(RuleKey.of(CheckstyleConstants.REPOSITORY_KEY, key));
+        when(rule.severity()).thenReturn(severity);
+        when(rule.internalKey()).thenReturn(internalKey);
+        when(rule.params()).thenReturn(params);
+        return rule;
+    }
+}
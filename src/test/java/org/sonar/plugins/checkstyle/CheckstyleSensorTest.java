@@ -25,16 +25,22 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.Optional;
+import java.io.File;
 
 import org.junit.jupiter.api.Test;
-import org.sonar.api.batch.sensor.SensorContext;
+import org.junit.jupiter.api.io.TempDir;
 import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
-import org.sonar.api.config.Configuration;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.Violation;
 
 class CheckstyleSensorTest {
     private static final String CHECKSTYLE_ENABLED = "sonar.checkstyle.enabled";
 
+    @TempDir
+    private File directory;
+
     @Test
     void shouldDescribePluginCorrectly() {
         final DefaultSensorDescriptor descriptor = new DefaultSensorDescriptor();
@@ -47,23 +53,56 @@ class CheckstyleSensorTest {
 
     @Test
     void shouldExecuteExecutorWithContext() {
-        final SensorContext context = mock(SensorContext.class);
-        final Configuration configuration = mock(Configuration.class);
+        final SensorContextTester context = SensorContextTester.create(directory);
         final CheckstyleExecutor executor = mock(CheckstyleExecutor.class);
+        when(executor.execute(context)).thenReturn(new CheckstyleStatistics());
 
         final CheckstyleSensor sensor = new CheckstyleSensor(executor);
 
-        when(context.config()).thenReturn(configuration);
-
-        when(configuration.getBoolean(CHECKSTYLE_ENABLED)).thenReturn(Optional.of(true));
+        context.settings().setProperty(CHECKSTYLE_ENABLED, true);
         sensor.execute(context);
 
-        when(configuration.getBoolean(CHECKSTYLE_ENABLED)).thenReturn(Optional.of(false));
+        context.settings().setProperty(CHECKSTYLE_ENABLED, false);
         sensor.execute(context);
 
         verify(executor, times(1)).execute(context);
     }
 
+    @Test
+    void shouldSaveMeasures() {
+        final SensorContextTester context = SensorContextTester.create(directory);
+        final CheckstyleStatistics statistics = new CheckstyleStatistics();
+        final AuditEvent error = new AuditEvent(this, "Hello.java", new Violation(1, "", "",
+                null, "", CheckstyleSensorTest.class, "msg"));
+        statistics.fileStarted(new AuditEvent(this, "Hello.java"));
+        statistics.fileStarted(new AuditEvent(this, "World.java"));
+        statistics.fileStarted(new AuditEvent(this, "Copy.java"));
+        statistics.addError(error);
+        statistics.addError(error);
+        statistics.setCachedFiles(1);
+        statistics.setSkippedFiles(2);
+        statistics.setDuplicateFiles(1);
+        statistics.setDuration(500_000_000L);
+        final CheckstyleExecutor executor = mock(CheckstyleExecutor.class);
+        when(executor.execute(context)).thenReturn(statistics);
+
+        new CheckstyleSensor(executor).execute(context);
+
+        final String project = context.project().key();
+        assertThat(context.measure(project, CheckstyleMetrics.ANALYSIS_DURATION).value())
+                .isEqualTo(500L);
+        assertThat(context.measure(project, CheckstyleMetrics.FILES_ANALYZED).value())
+                .isEqualTo(1);
+        assertThat(context.measure(project, CheckstyleMetrics.FILES_CACHED).value())
+                .isEqualTo(1);
+        assertThat(context.measure(project, CheckstyleMetrics.FILES_DUPLICATE).value())
+                .isEqualTo(1);
+        assertThat(context.measure(project, CheckstyleMetrics.FILES_SKIPPED).value())
+                .isEqualTo(2);
+        assertThat(context.measure(project, CheckstyleMetrics.VIOLATIONS_PER_SECOND).value())
+                .isEqualTo(4.0);
+    }
+
     @Test
     void testToString() {
         assertThat(new CheckstyleSensor(null).toString()).isEqualTo("CheckstyleSensor");
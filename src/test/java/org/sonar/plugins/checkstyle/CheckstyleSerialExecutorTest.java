@@ -0,0 +1,197 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class CheckstyleSerialExecutorTest {
+
+    @Test
+    void runTasksInOrder() {
+        final List<Integer> tasks = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        final CheckstyleSerialExecutor executor = newExecutor(2);
+        executor.start();
+        for (int index = 0; index < 100; index++) {
+            final int task = index;
+            executor.submit(() -> {
+                tasks.add(task);
+                threads.add(Thread.currentThread().getName());
+            });
+        }
+        executor.stop();
+
+        assertThat(tasks).hasSize(100).isSorted();
+        assertThat(threads).containsOnly("checkstyle-test");
+    }
+
+    @Test
+    void blockWhileFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CheckstyleSerialExecutor executor = newExecutor(1);
+        executor.start();
+        executor.submit(() -> await(release));
+        executor.submit(() -> {
+            // fills the queue
+        });
+
+        final AtomicBoolean submitted = new AtomicBoolean();
+        final Thread producer = new Thread(() -> {
+            executor.submit(() -> {
+                // waits for room
+            });
+            submitted.set(true);
+        });
+        producer.start();
+        producer.join(200);
+        assertThat(submitted).isFalse();
+
+        release.countDown();
+        producer.join();
+        assertThat(submitted).isTrue();
+        executor.stop();
+    }
+
+    @Test
+    void failure() {
+        final IllegalArgumentException failure = new IllegalArgumentException("failure");
+        final AtomicBoolean ranAfterFailure = new AtomicBoolean();
+        final CountDownLatch failed = new CountDownLatch(1);
+        final CheckstyleSerialExecutor executor = newExecutor(4);
+        executor.start();
+        executor.submit(() -> {
+            failed.countDown();
+            throw failure;
+        });
+        executor.submit(() -> ranAfterFailure.set(true));
+        await(failed);
+
+        assertThatThrownBy(executor::stop)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Fail to run")
+                .hasCause(failure);
+        assertThatThrownBy(() -> executor.submit(() -> ranAfterFailure.set(true)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCause(failure);
+        assertThat(ranAfterFailure).isFalse();
+    }
+
+    @Test
+    void error() {
+        final AssertionError error = new AssertionError("error");
+        final CheckstyleSerialExecutor executor = newExecutor(4);
+        executor.start();
+        executor.submit(() -> {
+            throw error;
+        });
+
+        assertThatThrownBy(executor::stop).hasCause(error);
+    }
+
+    @Test
+    void interruptedExecutorThread() {
+        final CheckstyleSerialExecutor executor = newExecutor(4);
+        executor.start();
+        executor.submit(() -> Thread.currentThread().interrupt());
+
+        assertThatThrownBy(executor::stop)
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(InterruptedException.class);
+    }
+
+    @Test
+    void interruptedSubmit() {
+        final CheckstyleSerialExecutor executor = newExecutor(4);
+        executor.start();
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> executor.submit(() -> {
+                // never run
+            }))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Interrupted while running");
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        }
+        finally {
+            Thread.interrupted();
+        }
+        executor.stop();
+    }
+
+    @Test
+    void interruptedStop() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CheckstyleSerialExecutor executor = newExecutor(4);
+        executor.start();
+        executor.submit(() -> {
+            running.countDown();
+            await(release);
+        });
+        await(running);
+
+        final AtomicReference<Throwable> stopFailure = new AtomicReference<>();
+        final Thread stopper = new Thread(() -> {
+            try {
+                executor.stop();
+            }
+            catch (IllegalStateException exception) {
+                stopFailure.set(exception);
+            }
+        });
+        stopper.start();
+        // the task is still running, so the stopper ends up waiting for the executor thread
+        while (stopper.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        stopper.interrupt();
+        stopper.join();
+        release.countDown();
+
+        assertThat(stopFailure.get())
+                .hasMessage("Interrupted while running")
+                .hasCauseInstanceOf(InterruptedException.class);
+    }
+
+    private static CheckstyleSerialExecutor newExecutor(int capacity) {
+        return new CheckstyleSerialExecutor("checkstyle-test", "Fail to run",
+                "Interrupted while running", capacity);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,507 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleShardRunnerTest {
+
+    private final InputFile first = inputFile("first", 10);
+    private final InputFile second = inputFile("second", 20);
+    private final List<InputFile> files = List.of(first, second);
+    @TempDir
+    private File directory;
+
+    private CheckstyleDurationHistory history;
+
+    @BeforeEach
+    void loadHistory() {
+        history = CheckstyleDurationHistory.load(new File(directory, "durations.properties"));
+    }
+
+    @Test
+    void createTasksWithoutHistory() {
+        final List<CheckstyleShardRunner.FileTask> tasks =
+                CheckstyleShardRunner.createTasks(files, history);
+
+        assertThat(tasks).hasSize(2);
+        assertThat(tasks.get(0).getFile()).isEqualTo(new File(first.uri()));
+        assertThat(tasks.get(0).cost()).isEqualTo(10 * CheckstyleShardRunner.LINE_WEIGHT);
+        assertThat(tasks.get(1).cost()).isEqualTo(20 * CheckstyleShardRunner.LINE_WEIGHT);
+    }
+
+    @Test
+    void createTasksWithHistory() {
+        history.record(new File(first.uri()).getAbsolutePath(),
+                100 * CheckstyleShardRunner.LINE_WEIGHT);
+
+        final List<CheckstyleShardRunner.FileTask> tasks =
+                CheckstyleShardRunner.createTasks(files, history);
+
+        assertThat(tasks.get(0).cost()).isEqualTo(100 * CheckstyleShardRunner.LINE_WEIGHT);
+        // calibrated with the known duration: 10 times slower than estimated
+        assertThat(tasks.get(1).cost()).isEqualTo(200 * CheckstyleShardRunner.LINE_WEIGHT);
+    }
+
+    @Test
+    void processRecordsDurations() throws CheckstyleException {
+        final Checker checker = mock(Checker.class);
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(2,
+                listener -> checker, history,
+                CheckstyleResultCache.disabled());
+        runner.process(files, List.of(mock(AuditListener.class)));
+
+        assertThat(history.getDuration(new File(first.uri()).getAbsolutePath())).isNotNull();
+        assertThat(history.getDuration(new File(second.uri()).getAbsolutePath())).isNotNull();
+        assertThat(new File(directory, "durations.properties")).isFile();
+    }
+
+    @Test
+    void processFailure() throws CheckstyleException {
+        final Checker checker = mock(Checker.class);
+        when(checker.process(anyList())).thenThrow(new CheckstyleException("failure"));
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(2,
+                listener -> checker, history,
+                CheckstyleResultCache.disabled());
+        final List<AuditListener> listeners = List.of(mock(AuditListener.class));
+
+        final CheckstyleException exception = Assertions.assertThrows(
+                CheckstyleException.class, () -> runner.process(files, listeners));
+        assertThat(exception.getMessage()).isEqualTo("failure");
+    }
+
+    @Test
+    void processRuntimeFailure() throws CheckstyleException {
+        final Checker checker = mock(Checker.class);
+        when(checker.process(anyList())).thenThrow(new IllegalArgumentException("failure"));
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(2,
+                listener -> checker, history,
+                CheckstyleResultCache.disabled());
+        final List<AuditListener> listeners = List.of(mock(AuditListener.class));
+
+        final IllegalStateException exception = Assertions.assertThrows(
+                IllegalStateException.class, () -> runner.process(files, listeners));
+        assertThat(exception.getCause()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void processInterrupted() throws CheckstyleException {
+        final CountDownLatch never = new CountDownLatch(1);
+        final Checker checker = mock(Checker.class);
+        when(checker.process(anyList())).thenAnswer(invocation -> {
+            try {
+                never.await();
+            }
+            catch (InterruptedException exception) {
+                // stopped, the file is completed but not replayed anymore
+            }
+            return 0;
+        });
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(1,
+                listener -> checker, history,
+                CheckstyleResultCache.disabled());
+        final List<AuditListener> listeners = List.of(mock(AuditListener.class));
+
+        Thread.currentThread().interrupt();
+        try {
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> runner.process(files, listeners));
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        }
+        finally {
+            Thread.interrupted();
+        }
+        // the stopped worker does not take the other file
+        verify(checker, atMost(1)).process(anyList());
+    }
+
+    @Test
+    void processCachedFile() throws CheckstyleException {
+        final Checker checker = mock(Checker.class);
+        final CheckstyleResultCache cache = mock(CheckstyleResultCache.class);
+        final String fileName = new File(first.uri()).getAbsolutePath();
+        final CheckstyleFileAudit audit = new CheckstyleFileAudit(fileName, true);
+        when(cache.get(first)).thenReturn(List.of(audit));
+        when(cache.get(second)).thenReturn(null);
+        final AuditListener listener = mock(AuditListener.class);
+        final CheckstyleShardRunner.ProgressListener progressListener =
+                mock(CheckstyleShardRunner.ProgressListener.class);
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(1,
+                auditListener -> checker, history, cache);
+        runner.process(files, List.of(listener), List.of(progressListener));
+
+        assertThat(runner.getCachedFiles()).isEqualTo(1);
+        // the cached file and the processed one, which recorded no event
+        verify(progressListener).fileCompleted(List.of(audit));
+        verify(progressListener).fileCompleted(List.of());
+        verify(listener).fileStarted(any());
+        verify(checker).process(List.of(new File(second.uri())));
+        verify(cache).put(any(InputFile.class), anyList());
+        verify(cache).save();
+    }
+
+    @Test
+    void processCancelled() throws CheckstyleException {
+        final Checker checker = mock(Checker.class);
+        final CheckstyleResultCache cache = mock(CheckstyleResultCache.class);
+        final AuditListener listener = mock(AuditListener.class);
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(2,
+                auditListener -> checker, history, cache, () -> true, 0, false);
+        runner.process(files, List.of(listener));
+
+        verify(checker, never()).process(anyList());
+        verify(cache, never()).get(any(InputFile.class));
+        verify(cache, never()).put(any(InputFile.class), anyList());
+        verify(listener).auditFinished(any());
+        verify(listener, never()).fileStarted(any());
+        assertThat(runner.getCachedFiles()).isZero();
+    }
+
+    @Test
+    void abandonSlowFile() throws CheckstyleException, InterruptedException {
+        final CountDownLatch never = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final Checker stuckChecker = mock(Checker.class);
+        when(stuckChecker.process(anyList())).thenAnswer(invocation -> {
+            try {
+                never.await();
+            }
+            catch (InterruptedException exception) {
+                interrupted.countDown();
+                throw exception;
+            }
+            return 0;
+        });
+        final Checker checker = mock(Checker.class);
+        final AtomicInteger created = new AtomicInteger();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(1,
+                listener -> {
+                    threads.add(Thread.currentThread().getName());
+                    final Checker result;
+                    if (created.getAndIncrement() == 0) {
+                        result = stuckChecker;
+                    }
+                    else {
+                        result = checker;
+                    }
+                    return result;
+                }, history, CheckstyleResultCache.disabled(), () -> false, 100, false);
+        final List<String> skipped = new CopyOnWriteArrayList<>();
+        runner.process(files, List.of(mock(AuditListener.class)),
+                List.of(onSkipped(skipped::add)));
+
+        assertThat(runner.getSkippedFiles()).isEqualTo(1);
+        // the most expensive file is processed first
+        assertThat(skipped).containsExactly(new File(second.uri()).getAbsolutePath());
+        assertThat(history.getDuration(new File(second.uri()).getAbsolutePath())).isNull();
+        assertThat(history.getDuration(new File(first.uri()).getAbsolutePath())).isNotNull();
+        assertThat(created.get()).isEqualTo(2);
+        // the replacement is configured by the new worker, not by the watchdog
+        assertThat(threads.get(1)).startsWith("checkstyle-worker-");
+        verify(checker).process(anyList());
+        assertThat(interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+        // destroyed by the abandoned thread once it is done with the file
+        verify(stuckChecker, timeout(10_000)).destroy();
+        verify(checker, timeout(10_000)).destroy();
+    }
+
+    @Test
+    void abandonSlowFileWithoutReplacement() throws CheckstyleException {
+        final CountDownLatch never = new CountDownLatch(1);
+        final Checker stuckChecker = mock(Checker.class);
+        when(stuckChecker.process(anyList())).thenAnswer(invocation -> {
+            never.await();
+            return 0;
+        });
+        final AtomicInteger created = new AtomicInteger();
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(1,
+                listener -> {
+                    if (created.getAndIncrement() > 0) {
+                        throw new CheckstyleException("failure");
+                    }
+                    return stuckChecker;
+                }, history, CheckstyleResultCache.disabled(), () -> false, 100, false);
+        final List<AuditListener> listeners = List.of(mock(AuditListener.class));
+
+        final CheckstyleException exception = Assertions.assertThrows(
+                CheckstyleException.class, () -> runner.process(files, listeners));
+        assertThat(exception.getMessage()).isEqualTo("failure");
+        assertThat(runner.getSkippedFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void abandonSlowFileWhichCompletesLater() throws CheckstyleException {
+        final CountDownLatch released = new CountDownLatch(1);
+        final Checker slowChecker = mock(Checker.class);
+        when(slowChecker.process(anyList())).thenAnswer(invocation -> {
+            released.await();
+            return 0;
+        });
+        final Checker checker = mock(Checker.class);
+        final AtomicInteger created = new AtomicInteger();
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(1,
+                listener -> {
+                    final Checker result;
+                    if (created.getAndIncrement() == 0) {
+                        result = slowChecker;
+                    }
+                    else {
+                        result = checker;
+                    }
+                    return result;
+                }, history, CheckstyleResultCache.disabled(), () -> false, 100, false);
+        final List<CheckstyleShardRunner.ProgressListener> progressListeners =
+                List.of(onSkipped(fileName -> released.countDown()));
+        runner.process(files, List.of(mock(AuditListener.class)), progressListeners);
+
+        assertThat(runner.getSkippedFiles()).isEqualTo(1);
+        // the abandoned worker records nothing and leaves the other file to its replacement
+        assertThat(history.getDuration(new File(second.uri()).getAbsolutePath())).isNull();
+        verify(slowChecker).process(anyList());
+        verify(checker).process(List.of(new File(first.uri())));
+    }
+
+    @Test
+    void abandonAtMostOneFilePerWorker() throws CheckstyleException {
+        final CountDownLatch never = new CountDownLatch(1);
+        final Checker stuckChecker = mock(Checker.class);
+        when(stuckChecker.process(anyList())).thenAnswer(invocation -> {
+            never.await();
+            return 0;
+        });
+        final Checker slowChecker = mock(Checker.class);
+        when(slowChecker.process(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return 0;
+        });
+        final AtomicInteger created = new AtomicInteger();
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(1,
+                listener -> {
+                    final Checker result;
+                    if (created.getAndIncrement() == 0) {
+                        result = stuckChecker;
+                    }
+                    else {
+                        result = slowChecker;
+                    }
+                    return result;
+                }, history, CheckstyleResultCache.disabled(), () -> false, 100, false);
+        runner.process(files, List.of(mock(AuditListener.class)));
+
+        // the single replacement processes the other file without time limit
+        assertThat(runner.getSkippedFiles()).isEqualTo(1);
+        assertThat(created.get()).isEqualTo(2);
+        verify(slowChecker).process(List.of(new File(first.uri())));
+        assertThat(history.getDuration(new File(first.uri()).getAbsolutePath()))
+                .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    void processWithinTimeout() throws CheckstyleException {
+        final Checker checker = mock(Checker.class);
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(1,
+                listener -> checker, history, CheckstyleResultCache.disabled(),
+                () -> false, 60_000, false);
+        runner.process(files, List.of(mock(AuditListener.class)));
+
+        assertThat(runner.getSkippedFiles()).isZero();
+        verify(checker, times(2)).process(anyList());
+    }
+
+    @Test
+    void processDuplicatesOnce() throws CheckstyleException, IOException {
+        final InputFile original = copyOf("first", "class Stub {}");
+        final InputFile copy = copyOf("second", "class Stub {}");
+        final InputFile other = copyOf("third", "class Stub{ }");
+        final AuditListener[] recorder = new AuditListener[1];
+        final Checker checker = mock(Checker.class);
+        when(checker.process(anyList())).thenAnswer(invocation -> {
+            final List<File> processed = invocation.getArgument(0);
+            final String fileName = processed.get(0).getAbsolutePath();
+            recorder[0].fileStarted(new AuditEvent(this, fileName));
+            recorder[0].addError(new AuditEvent(this, fileName, new Violation(1, "", "", null,
+                    "", CheckstyleShardRunnerTest.class, "msg")));
+            recorder[0].fileFinished(new AuditEvent(this, fileName));
+            return 1;
+        });
+        final AuditListener listener = mock(AuditListener.class);
+        final CheckstyleShardRunner.ProgressListener progressListener =
+                mock(CheckstyleShardRunner.ProgressListener.class);
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(1, auditListener -> {
+            recorder[0] = auditListener;
+            return checker;
+        }, history, CheckstyleResultCache.disabled(), () -> false, 0, true);
+        runner.process(List.of(original, copy, other), List.of(listener),
+                List.of(progressListener));
+
+        verify(checker, times(2)).process(anyList());
+        // the copy is done along with the original
+        verify(progressListener, times(3)).fileCompleted(anyList());
+        verify(progressListener, never()).fileSkipped(any());
+        assertThat(runner.getDuplicateFiles()).isEqualTo(1);
+        final ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(listener, times(3)).addError(captor.capture());
+        assertThat(captor.getAllValues())
+                .extracting(AuditEvent::getFileName)
+                .containsExactly(new File(original.uri()).getAbsolutePath(),
+                        new File(copy.uri()).getAbsolutePath(),
+                        new File(other.uri()).getAbsolutePath());
+        assertThat(captor.getAllValues().get(1).getViolation())
+                .isSameAs(captor.getAllValues().get(0).getViolation());
+        verify(listener, times(3)).fileStarted(any());
+    }
+
+    @Test
+    void processDuplicateFailure() throws CheckstyleException, IOException {
+        final List<InputFile> copies = List.of(copyOf("first", "class Stub {}"),
+                copyOf("second", "class Stub {}"));
+        final Checker checker = mock(Checker.class);
+        when(checker.process(anyList())).thenThrow(new CheckstyleException("failure"));
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(1,
+                listener -> checker, history, CheckstyleResultCache.disabled(),
+                () -> false, 0, true);
+        final List<AuditListener> listeners = List.of(mock(AuditListener.class));
+
+        final CheckstyleException exception = Assertions.assertThrows(
+                CheckstyleException.class, () -> runner.process(copies, listeners));
+        assertThat(exception.getMessage()).isEqualTo("failure");
+        verify(checker).process(anyList());
+        assertThat(runner.getDuplicateFiles()).isZero();
+    }
+
+    @Test
+    void processCancelledDuplicates() throws CheckstyleException, IOException {
+        final List<InputFile> copies = List.of(copyOf("first", "class Stub {}"),
+                copyOf("second", "class Stub {}"));
+        final Checker checker = mock(Checker.class);
+        final CheckstyleShardRunner runner = new CheckstyleShardRunner(1,
+                listener -> checker, history, CheckstyleResultCache.disabled(),
+                () -> true, 0, true);
+        final AuditListener listener = mock(AuditListener.class);
+        runner.process(copies, List.of(listener));
+
+        verify(checker, never()).process(anyList());
+        verify(listener, never()).fileStarted(any());
+        assertThat(runner.getDuplicateFiles()).isZero();
+    }
+
+    @Test
+    void findModule() {
+        assertThat(CheckstyleShardRunner.findModule(
+                new StackTraceElement("java.util.regex.Pattern$Loop", "match", null, 1),
+                new StackTraceElement("com.puppycrawl.tools.checkstyle.api.AbstractCheck",
+                        "log", null, 1),
+                new StackTraceElement("com.puppycrawl.tools.checkstyle.checks.regexp"
+                        + ".RegexpSinglelineJavaCheck", "beginTree", null, 1),
+                new StackTraceElement("com.puppycrawl.tools.checkstyle.TreeWalker",
+                        "notifyBegin", null, 1)))
+                .isEqualTo("RegexpSinglelineJava");
+        assertThat(CheckstyleShardRunner.findModule(
+                new StackTraceElement("org.example.Outer$InnerCheck", "visitToken", null, 1)))
+                .isEqualTo("Inner");
+        assertThat(CheckstyleShardRunner.findModule(
+                new StackTraceElement("java.lang.Thread", "run", null, 1)))
+                .isEqualTo("an unknown module");
+    }
+
+    @Test
+    void workerThreadsAreDaemons() throws CheckstyleException {
+        final Checker checker = mock(Checker.class);
+        final Thread[] worker = new Thread[1];
+        when(checker.process(anyList())).thenAnswer(invocation -> {
+            worker[0] = Thread.currentThread();
+            return 0;
+        });
+        new CheckstyleShardRunner(2, listener -> checker, history,
+                CheckstyleResultCache.disabled())
+                .process(List.of(first), List.of(mock(AuditListener.class)));
+
+        assertThat(worker[0].isDaemon()).isTrue();
+        assertThat(worker[0].getName()).isEqualTo("checkstyle-worker-1");
+    }
+
+    private InputFile copyOf(String module, String contents) throws IOException {
+        final File file = new File(directory, module + "/Stub.java");
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), contents, StandardCharsets.UTF_8);
+        return new TestInputFileBuilder("", directory, file)
+                .setLanguage("java")
+                .setCharset(StandardCharsets.UTF_8)
+                .setLines(1)
+                .build();
+    }
+
+    private static InputFile inputFile(String name, int lines) {
+        return new TestInputFileBuilder("", name + ".java")
+                .setLanguage("java")
+                .setCharset(StandardCharsets.UTF_8)
+                .setLines(lines)
+                .build();
+    }
+
+    private static CheckstyleShardRunner.ProgressListener onSkipped(Consumer<String> consumer) {
+        return new CheckstyleShardRunner.ProgressListener() {
+            @Override
+            public void fileCompleted(List<CheckstyleFileAudit> audits) {
+                // only the skipped files are consumed
+            }
+
+            @Override
+            public void fileSkipped(String fileName) {
+                consumer.accept(fileName);
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+class CheckstyleSourceFilterTest {
+
+    @TempDir
+    private File directory;
+
+    @Test
+    void keepEverythingByDefault() throws IOException {
+        final CheckstyleSourceFilter filter = new CheckstyleSourceFilter(0, 0, false, 0);
+        final List<InputFile> files = List.of(
+                inputFile("Generated.java", "// DO NOT EDIT\nclass Generated {}", 100_000),
+                inputFile("Hello.java", "class Hello {}", 1));
+
+        assertThat(filter.filter(files)).isEqualTo(files);
+    }
+
+    @Test
+    void skipLargeFiles() throws IOException {
+        final CheckstyleSourceFilter filter = new CheckstyleSourceFilter(20, 0, false, 0);
+
+        assertThat(filter.getSkipReason(inputFile("Hello.java", "class Hello {}", 1)))
+                .isNull();
+        assertThat(filter.getSkipReason(inputFile("Large.java",
+                "class Large { int value; }", 1)))
+                .isEqualTo(CheckstyleSourceFilter.Reason.TOO_LARGE);
+    }
+
+    @Test
+    void skipLongFiles() throws IOException {
+        final CheckstyleSourceFilter filter = new CheckstyleSourceFilter(0, 1000, false, 0);
+
+        assertThat(filter.getSkipReason(inputFile("Hello.java", "class Hello {}", 1000)))
+                .isNull();
+        assertThat(filter.getSkipReason(inputFile("Table.java", "class Table {}", 1001)))
+                .isEqualTo(CheckstyleSourceFilter.Reason.TOO_MANY_LINES);
+    }
+
+    @Test
+    void skipGeneratedFiles() throws IOException {
+        final CheckstyleSourceFilter filter = new CheckstyleSourceFilter(0, 0, true, 0);
+
+        assertThat(filter.getSkipReason(inputFile("Hello.java",
+                "/** Generates nothing. */\nclass Hello {}", 2)))
+                .isNull();
+        assertThat(filter.getSkipReason(inputFile("Proto.java",
+                "// Generated by the protocol buffer compiler.  DO NOT EDIT!\nclass Proto {}", 2)))
+                .isEqualTo(CheckstyleSourceFilter.Reason.GENERATED);
+        assertThat(filter.getSkipReason(inputFile("Tables.java",
+                "@javax.annotation.processing.Generated(\"jOOQ\")\nclass Tables {}", 2)))
+                .isEqualTo(CheckstyleSourceFilter.Reason.GENERATED);
+        assertThat(filter.getSkipReason(inputFile("Mapper.java",
+                "@Generated\nclass Mapper {}", 2)))
+                .isEqualTo(CheckstyleSourceFilter.Reason.GENERATED);
+    }
+
+    @Test
+    void keepFilesWithGeneratedMarkersElsewhere() throws IOException {
+        final CheckstyleSourceFilter filter = new CheckstyleSourceFilter(0, 0, true, 0);
+
+        assertThat(filter.getSkipReason(inputFile("Prose.java",
+                "/**\n * The values are @generated by a tool.\n */\nclass Prose {}", 4)))
+                .isNull();
+        assertThat(filter.getSkipReason(inputFile("Javadoc.java",
+                "/** Unlike the {@code @Generated} types. */\nclass Javadoc {}", 2)))
+                .isNull();
+        assertThat(filter.getSkipReason(inputFile("Method.java",
+                "class Method {\n    @Generated\n    void method() {}\n}", 4)))
+                .isNull();
+        assertThat(filter.getSkipReason(inputFile("Field.java",
+                "public class Field {\n    @javax.annotation.Generated(\"x\")\n    int field;\n}",
+                4)))
+                .isNull();
+        assertThat(filter.getSkipReason(inputFile("Body.java",
+                "class Body {\n    String text = \"DO NOT EDIT\";\n}", 3)))
+                .isNull();
+        assertThat(filter.getSkipReason(inputFile("Lower.java",
+                "// do not edit the order\nclass Lower {}", 2)))
+                .isNull();
+    }
+
+    @Test
+    void skipGeneratedTypesAfterTheHeader() throws IOException {
+        final CheckstyleSourceFilter filter = new CheckstyleSourceFilter(0, 0, true, 0);
+
+        assertThat(filter.getSkipReason(inputFile("Licensed.java",
+                "/*\n * License\n */\n// DO NOT EDIT\npackage a;\nclass Licensed {}", 6)))
+                .isEqualTo(CheckstyleSourceFilter.Reason.GENERATED);
+        assertThat(filter.getSkipReason(inputFile("Imports.java",
+                "package a;\nimport b.record.C;\n/** Mapper. */\n@Generated(\"x\")\n"
+                        + "public final class Imports {}", 5)))
+                .isEqualTo(CheckstyleSourceFilter.Reason.GENERATED);
+    }
+
+    @Test
+    void readOnlyThePrefix() throws IOException {
+        final CheckstyleSourceFilter filter = new CheckstyleSourceFilter(0, 0, true, 0);
+        final String padding = "// padding\n".repeat(CheckstyleSourceFilter.SNIFF_BYTES);
+
+        assertThat(filter.getSkipReason(inputFile("Late.java",
+                padding + "@Generated\nclass Late {}", 2)))
+                .isNull();
+    }
+
+    @Test
+    void skipMinifiedFiles() throws IOException {
+        final CheckstyleSourceFilter filter = new CheckstyleSourceFilter(0, 0, false, 100);
+
+        assertThat(filter.getSkipReason(inputFile("Hello.java",
+                "class Hello {\n" + "    int value;\n".repeat(10) + "}", 12)))
+                .isNull();
+        assertThat(filter.getSkipReason(inputFile("Minified.java",
+                "class Minified {" + "int a;".repeat(20) + "}", 1)))
+                .isEqualTo(CheckstyleSourceFilter.Reason.LONG_LINE);
+    }
+
+    @Test
+    void keepUnreadableFiles() throws IOException {
+        final CheckstyleSourceFilter filter = new CheckstyleSourceFilter(0, 0, true, 0);
+        final InputFile file = mock(InputFile.class);
+        when(file.uri()).thenReturn(new File(directory, "Missing.java").toURI());
+        when(file.inputStream()).thenThrow(new IOException("failure"));
+
+        assertThat(filter.getSkipReason(file)).isNull();
+    }
+
+    @Test
+    void summarizeSkippedFiles() throws IOException {
+        final CheckstyleSourceFilter filter = new CheckstyleSourceFilter(0, 1000, true, 0);
+        final InputFile hello = inputFile("Hello.java", "class Hello {}", 1);
+
+        assertThat(filter.filter(List.of(hello,
+                inputFile("Proto.java", "// DO NOT EDIT\nclass Proto {}", 2),
+                inputFile("Table.java", "class Table {}", 5000),
+                inputFile("Other.java", "// DO NOT EDIT\nclass Other {}", 2))))
+                .containsExactly(hello);
+        assertThat(filter.getSummary()).isEqualTo("Checkstyle skipped 3 source files:"
+                + " 1 longer than the line limit, 2 generated");
+    }
+
+    private InputFile inputFile(String name, String contents, int lines) throws IOException {
+        final File file = new File(directory, name);
+        Files.writeString(file.toPath(), contents, StandardCharsets.UTF_8);
+        return new TestInputFileBuilder("", directory, file)
+                .setLanguage("java")
+                .setCharset(StandardCharsets.UTF_8)
+                .setLines(lines)
+                .build();
+    }
+}
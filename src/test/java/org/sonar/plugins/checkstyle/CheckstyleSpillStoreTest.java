@@ -0,0 +1,225 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.ActiveRule;
+
+class CheckstyleSpillStoreTest {
+
+    @TempDir
+    private File directory;
+
+    @Test
+    void appendAndRead() throws IOException {
+        final InputFile file1 = mock(InputFile.class);
+        final InputFile file2 = mock(InputFile.class);
+        final ActiveRule rule = mock(ActiveRule.class);
+        try (CheckstyleSpillStore store = CheckstyleSpillStore.create(directory)) {
+            final long first1 = store.append(CheckstyleSpillStore.NO_RECORD, file1, rule, 1,
+                    "message");
+            final long first2 = store.append(CheckstyleSpillStore.NO_RECORD, file2, rule, 2,
+                    null);
+            store.append(first1, file1, rule, 3, "message");
+            assertThat(store.size()).isEqualTo(3);
+
+            final List<String> issues = new ArrayList<>();
+            store.forEach(first1, (inputFile, activeRule, line, message) -> {
+                assertThat(inputFile).isSameAs(file1);
+                assertThat(activeRule).isSameAs(rule);
+                issues.add(line + ":" + message);
+            });
+            store.forEach(first2, (inputFile, activeRule, line, message) -> {
+                assertThat(inputFile).isSameAs(file2);
+                issues.add(line + ":" + message);
+            });
+            assertThat(issues).containsExactly("1:message", "3:message", "2:null");
+        }
+        assertThat(directory.list()).isEmpty();
+    }
+
+    @Test
+    void appendSeveralSegments() throws IOException {
+        final ActiveRule rule = mock(ActiveRule.class);
+        final int records = (1 << 16) + 10;
+        try (CheckstyleSpillStore store = CheckstyleSpillStore.create(directory)) {
+            long first = CheckstyleSpillStore.NO_RECORD;
+            long last = CheckstyleSpillStore.NO_RECORD;
+            for (int line = 1; line <= records; line++) {
+                last = store.append(last, null, rule, line, "message" + line % 10);
+                if (first == CheckstyleSpillStore.NO_RECORD) {
+                    first = last;
+                }
+            }
+            assertThat(store.size()).isEqualTo(records);
+
+            final List<Integer> lines = new ArrayList<>();
+            store.forEach(first, (inputFile, activeRule, line, message) -> {
+                assertThat(inputFile).isNull();
+                assertThat(message).isEqualTo("message" + line % 10);
+                lines.add(line);
+            });
+            assertThat(lines).hasSize(records).startsWith(1, 2).endsWith(records);
+        }
+    }
+
+    @Test
+    void forEachWithoutRecord() throws IOException {
+        try (CheckstyleSpillStore store = CheckstyleSpillStore.create(directory)) {
+            final List<Integer> lines = new ArrayList<>();
+            store.forEach(CheckstyleSpillStore.NO_RECORD,
+                (inputFile, activeRule, line, message) -> lines.add(line));
+            assertThat(lines).isEmpty();
+            assertThat(store.size()).isZero();
+        }
+    }
+
+    @Test
+    void spillMessagesAndUnmapSegments() throws IOException {
+        final InputFile file1 = mock(InputFile.class);
+        final InputFile file2 = mock(InputFile.class);
+        final ActiveRule rule = mock(ActiveRule.class);
+        final int records = 100_000;
+        try (CheckstyleSpillStore store = CheckstyleSpillStore.create(directory, 1024, 2, 16)) {
+            final long[] first = {CheckstyleSpillStore.NO_RECORD, CheckstyleSpillStore.NO_RECORD};
+            final long[] last = {CheckstyleSpillStore.NO_RECORD, CheckstyleSpillStore.NO_RECORD};
+            for (int line = 0; line < records; line++) {
+                final int index = line % 2;
+                final InputFile inputFile;
+                if (index == 0) {
+                    inputFile = file1;
+                }
+                else {
+                    inputFile = file2;
+                }
+                last[index] = store.append(last[index], inputFile, rule, line,
+                        "message " + line);
+                if (first[index] == CheckstyleSpillStore.NO_RECORD) {
+                    first[index] = last[index];
+                }
+            }
+            assertThat(store.size()).isEqualTo(records);
+            assertThat(store.getInternedValues()).isEqualTo(16);
+            assertThat(store.getMappedSegments()).isEqualTo(2);
+
+            final List<Integer> lines = new ArrayList<>();
+            store.forEach(first[1], (inputFile, activeRule, line, message) -> {
+                assertThat(inputFile).isSameAs(file2);
+                assertThat(message).isEqualTo("message " + line);
+                lines.add(line);
+            });
+            store.forEach(first[0], (inputFile, activeRule, line, message) -> {
+                assertThat(inputFile).isSameAs(file1);
+                assertThat(message).isEqualTo("message " + line);
+                lines.add(line);
+            });
+            assertThat(lines).hasSize(records).startsWith(1, 3).endsWith(records - 2);
+            assertThat(store.getMappedSegments()).isEqualTo(2);
+        }
+        assertThat(directory.list()).isEmpty();
+    }
+
+    @Test
+    void reuseInternedMessagesOnceFull() throws IOException {
+        final ActiveRule rule = mock(ActiveRule.class);
+        try (CheckstyleSpillStore store = CheckstyleSpillStore.create(directory, 16, 2, 2)) {
+            final long first = store.append(CheckstyleSpillStore.NO_RECORD, null, rule, 1,
+                    "interned");
+            final long second = store.append(first, null, rule, 2, "interned");
+            store.append(second, null, rule, 3, "spilled");
+            assertThat(store.getInternedValues()).isEqualTo(2);
+            assertThat(getMessagesFile()).hasSize(Integer.BYTES + "spilled".length());
+
+            final List<String> issues = new ArrayList<>();
+            store.forEach(first, (inputFile, activeRule, line, message) ->
+                    issues.add(line + ":" + message));
+            assertThat(issues).containsExactly("1:interned", "2:interned", "3:spilled");
+        }
+    }
+
+    @Test
+    void failToReadTruncatedMessages() throws IOException {
+        final ActiveRule rule = mock(ActiveRule.class);
+        try (CheckstyleSpillStore store = CheckstyleSpillStore.create(directory, 16, 2, 1)) {
+            final long record = store.append(CheckstyleSpillStore.NO_RECORD, null, rule, 1,
+                    "spilled message");
+            try (FileChannel messages = FileChannel.open(getMessagesFile().toPath(),
+                    StandardOpenOption.WRITE)) {
+                messages.truncate(6);
+            }
+
+            assertThatThrownBy(() -> store.forEach(record, (inputFile, activeRule, line,
+                    message) -> { }))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageStartingWith("Fail to read");
+        }
+    }
+
+    @Test
+    void failToAppendOnceClosed() throws IOException {
+        final ActiveRule rule = mock(ActiveRule.class);
+        final CheckstyleSpillStore store = CheckstyleSpillStore.create(directory);
+        store.close();
+
+        assertThatThrownBy(() -> store.append(CheckstyleSpillStore.NO_RECORD, null, rule, 1,
+                "message"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Fail to write");
+    }
+
+    @Test
+    void closeWithUndeletableFile() throws IOException {
+        final CheckstyleSpillStore store = CheckstyleSpillStore.create(directory);
+        final File file = directory.listFiles()[0];
+        Files.delete(file.toPath());
+        // a directory which is not empty cannot be deleted
+        assertThat(new File(file, "child").mkdirs()).isTrue();
+
+        store.close();
+
+        assertThat(file).isDirectory();
+    }
+
+    @Test
+    void unmapWithoutCleaner() {
+        final ByteBuffer segment = ByteBuffer.allocateDirect(CheckstyleSpillStore.RECORD_SIZE);
+        CheckstyleSpillStore.unmap(segment, Object.class.getName());
+
+        assertThat(segment.getInt(0)).isZero();
+    }
+
+    private File getMessagesFile() {
+        return directory.listFiles((dir, name) -> name.endsWith(".messages"))[0];
+    }
+}
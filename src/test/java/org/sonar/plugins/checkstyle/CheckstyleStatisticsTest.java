@@ -0,0 +1,69 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleStatisticsTest {
+
+    @Test
+    void countFilesAndViolations() {
+        final CheckstyleStatistics statistics = new CheckstyleStatistics();
+        final AuditEvent error = new AuditEvent(this, "Hello.java", new Violation(1, "", "",
+                null, "", CheckstyleStatisticsTest.class, "msg"));
+        statistics.auditStarted(new AuditEvent(this));
+        statistics.fileStarted(new AuditEvent(this, "Hello.java"));
+        statistics.addError(error);
+        statistics.addError(error);
+        statistics.addException(error, new IllegalArgumentException());
+        statistics.fileFinished(new AuditEvent(this, "Hello.java"));
+        statistics.fileStarted(new AuditEvent(this, "World.java"));
+        statistics.fileFinished(new AuditEvent(this, "World.java"));
+        statistics.fileStarted(new AuditEvent(this, "Copy.java"));
+        statistics.fileFinished(new AuditEvent(this, "Copy.java"));
+        statistics.auditFinished(new AuditEvent(this));
+        statistics.setCachedFiles(1);
+        statistics.setSkippedFiles(3);
+        statistics.setDuplicateFiles(1);
+        statistics.setDuration(2_000_000_000L);
+
+        assertThat(statistics.getAnalyzedFiles()).isEqualTo(1);
+        assertThat(statistics.getCachedFiles()).isEqualTo(1);
+        assertThat(statistics.getSkippedFiles()).isEqualTo(3);
+        assertThat(statistics.getDuplicateFiles()).isEqualTo(1);
+        assertThat(statistics.getViolations()).isEqualTo(2);
+        assertThat(statistics.getDurationMillis()).isEqualTo(2000);
+        assertThat(statistics.getViolationsPerSecond()).isEqualTo(1.0);
+    }
+
+    @Test
+    void noDuration() {
+        final CheckstyleStatistics statistics = new CheckstyleStatistics();
+        statistics.addError(new AuditEvent(this, "Hello.java", new Violation(1, "", "",
+                null, "", CheckstyleStatisticsTest.class, "msg")));
+
+        assertThat(statistics.getDurationMillis()).isZero();
+        assertThat(statistics.getViolationsPerSecond()).isZero();
+    }
+}
@@ -0,0 +1,222 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+class CheckstyleWorkDirCacheTest {
+
+    @TempDir
+    File workDir;
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+
+    @Test
+    void saveAndLoad() throws IOException {
+        final InputFile inputFile = inputFile("Foo.java", "class Foo {}");
+        final File cacheFile = new File(workDir, "cache.bin");
+
+        final CheckstyleWorkDirCache cache =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        assertThat(cache.get(inputFile)).isNull();
+        cache.put(inputFile, List.of(audit(inputFile)));
+        assertThat(cache.get(inputFile)).hasSize(1);
+        cache.save();
+
+        final CheckstyleWorkDirCache loaded =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        final List<CheckstyleFileAudit> audits = loaded.get(inputFile);
+        assertThat(audits).hasSize(1);
+        assertThat(audits.get(0).isProcessed()).isTrue();
+        final AuditEvent error = audits.get(0).getErrors().get(0);
+        assertThat(error.getFileName()).isEqualTo(new File(inputFile.uri()).getAbsolutePath());
+        assertThat(error.getSource()).isSameAs(loaded);
+        assertThat(error.getLine()).isEqualTo(3);
+        assertThat(error.getColumn()).isEqualTo(7);
+        assertThat(error.getSeverityLevel()).isEqualTo(SeverityLevel.WARNING);
+        assertThat(error.getModuleId()).isEqualTo("id");
+        assertThat(error.getSourceName()).isEqualTo(CheckstyleWorkDirCacheTest.class.getName());
+        assertThat(error.getMessage()).isEqualTo("Don't use '{0}' here.");
+    }
+
+    @Test
+    void changedContent() throws IOException {
+        final InputFile inputFile = inputFile("Foo.java", "class Foo {}");
+        final File cacheFile = new File(workDir, "cache.bin");
+        final CheckstyleWorkDirCache cache =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        cache.put(inputFile, List.of(audit(inputFile)));
+        cache.save();
+
+        FileUtils.write(new File(inputFile.uri()), "class Foo { }", StandardCharsets.UTF_8);
+        assertThat(CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader).get(inputFile))
+                .isNull();
+    }
+
+    @Test
+    void changedConfiguration() throws IOException {
+        final InputFile inputFile = inputFile("Foo.java", "class Foo {}");
+        final File cacheFile = new File(workDir, "cache.bin");
+        final CheckstyleWorkDirCache cache =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        cache.put(inputFile, List.of(audit(inputFile)));
+        cache.save();
+
+        assertThat(CheckstyleWorkDirCache.load(cacheFile, "other", classLoader)
+                .get(inputFile)).isNull();
+        assertThat(CheckstyleResultCache.getCacheKey("conf"))
+                .isNotEqualTo(CheckstyleResultCache.getCacheKey("other"));
+    }
+
+    @Test
+    void changedFileFormat() throws IOException {
+        final InputFile inputFile = inputFile("Foo.java", "class Foo {}");
+        final File cacheFile = new File(workDir, "cache.bin");
+        final CheckstyleWorkDirCache cache =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        cache.put(inputFile, List.of(audit(inputFile)));
+        cache.save();
+        final byte[] content = FileUtils.readFileToByteArray(cacheFile);
+        // the file starts with the version of its format, as an int
+        content[3]++;
+        FileUtils.writeByteArrayToFile(cacheFile, content);
+
+        assertThat(CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader)
+                .get(inputFile)).isNull();
+    }
+
+    @Test
+    void pruneUnusedFiles() throws IOException {
+        final InputFile kept = inputFile("Foo.java", "class Foo {}");
+        final InputFile deleted = inputFile("Bar.java", "class Bar {}");
+        final File cacheFile = new File(workDir, "cache.bin");
+        final CheckstyleWorkDirCache cache =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        cache.put(kept, List.of(audit(kept)));
+        cache.put(deleted, List.of(audit(deleted)));
+        cache.save();
+
+        final CheckstyleWorkDirCache next =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        assertThat(next.get(kept)).hasSize(1);
+        next.save();
+
+        final CheckstyleWorkDirCache pruned =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        assertThat(pruned.get(kept)).hasSize(1);
+        assertThat(pruned.get(deleted)).isNull();
+    }
+
+    @Test
+    void exceptionsAreNotCached() throws IOException {
+        final InputFile inputFile = inputFile("Foo.java", "class Foo {}");
+        final CheckstyleFileAudit audit = audit(inputFile);
+        audit.addException(new AuditEvent(this), new IllegalStateException("failure"));
+        final CheckstyleWorkDirCache cache = CheckstyleWorkDirCache.load(
+                new File(workDir, "cache.bin"), "conf", classLoader);
+        cache.put(inputFile, List.of(audit));
+
+        assertThat(cache.get(inputFile)).isNull();
+    }
+
+    @Test
+    void missingSourceFile() {
+        final InputFile inputFile = new TestInputFileBuilder("", workDir, new File(workDir,
+                "Missing.java")).build();
+        final CheckstyleWorkDirCache cache = CheckstyleWorkDirCache.load(
+                new File(workDir, "cache.bin"), "conf", classLoader);
+        cache.put(inputFile, new ArrayList<>());
+
+        assertThat(cache.get(inputFile)).isNull();
+    }
+
+    @Test
+    void unknownModule() throws IOException {
+        final InputFile inputFile = inputFile("Foo.java", "class Foo {}");
+        final File cacheFile = new File(workDir, "cache.bin");
+        final CheckstyleWorkDirCache cache =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        cache.put(inputFile, List.of(audit(inputFile)));
+        cache.save();
+
+        final ClassLoader emptyClassLoader = new ClassLoader(null) {
+        };
+        assertThat(CheckstyleWorkDirCache.load(cacheFile, "conf", emptyClassLoader)
+                .get(inputFile)).isNull();
+    }
+
+    @Test
+    void corruptedFile() throws IOException {
+        final InputFile inputFile = inputFile("Foo.java", "class Foo {}");
+        final File cacheFile = new File(workDir, "cache.bin");
+        final CheckstyleWorkDirCache cache =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        cache.put(inputFile, List.of(audit(inputFile)));
+        cache.save();
+        final byte[] content = FileUtils.readFileToByteArray(cacheFile);
+        FileUtils.writeByteArrayToFile(cacheFile, content, 0, content.length - 1);
+
+        assertThat(CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader)
+                .get(inputFile)).isNull();
+    }
+
+    @Test
+    void saveFailure() throws IOException {
+        final InputFile inputFile = inputFile("Foo.java", "class Foo {}");
+        final File cacheFile = new File(workDir, "missing/cache.bin");
+        final CheckstyleWorkDirCache cache =
+                CheckstyleWorkDirCache.load(cacheFile, "conf", classLoader);
+        cache.put(inputFile, List.of(audit(inputFile)));
+        cache.save();
+
+        assertThat(cacheFile).doesNotExist();
+    }
+
+    private InputFile inputFile(String name, String content) throws IOException {
+        final File file = new File(workDir, name);
+        FileUtils.write(file, content, StandardCharsets.UTF_8);
+        return new TestInputFileBuilder("", workDir, file).build();
+    }
+
+    private CheckstyleFileAudit audit(InputFile inputFile) {
+        final String fileName = new File(inputFile.uri()).getAbsolutePath();
+        final CheckstyleFileAudit audit = new CheckstyleFileAudit(fileName, true);
+        audit.addError(new AuditEvent(this, fileName, new Violation(3, 7, null, null, null,
+                SeverityLevel.WARNING, "id", CheckstyleWorkDirCacheTest.class,
+                "Don''t use ''{0}'' here.")));
+        return audit;
+    }
+}
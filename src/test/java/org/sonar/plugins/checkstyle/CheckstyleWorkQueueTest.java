@@ -0,0 +1,136 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2026 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 3 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package org.sonar.plugins.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CheckstyleWorkQueueTest {
+
+    @Test
+    void pollLongestFirst() {
+        final CheckstyleWorkQueue<Long> queue =
+                new CheckstyleWorkQueue<>(List.of(1L, 5L, 3L, 4L), Long::longValue, 2);
+
+        assertThat(queue.getLoad(0)).isEqualTo(6);
+        assertThat(queue.getLoad(1)).isEqualTo(7);
+        assertThat(queue.poll(0)).isEqualTo(5);
+        assertThat(queue.poll(1)).isEqualTo(4);
+        assertThat(queue.poll(1)).isEqualTo(3);
+        assertThat(queue.getLoad(0)).isEqualTo(1);
+        assertThat(queue.getLoad(1)).isZero();
+    }
+
+    @Test
+    void stealFromMostLoaded() {
+        final CheckstyleWorkQueue<Long> queue =
+                new CheckstyleWorkQueue<>(List.of(9L, 4L, 3L, 2L, 1L), Long::longValue, 3);
+
+        // worker 0: 9, worker 1: 4 1, worker 2: 3 2
+        assertThat(queue.poll(0)).isEqualTo(9);
+        assertThat(queue.poll(0)).isEqualTo(1);
+        assertThat(queue.poll(0)).isEqualTo(2);
+        assertThat(queue.poll(0)).isEqualTo(4);
+        assertThat(queue.poll(0)).isEqualTo(3);
+        assertThat(queue.poll(0)).isNull();
+        assertThat(queue.poll(1)).isNull();
+    }
+
+    @Test
+    void emptyQueue() {
+        final CheckstyleWorkQueue<Long> queue =
+                new CheckstyleWorkQueue<>(Collections.emptyList(), Long::longValue, 2);
+
+        assertThat(queue.poll(0)).isNull();
+        assertThat(queue.getLoad(1)).isZero();
+    }
+
+    /**
+     * Simulates the analysis of a module where a few generated files, all
+     * next to each other, are 200 times slower than the others, and compares
+     * the time to the last finished file against chunks of equal size.
+     */
+    @Test
+    void tailLatencyAgainstNaiveChunking() {
+        final int workers = 4;
+        final List<Long> costs = new ArrayList<>();
+        for (int index = 0; index < 8; index++) {
+            costs.add(200L);
+        }
+        for (int index = 0; index < 1000; index++) {
+            costs.add(1L);
+        }
+        final long total = costs.stream().mapToLong(Long::longValue).sum();
+
+        final long naive = naiveChunkingMakespan(costs, workers);
+        final long scheduled = workQueueMakespan(costs, workers);
+
+        assertThat(naive).isEqualTo(1844);
+        assertThat(scheduled).isLessThanOrEqualTo(total / workers + 1);
+        assertThat(scheduled * 2).isLessThan(naive);
+    }
+
+    private static long naiveChunkingMakespan(List<Long> costs, int workers) {
+        final int chunkSize = (costs.size() + workers - 1) / workers;
+        long result = 0;
+        for (int from = 0; from < costs.size(); from += chunkSize) {
+            long chunk = 0;
+            for (long cost : costs.subList(from, Math.min(costs.size(), from + chunkSize))) {
+                chunk += cost;
+            }
+            result = Math.max(result, chunk);
+        }
+        return result;
+    }
+
+    private static long workQueueMakespan(List<Long> costs, int workers) {
+        final CheckstyleWorkQueue<Long> queue =
+                new CheckstyleWorkQueue<>(costs, Long::longValue, workers);
+        final long[] busyUntil = new long[workers];
+        final boolean[] done = new boolean[workers];
+        int active = workers;
+        while (active > 0) {
+            int next = -1;
+            for (int worker = 0; worker < workers; worker++) {
+                if (!done[worker] && (next < 0 || busyUntil[worker] < busyUntil[next])) {
+                    next = worker;
+                }
+            }
+            final Long cost = queue.poll(next);
+            if (cost == null) {
+                done[next] = true;
+                active--;
+            }
+            else {
+                busyUntil[next] += cost;
+            }
+        }
+        long result = 0;
+        for (long time : busyUntil) {
+            result = Math.max(result, time);
+        }
+        return result;
+    }
+}